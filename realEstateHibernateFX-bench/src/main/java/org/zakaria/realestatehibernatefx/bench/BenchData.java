@@ -0,0 +1,61 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic synthetic RealEstate listings, so every run sees the same data.
+ */
+public final class BenchData {
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bruno", "Chloe", "David", "Emma", "Farid", "Grace", "Hugo", "Ines", "Jonas",
+            "Karim", "Laura", "Mehdi", "Nora", "Omar", "Paula", "Quentin", "Rania", "Samir", "Tara"};
+    private static final String[] LAST_NAMES = {
+            "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+            "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier"};
+    private static final String[] STREETS = {
+            "Main Street", "Oak Avenue", "Maple Road", "Cedar Lane", "Elm Street", "Pine Court", "Lake Drive",
+            "Hill Road", "Park Avenue", "River Street", "Sunset Boulevard", "Harbor Way", "Mill Lane", "Station Road"};
+
+    private BenchData() {
+    }
+
+    /**
+     * Creates the n-th synthetic listing, without an ID.
+     *
+     * @param n the listing number
+     * @return the listing
+     */
+    public static RealEstate listing(long n) {
+        long mixed = n * 0x9E3779B97F4A7C15L;
+        int bits = (int) (mixed >>> 32) & Integer.MAX_VALUE;
+        RealEstate realEstate = new RealEstate();
+        realEstate.setRealEstateName("Listing " + n);
+        realEstate.setOwner(FIRST_NAMES[bits % FIRST_NAMES.length] + " "
+                + LAST_NAMES[(bits / FIRST_NAMES.length) % LAST_NAMES.length]);
+        realEstate.setAddress((1 + bits % 999) + " " + STREETS[(bits / 999) % STREETS.length]);
+        realEstate.setZipCode(10000 + bits % 90000);
+        realEstate.setPrice(50_000 + (bits % 19_000) * 50.0);
+        realEstate.setNumberOfRooms(1 + bits % 8);
+        return realEstate;
+    }
+
+    /**
+     * Creates synthetic listings with IDs 1 to count, as if loaded from the database.
+     *
+     * @param count the number of listings
+     * @return the listings
+     */
+    public static List<RealEstate> loadedListings(int count) {
+        List<RealEstate> listings = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            RealEstate realEstate = listing(i);
+            realEstate.setId(i);
+            listings.add(realEstate);
+        }
+        return listings;
+    }
+}
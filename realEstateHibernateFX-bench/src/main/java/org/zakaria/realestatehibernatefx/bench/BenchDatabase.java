@@ -0,0 +1,64 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded H2 databases for benchmarks.
+ * <p>
+ * Benchmarks of a single mapping build their own SessionFactory with
+ * {@link #open(int, Class[])}. Benchmarks of the application's DAO call
+ * {@link #useForApplication()} before first use of {@code HibernateUtil}, which
+ * then builds its SessionFactory and connection pool over H2 instead of MySQL.
+ */
+public final class BenchDatabase {
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    private BenchDatabase() {
+    }
+
+    /**
+     * Points the application's HibernateUtil at a new in-memory H2 database.
+     * Must be called before HibernateUtil is first used in this JVM.
+     */
+    public static void useForApplication() {
+        System.setProperty("realestate.db.url",
+                "jdbc:h2:mem:app" + DATABASE_COUNTER.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("realestate.db.driver", "org.h2.Driver");
+        System.setProperty("realestate.db.username", "sa");
+        System.setProperty("realestate.db.password", "");
+        System.setProperty("realestate.db.schema.action", "create");
+        System.setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        System.setProperty(AvailableSettings.SHOW_SQL, "false");
+        System.setProperty(AvailableSettings.FORMAT_SQL, "false");
+        System.setProperty(AvailableSettings.USE_SQL_COMMENTS, "false");
+    }
+
+    /**
+     * Creates a SessionFactory over a new, empty in-memory database.
+     *
+     * @param batchSize the JDBC batch size
+     * @param entities  the entity classes to map; their tables are created
+     * @return the SessionFactory
+     */
+    public static SessionFactory open(int batchSize, Class<?>... entities) {
+        Configuration configuration = new Configuration();
+        configuration.setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                "jdbc:h2:mem:bench" + DATABASE_COUNTER.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        configuration.setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa");
+        configuration.setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "");
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+        configuration.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        configuration.setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        configuration.setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none");
+        for (Class<?> entity : entities) {
+            configuration.addAnnotatedClass(entity);
+        }
+        return configuration.buildSessionFactory();
+    }
+}
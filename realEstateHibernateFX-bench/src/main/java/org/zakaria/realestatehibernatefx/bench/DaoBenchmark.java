@@ -0,0 +1,132 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateUpdateResult;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RealEstateDao operations against an embedded H2 database seeded with
+ * {@code rows} listings. Every parameter combination runs in its own JVM, so
+ * the seeded database and HibernateUtil's caches start fresh.
+ * <p>
+ * Run e.g. {@code java -jar target/benchmarks.jar DaoBenchmark -p rows=100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private RealEstateDao dao;
+    private int[] ids;
+    private long[] versions;
+    private SplittableRandom random;
+    private long nextListing;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        BenchDatabase.useForApplication();
+        dao = new RealEstateDao();
+        ids = new int[rows];
+        versions = new long[rows];
+        for (int from = 0; from < rows; from += SEED_BATCH_SIZE) {
+            List<RealEstate> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int n = from; n < Math.min(rows, from + SEED_BATCH_SIZE); n++) {
+                batch.add(BenchData.listing(n));
+            }
+            if (!dao.saveRealEstates(batch)) {
+                throw new IllegalStateException("Seeding failed");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                ids[from + i] = batch.get(i).getId();
+            }
+        }
+        nextListing = rows;
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        System.out.println(System.lineSeparator() + "Second-level cache: " + HibernateUtil.getCacheStatistics());
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    public RealEstate getRealEstateById() {
+        return dao.getRealEstateById(ids[random.nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Optional<RealEstate> getRealEstateByName() {
+        return dao.getRealEstateByName("Listing " + random.nextInt(rows));
+    }
+
+    @Benchmark
+    public List<RealEstate> getAllRealEstates() {
+        return dao.getAllRealEstates();
+    }
+
+    @Benchmark
+    public boolean updateRealEstate() {
+        int index = random.nextInt(rows);
+        RealEstate realEstate = BenchData.listing(index);
+        realEstate.setId(ids[index]);
+        realEstate.setVersion(versions[index]);
+        realEstate.setPrice(realEstate.getPrice() + random.nextInt(1_000));
+        RealEstateUpdateResult result = dao.updateRealEstate(realEstate);
+        if (result.isUpdated()) {
+            versions[index] = result.current().getVersion();
+        }
+        return result.isUpdated();
+    }
+
+    /**
+     * Inserts a listing and deletes it again, keeping the table size stable.
+     */
+    @Benchmark
+    public boolean saveAndDeleteRealEstate() {
+        RealEstate realEstate = BenchData.listing(nextListing++);
+        return dao.saveRealEstate(realEstate).isPresent() && dao.deleteRealEstateById(realEstate.getId());
+    }
+
+    @Benchmark
+    public List<RealEstate> getFilteredPage() {
+        RealEstateFilter filter = RealEstateFilter.of(null, "Emma", null, "100000", "500000");
+        return dao.getRealEstatePage(filter, new RealEstateSort(RealEstateSort.Field.PRICE, true), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long countFilteredRealEstates() {
+        return dao.countRealEstates(RealEstateFilter.of("main", null, null, null, null));
+    }
+}
@@ -0,0 +1,80 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zakaria.realestatehibernatefx.cache.FilterPipeline;
+import org.zakaria.realestatehibernatefx.cache.ListingCache;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The property table's client-side filter, as used in cache browse mode.
+ * Each invocation starts from a fresh pipeline so that no previous result
+ * is reused, except where noted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    private static final String[] TYPED_TEXT = {"m", "ma", "mai", "main", "main ", "main s"};
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ListingCache cache;
+
+    @Setup(Level.Trial)
+    public void fillCache() {
+        cache = new ListingCache();
+        cache.addAll(BenchData.loadedListings(rows));
+    }
+
+    @Benchmark
+    public int[] generalTextFilter() {
+        return new FilterPipeline(cache).apply(RealEstateFilter.of("oak", null, null, null, null)).rows();
+    }
+
+    @Benchmark
+    public int[] ownerPrefixFilter() {
+        return new FilterPipeline(cache).apply(RealEstateFilter.of(null, "emma", null, null, null)).rows();
+    }
+
+    @Benchmark
+    public int[] priceRangeFilter() {
+        return new FilterPipeline(cache).apply(RealEstateFilter.of(null, null, null, "200000", "400000")).rows();
+    }
+
+    @Benchmark
+    public int[] combinedFilter() {
+        return new FilterPipeline(cache).apply(RealEstateFilter.of("street", "a", "main", "100000", "900000")).rows();
+    }
+
+    /**
+     * Filters once per keystroke while "main s" is typed into the general filter,
+     * letting each pass narrow the previous result.
+     */
+    @Benchmark
+    public int[] typingGeneralFilter() {
+        FilterPipeline pipeline = new FilterPipeline(cache);
+        int[] result = null;
+        for (String text : TYPED_TEXT) {
+            result = pipeline.apply(RealEstateFilter.of(text, null, null, null, null)).rows();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zakaria.realestatehibernatefx.bench.model.BenchListing;
+import org.zakaria.realestatehibernatefx.bench.model.IdentityListing;
+import org.zakaria.realestatehibernatefx.bench.model.SequenceListing;
+import org.zakaria.realestatehibernatefx.bench.model.TableListing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Insert throughput per ID generation strategy, one row per transaction versus
+ * one batched transaction. Scores are rows per second.
+ * <p>
+ * IDENTITY cannot batch at all; the pooled strategies only touch their
+ * sequence or table once per {@code RealEstate.ID_ALLOCATION_SIZE} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertStrategyBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    /**
+     * ID generation strategies under test.
+     */
+    public enum IdStrategy {
+        IDENTITY(IdentityListing.class, IdentityListing::new),
+        SEQUENCE(SequenceListing.class, SequenceListing::new),
+        TABLE(TableListing.class, TableListing::new);
+
+        private final Class<? extends BenchListing> entityClass;
+        private final LongFunction<BenchListing> factory;
+
+        IdStrategy(Class<? extends BenchListing> entityClass, LongFunction<BenchListing> factory) {
+            this.entityClass = entityClass;
+            this.factory = factory;
+        }
+    }
+
+    @Param
+    private IdStrategy strategy;
+
+    @Param({"50"})
+    private int batchSize;
+
+    private SessionFactory sessionFactory;
+    private long nextListing;
+
+    @Setup(Level.Trial)
+    public void openDatabase() {
+        sessionFactory = BenchDatabase.open(batchSize, strategy.entityClass);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("delete from " + strategy.entityClass.getSimpleName()).executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        sessionFactory.close();
+    }
+
+    /**
+     * Saves each row in its own session and transaction, like
+     * {@code RealEstateDao.saveRealEstate}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleRowInserts() {
+        for (int i = 0; i < ROWS; i++) {
+            try (Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                session.persist(strategy.factory.apply(nextListing++));
+                tx.commit();
+            }
+        }
+    }
+
+    /**
+     * Saves all rows in one transaction, flushing every batch, like
+     * {@code RealEstateDao.saveRealEstates}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void batchedInserts() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(strategy.factory.apply(nextListing++));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        }
+    }
+}
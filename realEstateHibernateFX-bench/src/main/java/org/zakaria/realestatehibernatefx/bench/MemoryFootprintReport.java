@@ -0,0 +1,98 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.zakaria.realestatehibernatefx.cache.ListingCache;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.search.TrigramIndex;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the heap taken per listing by the client-side listing cache, and by
+ * the entity-per-listing layout it replaced, on synthetic listings.
+ * <p>
+ * Run with
+ * {@code java -Xmx4g -cp target/benchmarks.jar org.zakaria.realestatehibernatefx.bench.MemoryFootprintReport [rows]};
+ * rows defaults to 1,000,000. Sizes are differences of the used heap after
+ * garbage collection, so they are approximate.
+ */
+public final class MemoryFootprintReport {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private MemoryFootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // Entity per listing, each with its own strings, and a boxed ID-to-row map
+        long base = usedHeap();
+        List<RealEstate> entities = BenchData.loadedListings(rows);
+        Map<Integer, Integer> rowsById = new HashMap<>();
+        for (int row = 0; row < entities.size(); row++) {
+            rowsById.put(entities.get(row).getId(), row);
+        }
+        long entityBytes = usedHeap() - base;
+        Reference.reachabilityFence(entities);
+        Reference.reachabilityFence(rowsById);
+        entities = null;
+        rowsById = null;
+
+        // The same trigram index the cache keeps, to separate it from the columns
+        base = usedHeap();
+        TrigramIndex textIndex = new TrigramIndex();
+        for (int i = 1; i <= rows; i++) {
+            RealEstate realEstate = BenchData.listing(i);
+            textIndex.add(i - 1, realEstate.getOwner(), realEstate.getAddress(), realEstate.getRealEstateName(),
+                    String.valueOf(realEstate.getNumberOfRooms()));
+        }
+        long indexBytes = usedHeap() - base;
+        Reference.reachabilityFence(textIndex);
+        textIndex = null;
+
+        base = usedHeap();
+        ListingCache cache = new ListingCache();
+        for (int from = 1; from <= rows; from += BATCH_SIZE) {
+            List<RealEstate> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(rows + 1, from + BATCH_SIZE); i++) {
+                RealEstate realEstate = BenchData.listing(i);
+                realEstate.setId(i);
+                batch.add(realEstate);
+            }
+            cache.addAll(batch);
+        }
+        long cacheBytes = usedHeap() - base;
+
+        System.out.printf("%,d listings, %,d distinct owners, %,d distinct addresses%n",
+                rows, cache.distinctOwners(), cache.distinctAddresses());
+        System.out.printf("%-46s %8s%n", "", "bytes/listing");
+        System.out.printf("%-46s %8.1f%n", "Entities + HashMap<Integer, Integer> by ID", perRow(entityBytes, rows));
+        System.out.printf("%-46s %8.1f%n", "Listing cache", perRow(cacheBytes, rows));
+        System.out.printf("%-46s %8.1f%n", "  trigram text index", perRow(indexBytes, rows));
+        System.out.printf("%-46s %8.1f%n", "  columns, dictionaries and ID index", perRow(cacheBytes - indexBytes, rows));
+        Reference.reachabilityFence(cache);
+    }
+
+    private static double perRow(long bytes, int rows) {
+        return (double) bytes / rows;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collect until the figure settles
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
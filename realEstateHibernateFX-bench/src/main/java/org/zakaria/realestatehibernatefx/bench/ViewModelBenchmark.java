@@ -0,0 +1,81 @@
+package org.zakaria.realestatehibernatefx.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.viewmodel.RealEstateViewModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion between RealEstate entities and table ViewModels, for a page of
+ * the table and for a whole result set. ViewModels create their JavaFX
+ * properties lazily, so construction alone is compared with construction
+ * followed by the property lookups of a table that displays every column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewModelBenchmark {
+
+    @Param({"20", "10000"})
+    private int rows;
+
+    private List<RealEstate> entities;
+    private List<RealEstateViewModel> viewModels;
+
+    @Setup(Level.Trial)
+    public void createEntities() {
+        entities = BenchData.loadedListings(rows);
+        viewModels = entities.stream().map(RealEstateViewModel::new).toList();
+    }
+
+    @Benchmark
+    public List<RealEstateViewModel> constructViewModels() {
+        return entities.stream().map(RealEstateViewModel::new).toList();
+    }
+
+    @Benchmark
+    public List<RealEstateViewModel> constructDisplayedViewModels() {
+        List<RealEstateViewModel> displayed = entities.stream().map(RealEstateViewModel::new).toList();
+        for (RealEstateViewModel viewModel : displayed) {
+            viewModel.idProperty();
+            viewModel.ownerProperty();
+            viewModel.realEstateNameProperty();
+            viewModel.addressProperty();
+            viewModel.numberOfRoomsProperty();
+            viewModel.priceProperty();
+        }
+        return displayed;
+    }
+
+    /**
+     * Points existing ViewModels at other rows, as turning a page does.
+     */
+    @Benchmark
+    public List<RealEstateViewModel> recycleViewModels() {
+        for (int i = 0; i < viewModels.size(); i++) {
+            viewModels.get(i).updateFromEntity(entities.get(entities.size() - 1 - i));
+        }
+        return viewModels;
+    }
+
+    @Benchmark
+    public List<RealEstate> convertToEntities() {
+        return viewModels.stream().map(RealEstateViewModel::toEntity).toList();
+    }
+}
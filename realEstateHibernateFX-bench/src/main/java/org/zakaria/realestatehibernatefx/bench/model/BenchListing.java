@@ -0,0 +1,43 @@
+package org.zakaria.realestatehibernatefx.bench.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+
+/**
+ * Columns of a RealEstate listing, shared by the benchmark entities that differ
+ * only in how their ID is generated.
+ */
+@MappedSuperclass
+public abstract class BenchListing {
+
+    @Column(name = "RealEstateName", unique = true, nullable = false)
+    private String realEstateName;
+
+    private long zipCode;
+
+    private String address;
+
+    private double price;
+
+    @Column(name = "number_of_rooms")
+    private int numberOfRooms;
+
+    private String owner;
+
+    protected BenchListing() {
+    }
+
+    /**
+     * Fills in a synthetic listing.
+     *
+     * @param n a number unique to this listing
+     */
+    protected BenchListing(long n) {
+        this.realEstateName = "Listing " + n;
+        this.zipCode = 10000 + n % 90000;
+        this.address = n + " Bench Street";
+        this.price = 50_000 + n % 950_000;
+        this.numberOfRooms = 1 + (int) (n % 8);
+        this.owner = "Owner " + n % 1000;
+    }
+}
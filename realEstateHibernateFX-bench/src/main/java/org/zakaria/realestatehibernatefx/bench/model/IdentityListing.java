@@ -0,0 +1,25 @@
+package org.zakaria.realestatehibernatefx.bench.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Listing keyed by an IDENTITY column: the ID is only known after each INSERT,
+ * so Hibernate cannot batch the inserts.
+ */
+@Entity
+public class IdentityListing extends BenchListing {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    protected IdentityListing() {
+    }
+
+    public IdentityListing(long n) {
+        super(n);
+    }
+}
@@ -0,0 +1,28 @@
+package org.zakaria.realestatehibernatefx.bench.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+/**
+ * Listing keyed by a pooled sequence, mapped like {@link RealEstate}.
+ */
+@Entity
+public class SequenceListing extends BenchListing {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence_listing_seq")
+    @SequenceGenerator(name = "sequence_listing_seq", sequenceName = "sequence_listing_seq",
+            allocationSize = RealEstate.ID_ALLOCATION_SIZE)
+    private int id;
+
+    protected SequenceListing() {
+    }
+
+    public SequenceListing(long n) {
+        super(n);
+    }
+}
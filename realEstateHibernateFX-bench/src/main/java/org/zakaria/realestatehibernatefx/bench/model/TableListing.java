@@ -0,0 +1,29 @@
+package org.zakaria.realestatehibernatefx.bench.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.TableGenerator;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+/**
+ * Listing keyed by a pooled table generator, which is how the RealEstate
+ * sequence is emulated on MySQL.
+ */
+@Entity
+public class TableListing extends BenchListing {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "table_listing_ids")
+    @TableGenerator(name = "table_listing_ids", table = "bench_id_blocks", pkColumnValue = "table_listing",
+            allocationSize = RealEstate.ID_ALLOCATION_SIZE)
+    private int id;
+
+    protected TableListing() {
+    }
+
+    public TableListing(long n) {
+        super(n);
+    }
+}
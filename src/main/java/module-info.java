@@ -3,12 +3,15 @@ module org.zakaria.realestatehibernatefx {
     requires javafx.fxml;
     requires java.naming;
     requires java.sql;
+    requires java.management;
+    requires com.zaxxer.hikari;
     requires org.hibernate.orm.core;
     requires jakarta.persistence;
     requires java.desktop;
     requires static lombok;
     requires org.slf4j;
     requires jakarta.validation;
+    requires org.hibernate.validator;
 
     opens org.zakaria.realestatehibernatefx to javafx.fxml, org.hibernate.orm.core;
     exports org.zakaria.realestatehibernatefx;
@@ -20,4 +23,8 @@ module org.zakaria.realestatehibernatefx {
     opens org.zakaria.realestatehibernatefx.model to javafx.fxml, org.hibernate.orm.core;
     exports org.zakaria.realestatehibernatefx.repositories;
     opens org.zakaria.realestatehibernatefx.repositories to javafx.fxml, org.hibernate.orm.core;
+    exports org.zakaria.realestatehibernatefx.cache;
+    exports org.zakaria.realestatehibernatefx.search;
+    exports org.zakaria.realestatehibernatefx.geo;
+    exports org.zakaria.realestatehibernatefx.transfer;
 }
\ No newline at end of file
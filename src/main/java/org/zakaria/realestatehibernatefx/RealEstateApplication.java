@@ -2,42 +2,100 @@ package org.zakaria.realestatehibernatefx;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zakaria.realestatehibernatefx.controller.RealEstateController;
 import org.zakaria.realestatehibernatefx.model.RealEstate;
 import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+import org.zakaria.realestatehibernatefx.utility.StartupTimer;
 
 /**
  * Main application class for the Real Estate Manager.
+ * <p>
+ * The window is shown before the database is ready: the SessionFactory is
+ * built on a background thread from {@link #init()}, and the table shows a
+ * loading state until its first rows arrive. The ID sequence alignment and
+ * the sample row check run once the SessionFactory is ready.
  */
 public class RealEstateApplication extends Application {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealEstateApplication.class);
+
     RealEstateDao realEstateDao = new RealEstateDao();
+    private RealEstateController controller;
+
+    /**
+     * Starts building the SessionFactory while the FX toolkit starts.
+     */
+    @Override
+    public void init() {
+        StartupTimer.mark("JavaFX launched");
+        HibernateUtil.startAsync()
+                .thenRun(() -> StartupTimer.time("ID sequence and sample data check", this::prepareDatabase))
+                .exceptionally(error -> {
+                    logger.error("Database startup failed: ", error);
+                    return null;
+                });
+    }
 
     @Override
     public void start(Stage stage) throws Exception {
+        // Load the main UI from FXML
+        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("real-estate-view.fxml"));
+        Parent root = fxmlLoader.load();
+        StartupTimer.mark("main view loaded");
+        Scene scene = new Scene(root, 1000, 700);
+        controller = fxmlLoader.getController();
+        scene.getStylesheets().add(getClass().getResource("styles/styles.css").toExternalForm());
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                StartupTimer.mark("first frame");
+            }
+        });
+        stage.setTitle("Real Estate Manager");
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    /**
+     * Aligns the ID sequence and adds the sample property on first run.
+     */
+    private void prepareDatabase() {
+        realEstateDao.alignIdSequence();
+
         // Check if 'Test Property' already exists to prevent duplicate entries
         RealEstate existing = realEstateDao.getRealEstateByName("Test Property").orElse(null);
         if (existing == null) {
             RealEstate realEstate = new RealEstate();
             realEstate.setRealEstateName("Test Property");
             realEstate.setAddress("123 Test Street");
+            realEstate.setZipCode(10001);
             realEstate.setOwner("Test Owner");
             realEstate.setPrice(100000.00);
             realEstate.setNumberOfRooms(3);
 
-            boolean success = realEstateDao.saveRealEstate(realEstate);
-            System.out.println("Save successful: " + success);
+            boolean success = realEstateDao.saveRealEstate(realEstate).isPresent();
+            logger.info("Sample property saved: {}", success);
         } else {
-            System.out.println("Test Property already exists.");
+            logger.debug("Sample property already exists");
         }
+    }
 
-        // Load the main UI from FXML
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("real-estate-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 1000, 700);
-        scene.getStylesheets().add(getClass().getResource("styles/styles.css").toExternalForm());
-        stage.setTitle("Real Estate Manager");
-        stage.setScene(scene);
-        stage.show();
+    /**
+     * Stops background database work and closes the SessionFactory.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+        HibernateUtil.shutdown();
     }
 
     /**
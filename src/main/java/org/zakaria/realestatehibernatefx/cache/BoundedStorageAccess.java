@@ -0,0 +1,75 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Storage of one second-level cache region: a least-recently-used map with
+ * an optional time-to-live per entry.
+ */
+class BoundedStorageAccess implements DomainDataStorageAccess {
+
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    /**
+     * Creates an empty region storage.
+     *
+     * @param maxEntries the number of entries kept before the least recently used is dropped
+     * @param ttlNanos   how long an entry stays valid, 0 for no expiry
+     */
+    BoundedStorageAccess(int maxEntries, long ttlNanos) {
+        this.ttlNanos = ttlNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public synchronized void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : System.nanoTime() + Long.MAX_VALUE / 2;
+        entries.put(key, new Entry(value, expiresAt));
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return getFromCache(key, null) != null;
+    }
+
+    @Override
+    public synchronized void evictData() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void evictData(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+}
@@ -0,0 +1,373 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.PageSource;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChange;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Page source backed by the client-side listing cache.
+ * <p>
+ * The filter pass and the sort run on first use, on whichever background
+ * thread asks for the count or a page first. The sort compares rows by their
+ * cache columns, so no entity or boxed value is created per row. Once the
+ * sorted rows exist, a change is patched into them with a binary search by
+ * its sort key instead of filtering and sorting again. The sorted rows are
+ * replaced, never modified, so the FX thread patching them never waits for a
+ * filter pass in progress; changes made during a pass are patched into its
+ * result before it is published.
+ */
+public class CachedPageSource implements PageSource {
+
+    // Runs shorter than this are sorted by insertion before merging
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    // No listing has this ID, so every row compares by its values
+    private static final int NO_ROW = Integer.MIN_VALUE;
+
+    private final ListingCache cache;
+    private final FilterPipeline pipeline;
+    private final RealEstateFilter filter;
+    private final RealEstateSort sort;
+    private final int pageSize;
+    private final Object computeLock = new Object();
+    private final Object patchLock = new Object();
+    private volatile int[] rows;
+    // Changes applied while a filter pass runs, guarded by patchLock
+    private List<RealEstateChange> changesDuringPass;
+
+    /**
+     * Creates a page source over the cache.
+     *
+     * @param cache    the listing cache
+     * @param pipeline the filter pipeline over the cache
+     * @param filter   the filter criteria
+     * @param sort     the sort order
+     * @param pageSize the number of rows per page
+     */
+    public CachedPageSource(ListingCache cache, FilterPipeline pipeline,
+                            RealEstateFilter filter, RealEstateSort sort, int pageSize) {
+        this.cache = cache;
+        this.pipeline = pipeline;
+        this.filter = filter;
+        this.sort = sort;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public long getTotalCount() {
+        return rows().length;
+    }
+
+    @Override
+    public int getPageCount() {
+        return Math.max(1, (rows().length + pageSize - 1) / pageSize);
+    }
+
+    @Override
+    public List<RealEstate> getPage(int pageIndex) {
+        int[] matches = rows();
+        int from = Math.min(pageIndex * pageSize, matches.length);
+        int to = Math.min(from + pageSize, matches.length);
+        return cache.read(() -> {
+            List<RealEstate> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                RealEstate realEstate = cache.get(matches[i]);
+                if (realEstate != null) {
+                    page.add(realEstate);
+                }
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Returns the IDs of the matching rows, in sort order.
+     *
+     * @return the IDs
+     */
+    public List<Integer> getIds() {
+        int[] matches = rows();
+        return cache.read(() -> Arrays.stream(matches).mapToObj(cache::id).toList());
+    }
+
+    /**
+     * Moves the changed row to its new position in the sorted rows, or adds
+     * or removes it. The cache must already hold the change. If a filter pass
+     * is running, the change is also recorded to be patched into its result.
+     *
+     * @param change the applied change
+     */
+    @Override
+    public void applyChange(RealEstateChange change) {
+        synchronized (patchLock) {
+            if (changesDuringPass != null) {
+                changesDuringPass.add(change);
+            }
+            int[] current = rows;
+            if (current != null) {
+                rows = cache.read(() -> patched(current, change));
+            }
+        }
+    }
+
+    /**
+     * Filters and sorts the cache again. The previous rows stay in use until
+     * the new ones are ready.
+     *
+     * @return the number of matching rows
+     */
+    @Override
+    public long recount() {
+        synchronized (computeLock) {
+            return compute().length;
+        }
+    }
+
+    @Override
+    public RealEstateFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public RealEstateSort getSort() {
+        return sort;
+    }
+
+    private int[] rows() {
+        int[] current = rows;
+        if (current != null) {
+            return current;
+        }
+        synchronized (computeLock) {
+            current = rows;
+            return current != null ? current : compute();
+        }
+    }
+
+    /**
+     * Runs the filter pass and the sort, then patches in the changes applied
+     * meanwhile and publishes the result. Must be called holding computeLock.
+     */
+    private int[] compute() {
+        synchronized (patchLock) {
+            changesDuringPass = new ArrayList<>();
+        }
+        int[] computed = cache.read(() -> sorted(pipeline.apply(filter).rows()));
+        synchronized (patchLock) {
+            int[] result = changesDuringPass.isEmpty() ? computed : cache.read(() -> reconciled(computed));
+            changesDuringPass = null;
+            rows = result;
+            return result;
+        }
+    }
+
+    /**
+     * Brings rows sorted during a filter pass up to date with the changes
+     * applied meanwhile. The pass may have seen any of them, so each changed
+     * row is taken out wherever it is and put back by its current state. Must
+     * be called inside {@link ListingCache#read}.
+     */
+    private int[] reconciled(int[] sorted) {
+        Set<Integer> changedIds = new HashSet<>();
+        changesDuringPass.forEach(change -> changedIds.add(change.id()));
+        int[] result = Arrays.stream(sorted).filter(row -> !changedIds.contains(cache.id(row))).toArray();
+        for (int id : changedIds) {
+            int row = cache.rowOf(id);
+            if (row >= 0) {
+                result = inserted(result, cache.get(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the sorted rows with the changed row moved to the
+     * position of its new state, or without it if it no longer matches. The
+     * rows are sorted by the state before the change, so a binary search by
+     * that state finds it. Must be called inside {@link ListingCache#read}.
+     */
+    private int[] patched(int[] sorted, RealEstateChange change) {
+        int[] result = sorted;
+        if (change.before() != null) {
+            int index = search(sorted, change.before(), change.id());
+            if (index >= 0) {
+                result = new int[sorted.length - 1];
+                System.arraycopy(sorted, 0, result, 0, index);
+                System.arraycopy(sorted, index + 1, result, index, result.length - index);
+            }
+        }
+        return change.after() != null ? inserted(result, change.after()) : result;
+    }
+
+    /**
+     * Returns a copy of the sorted rows with a row inserted at the position of
+     * its state, if the state matches the filter and the row is cached.
+     */
+    private int[] inserted(int[] sorted, RealEstate state) {
+        int row = cache.rowOf(state.getId());
+        if (row < 0 || !filter.matches(state)) {
+            return sorted;
+        }
+        int insertAt = -search(sorted, state, NO_ROW) - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertAt);
+        result[insertAt] = row;
+        System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+        return result;
+    }
+
+    /**
+     * Binary search for the position of a row state in the sorted rows. The
+     * row with the given ID compares equal to the state wherever it is; a
+     * search that must not stop at any row passes {@link #NO_ROW}.
+     *
+     * @return the index of the row with the ID, or (-(insertion point) - 1)
+     */
+    private int search(int[] sorted, RealEstate state, int id) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = sorted[mid];
+            if (cache.id(row) == id) {
+                return mid;
+            }
+            int order = compare(state, row);
+            if (order > 0) {
+                low = mid + 1;
+            } else if (order < 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Sorts rows in place by the sort keys, reading the cache columns. Must be
+     * called inside {@link ListingCache#read}.
+     */
+    private int[] sorted(int[] matches) {
+        if (!sort.equals(RealEstateSort.BY_ID) || !isSorted(matches, this::compare)) {
+            sort(matches, this::compare);
+        }
+        return matches;
+    }
+
+    /**
+     * Compares two rows like {@link RealEstateSort#comparator()} compares
+     * their entities.
+     */
+    private int compare(int left, int right) {
+        for (RealEstateSort.Key key : sort.keys()) {
+            int order = switch (key.field()) {
+                case ID -> Integer.compare(cache.id(left), cache.id(right));
+                case OWNER -> compareNullsFirst(cache.owner(left), cache.owner(right));
+                case NAME -> compareNullsFirst(cache.realEstateName(left), cache.realEstateName(right));
+                case ADDRESS -> compareNullsFirst(cache.address(left), cache.address(right));
+                case ZIP_CODE -> Long.compare(cache.zipCode(left), cache.zipCode(right));
+                case ROOMS -> Integer.compare(cache.numberOfRooms(left), cache.numberOfRooms(right));
+                case PRICE -> Double.compare(cache.price(left), cache.price(right));
+            };
+            if (order != 0) {
+                return key.ascending() ? order : -order;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares a row state with a cached row.
+     */
+    private int compare(RealEstate left, int right) {
+        for (RealEstateSort.Key key : sort.keys()) {
+            int order = switch (key.field()) {
+                case ID -> Integer.compare(left.getId(), cache.id(right));
+                case OWNER -> compareNullsFirst(left.getOwner(), cache.owner(right));
+                case NAME -> compareNullsFirst(left.getRealEstateName(), cache.realEstateName(right));
+                case ADDRESS -> compareNullsFirst(left.getAddress(), cache.address(right));
+                case ZIP_CODE -> Long.compare(left.getZipCode(), cache.zipCode(right));
+                case ROOMS -> Integer.compare(left.getNumberOfRooms(), cache.numberOfRooms(right));
+                case PRICE -> Double.compare(left.getPrice(), cache.price(right));
+            };
+            if (order != 0) {
+                return key.ascending() ? order : -order;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareNullsFirst(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+        return String.CASE_INSENSITIVE_ORDER.compare(left, right);
+    }
+
+    private static boolean isSorted(int[] values, IntBinaryOperator order) {
+        for (int i = 1; i < values.length; i++) {
+            if (order.applyAsInt(values[i - 1], values[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stable merge sort of an int array by a comparator over its values.
+     */
+    static void sort(int[] values, IntBinaryOperator order) {
+        int length = values.length;
+        for (int from = 0; from < length; from += INSERTION_SORT_THRESHOLD) {
+            insertionSort(values, from, Math.min(from + INSERTION_SORT_THRESHOLD, length), order);
+        }
+        int[] source = values;
+        int[] target = new int[length];
+        for (int width = INSERTION_SORT_THRESHOLD; width < length; width *= 2) {
+            for (int from = 0; from < length; from += 2 * width) {
+                int middle = Math.min(from + width, length);
+                int to = Math.min(from + 2 * width, length);
+                merge(source, target, from, middle, to, order);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != values) {
+            System.arraycopy(source, 0, values, 0, length);
+        }
+    }
+
+    private static void insertionSort(int[] values, int from, int to, IntBinaryOperator order) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && order.applyAsInt(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void merge(int[] source, int[] target, int from, int middle, int to, IntBinaryOperator order) {
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (left < middle && (right >= to || order.applyAsInt(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
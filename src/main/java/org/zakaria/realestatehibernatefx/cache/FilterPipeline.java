@@ -0,0 +1,263 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zakaria.realestatehibernatefx.geo.ZipArea;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+import org.zakaria.realestatehibernatefx.search.CaseFolding;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Evaluates RealEstate filters against a {@link ListingCache}.
+ * <p>
+ * Each filter is compiled once into a row predicate with its numbers already
+ * parsed and its needles already lower-cased, and string fields are compared
+ * in place without allocating, see {@link CaseFolding}. Owner and address criteria are evaluated once
+ * per distinct value of the cache's dictionaries, so rows are tested by
+ * comparing int codes. The rows tested are the smallest of:
+ * <ul>
+ *     <li>the previous result, when the filter only narrows the previous one
+ *     (the user typed another character) and the cache has not changed;</li>
+ *     <li>the trigram index candidates for the general filter text;</li>
+ *     <li>the price index slice for the min/max price range, whose size is
+ *     known from two binary searches before any row is read;</li>
+ *     <li>the zip code index slices for the zip codes of a zip area;</li>
+ *     <li>every row of the cache.</li>
+ * </ul>
+ */
+public class FilterPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilterPipeline.class);
+    // Numbers below this have their general filter answer remembered
+    private static final int SMALL_NUMBERS = 1 << 10;
+    private static final byte UNKNOWN = 0;
+    private static final byte CONTAINS = 1;
+    private static final byte DOES_NOT_CONTAIN = 2;
+
+    private final ListingCache cache;
+
+    private RealEstateFilter lastFilter;
+    private int[] lastRows;
+    private long lastVersion = -1;
+    private volatile FilterPass lastPass;
+
+    /**
+     * How a filter pass chose the rows to test.
+     */
+    public enum Strategy {
+        FULL_SCAN,
+        INCREMENTAL,
+        TEXT_INDEX,
+        PRICE_INDEX,
+        ZIP_INDEX
+    }
+
+    /**
+     * Outcome and cost of one filter pass.
+     *
+     * @param filter   the applied filter
+     * @param rows     the matching row numbers, in row order
+     * @param scanned  the number of rows tested
+     * @param strategy how the tested rows were chosen
+     * @param nanos    the elapsed time of the pass
+     */
+    public record FilterPass(RealEstateFilter filter, int[] rows, int scanned, Strategy strategy, long nanos) {
+
+        /**
+         * Returns the elapsed time in milliseconds.
+         *
+         * @return the elapsed milliseconds
+         */
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Creates a pipeline over the given cache.
+     *
+     * @param cache the listing cache
+     */
+    public FilterPipeline(ListingCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Applies a filter and returns the matching rows.
+     *
+     * @param filter the filter criteria
+     * @return the filter pass
+     */
+    public synchronized FilterPass apply(RealEstateFilter filter) {
+        FilterPass pass = cache.read(() -> {
+            long start = System.nanoTime();
+            long version = cache.version();
+            int[] candidates = null;
+            Strategy strategy = Strategy.FULL_SCAN;
+            if (filter.unsatisfiable()) {
+                candidates = new int[0];
+            } else {
+                if (filter.text() != null) {
+                    candidates = cache.textCandidates(filter.text());
+                    strategy = candidates == null ? Strategy.FULL_SCAN : Strategy.TEXT_INDEX;
+                }
+                if (filter.minPrice() != null || filter.maxPrice() != null) {
+                    double minPrice = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+                    double maxPrice = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+                    // The slice is sorted back into row order, so it must be well below a scan to pay off
+                    int limit = (candidates == null ? cache.rowCount() : candidates.length) / 2;
+                    if (cache.countPriceRange(minPrice, maxPrice) < limit) {
+                        candidates = cache.rowsInPriceRange(minPrice, maxPrice);
+                        strategy = Strategy.PRICE_INDEX;
+                    }
+                }
+                if (filter.area() != null) {
+                    long[] zipCodes = filter.area().zipCodes();
+                    int limit = (candidates == null ? cache.rowCount() : candidates.length) / 2;
+                    if (cache.countZipCodes(zipCodes) < limit) {
+                        candidates = cache.rowsInZipCodes(zipCodes);
+                        strategy = Strategy.ZIP_INDEX;
+                    }
+                }
+                if (lastRows != null && version == lastVersion && filter.isRefinementOf(lastFilter)
+                        && (candidates == null || lastRows.length < candidates.length)) {
+                    candidates = lastRows;
+                    strategy = Strategy.INCREMENTAL;
+                }
+            }
+            IntPredicate predicate = compile(filter);
+            int[] rows = candidates == null ? selectAll(predicate) : select(candidates, predicate);
+            int scanned = candidates == null ? cache.rowCount() : candidates.length;
+            lastFilter = filter;
+            lastRows = rows;
+            lastVersion = version;
+            return new FilterPass(filter, rows, scanned, strategy, System.nanoTime() - start);
+        });
+        lastPass = pass;
+        logger.debug("Filter pass: {} of {} rows matched in {} ms ({})", pass.rows().length, pass.scanned(),
+                String.format("%.3f", pass.millis()), pass.strategy());
+        return pass;
+    }
+
+    /**
+     * Returns the most recent filter pass.
+     *
+     * @return the last pass, or null if none has run
+     */
+    public FilterPass getLastPass() {
+        return lastPass;
+    }
+
+    /**
+     * Compiles a filter into a predicate over cache rows.
+     *
+     * @param filter the filter criteria
+     * @return the row predicate
+     */
+    IntPredicate compile(RealEstateFilter filter) {
+        IntPredicate predicate = cache::isLive;
+        String text = filter.text();
+        if (text != null) {
+            IntPredicate rooms = text.chars().allMatch(Character::isDigit) ? digitsContaining(text) : value -> false;
+            BitSet owners = cache.ownersMatching(owner -> CaseFolding.contains(owner, text));
+            BitSet addresses = cache.addressesMatching(address -> CaseFolding.contains(address, text));
+            predicate = predicate.and(row -> owners.get(cache.ownerCode(row))
+                    || addresses.get(cache.addressCode(row))
+                    || CaseFolding.contains(cache.realEstateName(row), text)
+                    || rooms.test(cache.numberOfRooms(row)));
+        }
+        String owner = filter.owner();
+        if (owner != null) {
+            predicate = predicate.and(codeFilter(cache.ownersMatching(value -> CaseFolding.startsWith(value, owner)),
+                    cache::ownerCode));
+        }
+        String address = filter.address();
+        if (address != null) {
+            predicate = predicate.and(codeFilter(cache.addressesMatching(value -> CaseFolding.contains(value, address)),
+                    cache::addressCode));
+        }
+        if (filter.minPrice() != null) {
+            double minPrice = filter.minPrice();
+            predicate = predicate.and(row -> cache.price(row) >= minPrice);
+        }
+        if (filter.maxPrice() != null) {
+            double maxPrice = filter.maxPrice();
+            predicate = predicate.and(row -> cache.price(row) <= maxPrice);
+        }
+        ZipArea area = filter.area();
+        if (area != null) {
+            predicate = predicate.and(row -> area.contains(cache.zipCode(row)));
+        }
+        return predicate;
+    }
+
+    /**
+     * Builds a row predicate from the dictionary codes that pass a criterion.
+     * A single matching code, e.g. a complete owner name, is a plain int comparison.
+     *
+     * @param codes      the matching codes
+     * @param codeColumn reads a row's code
+     * @return the row predicate
+     */
+    private static IntPredicate codeFilter(BitSet codes, IntUnaryOperator codeColumn) {
+        int first = codes.nextSetBit(0);
+        if (first < 0) {
+            return row -> false;
+        }
+        if (codes.nextSetBit(first + 1) < 0) {
+            return row -> codeColumn.applyAsInt(row) == first;
+        }
+        return row -> codes.get(codeColumn.applyAsInt(row));
+    }
+
+    private int[] selectAll(IntPredicate predicate) {
+        int rowCount = cache.rowCount();
+        int[] matches = new int[Math.min(rowCount, 1024)];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (predicate.test(row)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static int[] select(int[] candidates, IntPredicate predicate) {
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (predicate.test(row)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Builds a test for whether the decimal form of a number contains some
+     * digits. Room counts take few values, so the answer for small numbers is
+     * remembered and each row costs an array lookup instead of a new string.
+     *
+     * @param digits the digits to look for
+     * @return the number predicate
+     */
+    static IntPredicate digitsContaining(String digits) {
+        byte[] answers = new byte[SMALL_NUMBERS];
+        return value -> {
+            if (value < 0 || value >= SMALL_NUMBERS) {
+                return Integer.toString(value).contains(digits);
+            }
+            if (answers[value] == UNKNOWN) {
+                answers[value] = Integer.toString(value).contains(digits) ? CONTAINS : DOES_NOT_CONTAIN;
+            }
+            return answers[value] == CONTAINS;
+        };
+    }
+}
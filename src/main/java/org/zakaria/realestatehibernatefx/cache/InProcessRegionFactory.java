@@ -0,0 +1,73 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second-level cache provider that keeps every region in this JVM.
+ * <p>
+ * Entity and query result regions are bounded by {@link #MAX_ENTRIES} and
+ * expire entries after {@link #TTL_SECONDS}. The update timestamps region is
+ * never bounded: a lost timestamp would let the query cache serve results
+ * older than the last write to their table.
+ */
+public class InProcessRegionFactory extends RegionFactoryTemplate {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of entries per region.
+     */
+    public static final String MAX_ENTRIES = "hibernate.cache.in_process.max_entries";
+
+    /**
+     * Time-to-live of an entry in seconds, 0 for no expiry.
+     */
+    public static final String TTL_SECONDS = "hibernate.cache.in_process.ttl_seconds";
+
+    private int maxEntries = 10_000;
+    private long ttlNanos;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object maxEntriesValue = configValues.get(MAX_ENTRIES);
+        if (maxEntriesValue != null) {
+            maxEntries = Integer.parseInt(maxEntriesValue.toString().trim());
+        }
+        Object ttlValue = configValues.get(TTL_SECONDS);
+        if (ttlValue != null) {
+            ttlNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(ttlValue.toString().trim()));
+        }
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // Each region releases its own storage
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new BoundedStorageAccess(maxEntries, ttlNanos);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(maxEntries, ttlNanos);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(Integer.MAX_VALUE, 0);
+    }
+}
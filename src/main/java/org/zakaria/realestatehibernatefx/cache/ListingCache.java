@@ -0,0 +1,473 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.search.TrigramIndex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Client-side cache of RealEstate listings, addressed by row number.
+ * <p>
+ * Listings are stored by column rather than as entities: one primitive array
+ * per numeric field, so a listing costs a few array slots instead of an
+ * entity with its own object header. Owner names and addresses repeat across
+ * listings and are dictionary-encoded: each row holds an int code into a
+ * table of distinct values, so a filter on them can test each distinct value
+ * once and then compare codes. Entities are materialized only on request,
+ * e.g. for the rows of the visible page.
+ * <p>
+ * Rows keep their number for the lifetime of the cache: a deleted row leaves
+ * an empty slot and a new listing is appended. Readers that scan many rows
+ * should do so inside {@link #read(Supplier)} so that a concurrent mutation
+ * cannot be observed half-way.
+ * <p>
+ * The text fields searched by the general filter are kept in a
+ * {@link TrigramIndex} that is updated with every mutation, and the rows are
+ * kept sorted by price and by zip code in a {@link SortedColumnIndex} each,
+ * so a price range or a set of zip codes is counted and its rows found by
+ * binary search.
+ */
+public class ListingCache {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private String[] realEstateNames = new String[INITIAL_CAPACITY];
+    private int[] ownerCodes = new int[INITIAL_CAPACITY];
+    private int[] addressCodes = new int[INITIAL_CAPACITY];
+    private long[] zipCodes = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int[] numberOfRooms = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private final BitSet live = new BitSet();
+    private int rowCount;
+
+    private final RowIndex rowsById = new RowIndex();
+    private final StringDictionary owners = new StringDictionary();
+    private final StringDictionary addresses = new StringDictionary();
+    private final TrigramIndex textIndex = new TrigramIndex();
+    private final SortedColumnIndex priceIndex = new SortedColumnIndex();
+    private final SortedColumnIndex zipCodeIndex = new SortedColumnIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long version;
+    private int liveCount;
+
+    /**
+     * Appends a batch of listings.
+     *
+     * @param realEstates the listings to add
+     */
+    public void addAll(List<RealEstate> realEstates) {
+        lock.writeLock().lock();
+        try {
+            // Sorting once on the next query beats an insertion per row
+            priceIndex.invalidate();
+            zipCodeIndex.invalidate();
+            realEstates.forEach(this::putInternal);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces a listing, keyed by its ID.
+     *
+     * @param realEstate the listing
+     */
+    public void put(RealEstate realEstate) {
+        lock.writeLock().lock();
+        try {
+            putInternal(realEstate);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a listing.
+     *
+     * @param id the ID of the listing
+     * @return true if the listing was cached
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.remove(id);
+            if (row < 0) {
+                return false;
+            }
+            textIndex.remove(row, textFields(row));
+            priceIndex.remove(row, prices[row]);
+            zipCodeIndex.remove(row, zipCodes[row]);
+            live.clear(row);
+            realEstateNames[row] = null;
+            liveCount--;
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every listing.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(realEstateNames, 0, rowCount, null);
+            live.clear();
+            rowCount = 0;
+            rowsById.clear();
+            owners.clear();
+            addresses.clear();
+            textIndex.clear();
+            priceIndex.clear();
+            zipCodeIndex.clear();
+            liveCount = 0;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a computation while holding the read lock.
+     *
+     * @param reader the computation
+     * @return the computation's result
+     */
+    public <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of row slots, including empty ones.
+     *
+     * @return the row capacity
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of cached listings.
+     *
+     * @return the number of listings
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Returns a counter that changes on every mutation.
+     *
+     * @return the cache version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the rows whose text fields may contain a needle. Must be called
+     * inside {@link #read(Supplier)}.
+     *
+     * @param needle the lower-case substring
+     * @return candidate rows in ascending order, or null if the needle is too
+     * short for the text index
+     */
+    public int[] textCandidates(String needle) {
+        return textIndex.candidates(needle);
+    }
+
+    /**
+     * Counts the listings with a price in a range.
+     *
+     * @param min the lowest price, inclusive
+     * @param max the highest price, inclusive
+     * @return the number of listings
+     */
+    public int countPriceRange(double min, double max) {
+        return read(() -> priceIndex().count(min, max));
+    }
+
+    /**
+     * Returns the rows of the listings with a price in a range.
+     *
+     * @param min the lowest price, inclusive
+     * @param max the highest price, inclusive
+     * @return the row numbers in ascending order
+     */
+    public int[] rowsInPriceRange(double min, double max) {
+        return read(() -> priceIndex().rowsBetween(min, max));
+    }
+
+    /**
+     * Counts the listings in any of several zip codes.
+     *
+     * @param zipCodes the zip codes, without duplicates
+     * @return the number of listings
+     */
+    public int countZipCodes(long[] zipCodes) {
+        return read(() -> zipCodeIndex().countEqual(zipCodes));
+    }
+
+    /**
+     * Returns the rows of the listings in any of several zip codes.
+     *
+     * @param zipCodes the zip codes, without duplicates
+     * @return the row numbers in ascending order
+     */
+    public int[] rowsInZipCodes(long[] zipCodes) {
+        return read(() -> zipCodeIndex().rowsEqual(zipCodes));
+    }
+
+    /**
+     * Counts the listings in equal-width price buckets. The buckets span the
+     * 1st to the 99th percentile of prices, so that a few outliers do not
+     * squeeze every other listing into one bucket; the first and the last
+     * bucket also count the listings beyond them.
+     *
+     * @param buckets the number of buckets
+     * @return the histogram, or null if the cache is empty
+     */
+    public PriceHistogram priceHistogram(int buckets) {
+        return read(() -> {
+            SortedColumnIndex index = priceIndex();
+            double from = index.quantile(0.01);
+            double to = index.quantile(0.99);
+            if (Double.isNaN(from)) {
+                return null;
+            }
+            if (to <= from) {
+                to = from + 1;
+            }
+            return new PriceHistogram(from, to, index.histogram(from, to, buckets));
+        });
+    }
+
+    /**
+     * Checks whether a row slot holds a listing.
+     *
+     * @param row the row number
+     * @return true if the row is live
+     */
+    public boolean isLive(int row) {
+        return live.get(row);
+    }
+
+    /**
+     * Returns the listing with an ID.
+     *
+     * @param id the ID of the listing
+     * @return the listing, or null if it is not cached
+     */
+    public RealEstate find(int id) {
+        return read(() -> {
+            int row = rowsById.get(id);
+            return row < 0 ? null : get(row);
+        });
+    }
+
+    /**
+     * Returns the row slot of the listing with an ID. Must be called inside
+     * {@link #read(Supplier)}.
+     *
+     * @param id the ID of the listing
+     * @return the row number, or -1 if it is not cached
+     */
+    int rowOf(int id) {
+        return rowsById.get(id);
+    }
+
+    /**
+     * Materializes the listing in a row slot as a new entity.
+     *
+     * @param row the row number
+     * @return the listing, or null if the slot is empty
+     */
+    public RealEstate get(int row) {
+        if (!live.get(row)) {
+            return null;
+        }
+        RealEstate realEstate = new RealEstate();
+        realEstate.setId(ids[row]);
+        realEstate.setRealEstateName(realEstateNames[row]);
+        realEstate.setOwner(owners.decode(ownerCodes[row]));
+        realEstate.setAddress(addresses.decode(addressCodes[row]));
+        realEstate.setZipCode(zipCodes[row]);
+        realEstate.setPrice(prices[row]);
+        realEstate.setNumberOfRooms(numberOfRooms[row]);
+        realEstate.setVersion(versions[row]);
+        return realEstate;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public String owner(int row) {
+        return owners.decode(ownerCodes[row]);
+    }
+
+    public String address(int row) {
+        return addresses.decode(addressCodes[row]);
+    }
+
+    /**
+     * Returns the dictionary code of a row's owner.
+     *
+     * @param row the row number
+     * @return the owner code
+     */
+    public int ownerCode(int row) {
+        return ownerCodes[row];
+    }
+
+    /**
+     * Returns the dictionary code of a row's address.
+     *
+     * @param row the row number
+     * @return the address code
+     */
+    public int addressCode(int row) {
+        return addressCodes[row];
+    }
+
+    /**
+     * Returns the number of distinct owners, for footprint reports.
+     *
+     * @return the number of owner codes in use
+     */
+    public int distinctOwners() {
+        return owners.size() - 1;
+    }
+
+    /**
+     * Returns the number of distinct addresses, for footprint reports.
+     *
+     * @return the number of address codes in use
+     */
+    public int distinctAddresses() {
+        return addresses.size() - 1;
+    }
+
+    /**
+     * Tests each distinct owner once. Must be called inside {@link #read(Supplier)}.
+     *
+     * @param predicate the test
+     * @return the owner codes that pass
+     */
+    BitSet ownersMatching(Predicate<String> predicate) {
+        return owners.matching(predicate);
+    }
+
+    /**
+     * Tests each distinct address once. Must be called inside {@link #read(Supplier)}.
+     *
+     * @param predicate the test
+     * @return the address codes that pass
+     */
+    BitSet addressesMatching(Predicate<String> predicate) {
+        return addresses.matching(predicate);
+    }
+
+    public String realEstateName(int row) {
+        return realEstateNames[row];
+    }
+
+    public long zipCode(int row) {
+        return zipCodes[row];
+    }
+
+    public double price(int row) {
+        return prices[row];
+    }
+
+    public int numberOfRooms(int row) {
+        return numberOfRooms[row];
+    }
+
+    private void putInternal(RealEstate realEstate) {
+        int row = rowsById.get(realEstate.getId());
+        if (row >= 0) {
+            textIndex.remove(row, textFields(row));
+            priceIndex.remove(row, prices[row]);
+            zipCodeIndex.remove(row, zipCodes[row]);
+        } else {
+            row = appendRow();
+            rowsById.put(realEstate.getId(), row);
+            live.set(row);
+            liveCount++;
+        }
+        ids[row] = realEstate.getId();
+        realEstateNames[row] = realEstate.getRealEstateName();
+        ownerCodes[row] = owners.encode(realEstate.getOwner());
+        addressCodes[row] = addresses.encode(realEstate.getAddress());
+        zipCodes[row] = realEstate.getZipCode();
+        prices[row] = realEstate.getPrice();
+        numberOfRooms[row] = realEstate.getNumberOfRooms();
+        versions[row] = realEstate.getVersion();
+        textIndex.add(row, textFields(row));
+        priceIndex.add(row, prices[row]);
+        zipCodeIndex.add(row, zipCodes[row]);
+    }
+
+    /**
+     * Returns the price index, rebuilding it after a bulk load. Must be
+     * called inside {@link #read(Supplier)}.
+     */
+    private SortedColumnIndex priceIndex() {
+        priceIndex.buildIfStale(row -> prices[row], live);
+        return priceIndex;
+    }
+
+    /**
+     * Returns the zip code index, rebuilding it after a bulk load. Must be
+     * called inside {@link #read(Supplier)}.
+     */
+    private SortedColumnIndex zipCodeIndex() {
+        zipCodeIndex.buildIfStale(row -> zipCodes[row], live);
+        return zipCodeIndex;
+    }
+
+    private int appendRow() {
+        if (rowCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            realEstateNames = Arrays.copyOf(realEstateNames, capacity);
+            ownerCodes = Arrays.copyOf(ownerCodes, capacity);
+            addressCodes = Arrays.copyOf(addressCodes, capacity);
+            zipCodes = Arrays.copyOf(zipCodes, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            numberOfRooms = Arrays.copyOf(numberOfRooms, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        return rowCount++;
+    }
+
+    /**
+     * Returns the fields matched by the general filter, as indexed text.
+     */
+    private String[] textFields(int row) {
+        return new String[]{
+                owner(row),
+                address(row),
+                realEstateNames[row],
+                String.valueOf(numberOfRooms[row])
+        };
+    }
+}
@@ -0,0 +1,291 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local binary snapshot of a {@link ListingCache}, so that a restart can show
+ * the listings before, or without, reading them from the database.
+ * <p>
+ * The file is columnar: after a fixed header come one fixed-width array per
+ * field (IDs, versions, zip codes, prices, rooms) and one array of string
+ * references per text field, all of the row count's length, followed by a
+ * string table of offsets into a heap of UTF-8 bytes. Owner names and
+ * addresses repeat across listings and are stored once. The file is read
+ * through a {@link MappedByteBuffer}, so the columns are not copied before
+ * they are decoded, and each distinct string is decoded once.
+ * <p>
+ * Besides the rows, a snapshot records the time up to which it holds every
+ * change (its watermark) and the database it was taken from, so that a
+ * reader can bring it up to date with the changes made since. A snapshot is
+ * written to a temporary file and moved into place, so a reader never sees
+ * one half-written.
+ *
+ * @param rows       the number of listings
+ * @param watermark  the time up to which the snapshot holds every change
+ * @param databaseId identifies the database the listings came from
+ */
+public record ListingSnapshot(int rows, Instant watermark, int databaseId) {
+
+    // "RES1" in ASCII
+    private static final int MAGIC = 0x52455331;
+    private static final int FORMAT_VERSION = 1;
+    // magic, format, rows, database, watermark seconds and nanos, string count
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4 + 4;
+    // id, version, zip code, price, rooms, and the name, owner and address references
+    private static final int ROW_BYTES = 4 + 8 + 8 + 8 + 4 + 3 * 4;
+    private static final int NULL_STRING = -1;
+    private static final int LOAD_BATCH_SIZE = 5_000;
+
+    /**
+     * Writes the listings of a cache to a snapshot file, replacing any previous one.
+     *
+     * @param file       the snapshot file
+     * @param cache      the listings
+     * @param watermark  the time up to which the cache holds every change
+     * @param databaseId identifies the database the listings came from
+     * @return the snapshot written
+     * @throws IOException if the file cannot be written
+     */
+    public static ListingSnapshot write(Path file, ListingCache cache, Instant watermark, int databaseId)
+            throws IOException {
+        List<RealEstate> listings = cache.read(() -> {
+            List<RealEstate> live = new ArrayList<>(cache.size());
+            for (int row = 0; row < cache.rowCount(); row++) {
+                if (cache.isLive(row)) {
+                    live.add(cache.get(row));
+                }
+            }
+            return live;
+        });
+        int rows = listings.size();
+
+        StringTable strings = new StringTable();
+        int[] names = new int[rows];
+        int[] owners = new int[rows];
+        int[] addresses = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            RealEstate listing = listings.get(i);
+            names[i] = strings.add(listing.getRealEstateName());
+            owners[i] = strings.add(listing.getOwner());
+            addresses[i] = strings.add(listing.getAddress());
+        }
+
+        long size = HEADER_BYTES + (long) rows * ROW_BYTES + 4L * (strings.count() + 1) + strings.heapBytes();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Too many listings for a snapshot: " + rows);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(rows)
+                .putInt(databaseId)
+                .putLong(watermark.getEpochSecond())
+                .putInt(watermark.getNano())
+                .putInt(strings.count());
+        listings.forEach(listing -> buffer.putInt(listing.getId()));
+        listings.forEach(listing -> buffer.putLong(listing.getVersion()));
+        listings.forEach(listing -> buffer.putLong(listing.getZipCode()));
+        listings.forEach(listing -> buffer.putDouble(listing.getPrice()));
+        listings.forEach(listing -> buffer.putInt(listing.getNumberOfRooms()));
+        buffer.asIntBuffer().put(names).put(owners).put(addresses);
+        buffer.position(buffer.position() + 3 * 4 * rows);
+        strings.writeTo(buffer);
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new ListingSnapshot(rows, watermark, databaseId);
+    }
+
+    /**
+     * Reads a snapshot file into a cache.
+     *
+     * @param file  the snapshot file
+     * @param cache the cache to add the listings to
+     * @return the snapshot read, or empty if there is no snapshot file
+     * @throws IOException if the file cannot be read or is not a snapshot of this format
+     */
+    public static Optional<ListingSnapshot> read(Path file, ListingCache cache) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a listing snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a listing snapshot of format " + FORMAT_VERSION + ": " + file);
+            }
+            int rows = buffer.getInt();
+            int databaseId = buffer.getInt();
+            Instant watermark = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            int stringCount = buffer.getInt();
+            long stringsStart = HEADER_BYTES + (long) rows * ROW_BYTES;
+            if (rows < 0 || stringCount < 0 || stringsStart + 4L * (stringCount + 1) > size) {
+                throw new IOException("Truncated listing snapshot: " + file);
+            }
+
+            int offset = HEADER_BYTES;
+            IntBuffer ids = buffer.slice(offset, 4 * rows).asIntBuffer();
+            offset += 4 * rows;
+            LongBuffer versions = buffer.slice(offset, 8 * rows).asLongBuffer();
+            offset += 8 * rows;
+            LongBuffer zipCodes = buffer.slice(offset, 8 * rows).asLongBuffer();
+            offset += 8 * rows;
+            DoubleBuffer prices = buffer.slice(offset, 8 * rows).asDoubleBuffer();
+            offset += 8 * rows;
+            IntBuffer rooms = buffer.slice(offset, 4 * rows).asIntBuffer();
+            offset += 4 * rows;
+            IntBuffer names = buffer.slice(offset, 4 * rows).asIntBuffer();
+            offset += 4 * rows;
+            IntBuffer owners = buffer.slice(offset, 4 * rows).asIntBuffer();
+            offset += 4 * rows;
+            IntBuffer addresses = buffer.slice(offset, 4 * rows).asIntBuffer();
+            offset += 4 * rows;
+            StringHeap strings = new StringHeap(buffer, offset, stringCount, (int) size);
+
+            List<RealEstate> batch = new ArrayList<>(Math.min(rows, LOAD_BATCH_SIZE));
+            for (int i = 0; i < rows; i++) {
+                RealEstate listing = new RealEstate();
+                listing.setId(ids.get(i));
+                listing.setVersion(versions.get(i));
+                listing.setZipCode(zipCodes.get(i));
+                listing.setPrice(prices.get(i));
+                listing.setNumberOfRooms(rooms.get(i));
+                listing.setRealEstateName(strings.get(names.get(i)));
+                listing.setOwner(strings.get(owners.get(i)));
+                listing.setAddress(strings.get(addresses.get(i)));
+                batch.add(listing);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    cache.addAll(batch);
+                    batch.clear();
+                }
+            }
+            cache.addAll(batch);
+            return Optional.of(new ListingSnapshot(rows, watermark, databaseId));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt listing snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Distinct strings in the order they were first added, for writing.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private long heapBytes;
+
+        int add(String value) {
+            if (value == null) {
+                return NULL_STRING;
+            }
+            return indexes.computeIfAbsent(value, key -> {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                values.add(bytes);
+                heapBytes += bytes.length;
+                return values.size() - 1;
+            });
+        }
+
+        int count() {
+            return values.size();
+        }
+
+        long heapBytes() {
+            return heapBytes;
+        }
+
+        /**
+         * Writes the start offset of every string, the end offset of the last
+         * one, and then the heap.
+         */
+        void writeTo(ByteBuffer buffer) {
+            int offset = 0;
+            for (byte[] value : values) {
+                buffer.putInt(offset);
+                offset += value.length;
+            }
+            buffer.putInt(offset);
+            values.forEach(buffer::put);
+        }
+    }
+
+    /**
+     * The string table of a mapped snapshot, decoding each string on first use.
+     */
+    private static final class StringHeap {
+
+        private final MappedByteBuffer buffer;
+        private final int offsetsStart;
+        private final int heapStart;
+        private final int end;
+        private final String[] decoded;
+
+        StringHeap(MappedByteBuffer buffer, int offsetsStart, int count, int end) {
+            this.buffer = buffer;
+            this.offsetsStart = offsetsStart;
+            this.heapStart = offsetsStart + 4 * (count + 1);
+            this.end = end;
+            this.decoded = new String[count];
+        }
+
+        String get(int index) {
+            if (index == NULL_STRING) {
+                return null;
+            }
+            String value = decoded[index];
+            if (value == null) {
+                int from = heapStart + buffer.getInt(offsetsStart + 4 * index);
+                int to = heapStart + buffer.getInt(offsetsStart + 4 * (index + 1));
+                if (from > to || to > end) {
+                    throw new IndexOutOfBoundsException("String " + index + " lies outside the snapshot");
+                }
+                byte[] bytes = new byte[to - from];
+                buffer.get(from, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                decoded[index] = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+/**
+ * Listing counts per price bucket.
+ *
+ * @param from   the lower bound of the first bucket
+ * @param to     the upper bound of the last bucket
+ * @param counts the number of listings in each equal-width bucket
+ */
+public record PriceHistogram(double from, double to, long[] counts) {
+
+    /**
+     * Returns the width of one bucket.
+     *
+     * @return the bucket width
+     */
+    public double bucketWidth() {
+        return (to - from) / counts.length;
+    }
+}
@@ -0,0 +1,109 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import java.util.Arrays;
+
+/**
+ * Map from listing ID to row number, kept in two int arrays with linear
+ * probing so that neither keys nor values are boxed. Not thread-safe.
+ */
+final class RowIndex {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    RowIndex() {
+        allocate(1 << 10);
+    }
+
+    /**
+     * Returns the row of an ID.
+     *
+     * @param id the listing ID
+     * @return the row number, or -1 if the ID is not indexed
+     */
+    int get(int id) {
+        for (int slot = slot(id); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return rows[slot];
+            }
+        }
+        return -1;
+    }
+
+    void put(int id, int row) {
+        int slot = slot(id);
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = id;
+            size++;
+        }
+        rows[slot] = row;
+        if (size > keys.length / 2) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes an ID, shifting later entries of its probe sequence back so
+     * that no tombstones are left.
+     *
+     * @param id the listing ID
+     * @return the row number it had, or -1 if the ID was not indexed
+     */
+    int remove(int id) {
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = rows[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                rows[gap] = rows[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        allocate(1 << 10);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldRows = rows;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        rows = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,222 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The rows of a {@link ListingCache} sorted by a numeric column, as a value
+ * array and a parallel row array, so that the rows within a value range are
+ * one slice found by two binary searches. The cache keeps one for prices and
+ * one for zip codes.
+ * <p>
+ * A bulk load only marks the index stale; it is rebuilt with primitive sorts
+ * on the next query. Single-row changes to a built index shift the arrays in
+ * place. Methods are synchronized since queries run under the cache's read
+ * lock, which several threads may hold at once.
+ */
+final class SortedColumnIndex {
+
+    private double[] values = new double[0];
+    private int[] rows = new int[0];
+    private int size;
+    private boolean stale;
+
+    synchronized void invalidate() {
+        stale = true;
+    }
+
+    synchronized void clear() {
+        size = 0;
+        stale = false;
+    }
+
+    /**
+     * Rebuilds the index from the cache column if it is stale.
+     *
+     * @param column reads the column value of a row
+     * @param live   the live rows
+     */
+    synchronized void buildIfStale(IntToDoubleFunction column, BitSet live) {
+        if (!stale) {
+            return;
+        }
+        int count = live.cardinality();
+        double[] sortedValues = new double[count];
+        int i = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            sortedValues[i++] = column.applyAsDouble(row);
+        }
+        Arrays.sort(sortedValues);
+        // Sort (value rank, row) pairs packed into longs, so ties keep row order
+        long[] keys = new long[count];
+        i = 0;
+        for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+            keys[i++] = (long) lowerBound(sortedValues, count, column.applyAsDouble(row)) << 32 | row;
+        }
+        Arrays.sort(keys);
+        values = sortedValues;
+        rows = new int[count];
+        for (i = 0; i < count; i++) {
+            rows[i] = (int) keys[i];
+        }
+        size = count;
+        stale = false;
+    }
+
+    synchronized void add(int row, double value) {
+        if (stale) {
+            return;
+        }
+        if (size == values.length) {
+            int capacity = Math.max(16, size * 3 / 2);
+            values = Arrays.copyOf(values, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        int at = upperBound(values, size, value);
+        System.arraycopy(values, at, values, at + 1, size - at);
+        System.arraycopy(rows, at, rows, at + 1, size - at);
+        values[at] = value;
+        rows[at] = row;
+        size++;
+    }
+
+    synchronized void remove(int row, double value) {
+        if (stale) {
+            return;
+        }
+        for (int i = lowerBound(values, size, value); i < size && values[i] == value; i++) {
+            if (rows[i] == row) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows with a value in a range.
+     *
+     * @param min the lowest value, inclusive
+     * @param max the highest value, inclusive
+     * @return the number of rows
+     */
+    synchronized int count(double min, double max) {
+        return Math.max(0, upperBound(values, size, max) - lowerBound(values, size, min));
+    }
+
+    /**
+     * Returns the rows with a value in a range.
+     *
+     * @param min the lowest value, inclusive
+     * @param max the highest value, inclusive
+     * @return the row numbers in ascending order
+     */
+    synchronized int[] rowsBetween(double min, double max) {
+        int from = lowerBound(values, size, min);
+        int to = upperBound(values, size, max);
+        if (to <= from) {
+            return new int[0];
+        }
+        int[] slice = Arrays.copyOfRange(rows, from, to);
+        Arrays.sort(slice);
+        return slice;
+    }
+
+    /**
+     * Counts the rows with one of several values.
+     *
+     * @param keys the values, without duplicates
+     * @return the number of rows
+     */
+    synchronized int countEqual(long[] keys) {
+        int count = 0;
+        for (long key : keys) {
+            count += upperBound(values, size, key) - lowerBound(values, size, key);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rows with one of several values: one slice per value,
+     * merged back into row order.
+     *
+     * @param keys the values, without duplicates
+     * @return the row numbers in ascending order
+     */
+    synchronized int[] rowsEqual(long[] keys) {
+        int[] matches = new int[countEqual(keys)];
+        int count = 0;
+        for (long key : keys) {
+            int from = lowerBound(values, size, key);
+            int to = upperBound(values, size, key);
+            System.arraycopy(rows, from, matches, count, to - from);
+            count += to - from;
+        }
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Returns the value at a quantile of the indexed rows.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the value, or NaN if the index is empty
+     */
+    synchronized double quantile(double quantile) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        return values[(int) Math.min(size - 1, Math.max(0, Math.ceil(quantile * size) - 1))];
+    }
+
+    /**
+     * Counts the rows in equal-width value buckets. Rows below the first
+     * bucket are counted in it, and rows above the last bucket in that one.
+     *
+     * @param from    the lower bound of the first bucket
+     * @param to      the upper bound of the last bucket
+     * @param buckets the number of buckets
+     * @return the count of each bucket
+     */
+    synchronized long[] histogram(double from, double to, int buckets) {
+        long[] counts = new long[buckets];
+        double width = (to - from) / buckets;
+        int previous = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int end = bucket == buckets - 1 ? size : lowerBound(values, size, from + width * (bucket + 1));
+            counts[bucket] = end - previous;
+            previous = end;
+        }
+        return counts;
+    }
+
+    private static int lowerBound(double[] sorted, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,79 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Table of distinct strings, each addressed by a small int code, for
+ * dictionary-encoding a column whose values repeat. Code 0 stands for null.
+ * Codes are never reused, so a code stays valid until {@link #clear()}.
+ * Not thread-safe.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = 0;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[256];
+    private int size = 1;
+
+    /**
+     * Returns the code of a value, adding the value if it is new.
+     *
+     * @param value the value, may be null
+     * @return the code
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Returns the number of codes, including the null code.
+     *
+     * @return the number of codes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tests every distinct value once.
+     *
+     * @param predicate the test, never given null
+     * @return the codes of the values that pass
+     */
+    BitSet matching(Predicate<String> predicate) {
+        BitSet matches = new BitSet(size);
+        for (int code = NULL_CODE + 1; code < size; code++) {
+            if (predicate.test(values[code])) {
+                matches.set(code);
+            }
+        }
+        return matches;
+    }
+
+    void clear() {
+        codes.clear();
+        Arrays.fill(values, null);
+        size = 1;
+    }
+}
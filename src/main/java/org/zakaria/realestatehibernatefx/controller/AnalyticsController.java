@@ -0,0 +1,135 @@
+package org.zakaria.realestatehibernatefx.controller;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.zakaria.realestatehibernatefx.model.RealEstatePriceSummary;
+import org.zakaria.realestatehibernatefx.repositories.AsyncRealEstateRepository;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateAnalyticsDao;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Controller class for the Analytics tab, which shows price statistics per
+ * zip code, owner or number of rooms. The statistics are computed by the
+ * database; this controller only shows the summary rows.
+ */
+public class AnalyticsController {
+
+    @FXML
+    private ComboBox<RealEstateAnalyticsDao.Dimension> dimensionBox;
+    @FXML
+    private Button refreshButton;
+    @FXML
+    private Label analyticsStatusLabel;
+
+    @FXML
+    private TableView<RealEstatePriceSummary> summaryTable;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, String> groupColumn;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> listingsColumn;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> averageColumn;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> minColumn;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> p25Column;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> medianColumn;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> p75Column;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> p90Column;
+    @FXML
+    private TableColumn<RealEstatePriceSummary, Number> maxColumn;
+
+    private AsyncRealEstateRepository asyncRepository;
+
+    @FXML
+    private void initialize() {
+        dimensionBox.getItems().setAll(RealEstateAnalyticsDao.Dimension.values());
+        dimensionBox.getSelectionModel().select(RealEstateAnalyticsDao.Dimension.ZIP_CODE);
+        dimensionBox.valueProperty().addListener((observable, oldValue, newValue) -> refresh());
+
+        groupColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getGroupKey()));
+        listingsColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getListings()));
+        setUpPriceColumn(averageColumn, RealEstatePriceSummary::getAveragePrice);
+        setUpPriceColumn(minColumn, RealEstatePriceSummary::getMinPrice);
+        setUpPriceColumn(p25Column, RealEstatePriceSummary::getP25Price);
+        setUpPriceColumn(medianColumn, RealEstatePriceSummary::getMedianPrice);
+        setUpPriceColumn(p75Column, RealEstatePriceSummary::getP75Price);
+        setUpPriceColumn(p90Column, RealEstatePriceSummary::getP90Price);
+        setUpPriceColumn(maxColumn, RealEstatePriceSummary::getMaxPrice);
+    }
+
+    /**
+     * Sets the repository used to load the statistics off the FX thread.
+     *
+     * @param repository the shared AsyncRealEstateRepository
+     */
+    public void setRepository(AsyncRealEstateRepository repository) {
+        this.asyncRepository = repository;
+    }
+
+    /**
+     * Loads the statistics of the selected grouping. Groups changed since the
+     * last load are recomputed by the database first.
+     */
+    public void refresh() {
+        RealEstateAnalyticsDao.Dimension dimension = dimensionBox.getValue();
+        if (asyncRepository == null || dimension == null) {
+            return;
+        }
+        refreshButton.setDisable(true);
+        analyticsStatusLabel.setText("Loading...");
+        long start = System.nanoTime();
+        asyncRepository.loadPriceSummary(dimension)
+                .whenCompleteAsync((rows, error) -> refreshButton.setDisable(false), AsyncRealEstateRepository.FX_THREAD)
+                .thenAcceptAsync(rows -> {
+                    summaryTable.getItems().setAll(rows);
+                    long listings = rows.stream().mapToLong(RealEstatePriceSummary::getListings).sum();
+                    analyticsStatusLabel.setText(String.format("%d groups, %d properties - loaded in %.0f ms",
+                            rows.size(), listings, (System.nanoTime() - start) / 1e6));
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (!(cause instanceof CancellationException)) {
+                        AsyncRealEstateRepository.FX_THREAD.execute(() ->
+                                analyticsStatusLabel.setText("Failed to load statistics: " + cause.getMessage()));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Handles the refresh button.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleRefresh(ActionEvent event) {
+        refresh();
+    }
+
+    private static void setUpPriceColumn(TableColumn<RealEstatePriceSummary, Number> column,
+                                         Function<RealEstatePriceSummary, Double> price) {
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(price.apply(cellData.getValue())));
+        column.setCellFactory(tableColumn -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : String.format("%,.0f", value.doubleValue()));
+            }
+        });
+    }
+}
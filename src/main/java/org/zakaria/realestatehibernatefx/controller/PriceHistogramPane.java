@@ -0,0 +1,69 @@
+package org.zakaria.realestatehibernatefx.controller;
+
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import org.zakaria.realestatehibernatefx.cache.PriceHistogram;
+
+/**
+ * Bar chart of listing counts per price bucket, shown beside the price
+ * filter. Buckets inside the filtered price range are highlighted.
+ */
+public final class PriceHistogramPane extends Pane {
+
+    private PriceHistogram histogram;
+
+    public PriceHistogramPane() {
+        getStyleClass().add("price-histogram");
+        setMinHeight(24);
+    }
+
+    /**
+     * Shows a histogram and highlights a price range.
+     *
+     * @param histogram the histogram, or null to show nothing
+     * @param minPrice  the lowest filtered price, or null
+     * @param maxPrice  the highest filtered price, or null
+     */
+    public void show(PriceHistogram histogram, Double minPrice, Double maxPrice) {
+        this.histogram = histogram;
+        getChildren().clear();
+        if (histogram == null) {
+            return;
+        }
+        long[] counts = histogram.counts();
+        double width = histogram.bucketWidth();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            double from = histogram.from() + bucket * width;
+            double to = from + width;
+            boolean selected = (minPrice == null || to >= minPrice) && (maxPrice == null || from <= maxPrice);
+            Rectangle bar = new Rectangle();
+            bar.getStyleClass().add(selected ? "histogram-bar-selected" : "histogram-bar");
+            Tooltip.install(bar, new Tooltip(String.format("%,.0f - %,.0f: %d properties", from, to, counts[bucket])));
+            getChildren().add(bar);
+        }
+        requestLayout();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (histogram == null || getChildren().isEmpty()) {
+            return;
+        }
+        long[] counts = histogram.counts();
+        long highest = 1;
+        for (long count : counts) {
+            highest = Math.max(highest, count);
+        }
+        double barWidth = getWidth() / counts.length;
+        double height = getHeight();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            Rectangle bar = (Rectangle) getChildren().get(bucket);
+            double barHeight = Math.max(counts[bucket] > 0 ? 1 : 0, height * counts[bucket] / highest);
+            bar.setX(bucket * barWidth);
+            bar.setY(height - barHeight);
+            bar.setWidth(Math.max(1, barWidth - 1));
+            bar.setHeight(barHeight);
+        }
+    }
+}
@@ -1,50 +1,93 @@
 package org.zakaria.realestatehibernatefx.controller;
 
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
-import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.zakaria.realestatehibernatefx.RealEstateApplication;
+import org.zakaria.realestatehibernatefx.cache.CachedPageSource;
+import org.zakaria.realestatehibernatefx.cache.FilterPipeline;
+import org.zakaria.realestatehibernatefx.cache.ListingCache;
+import org.zakaria.realestatehibernatefx.cache.ListingSnapshot;
+import org.zakaria.realestatehibernatefx.geo.ZipArea;
 import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.AsyncRealEstateRepository;
+import org.zakaria.realestatehibernatefx.repositories.PageSource;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChange;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChangePoller;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChangeSet;
 import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
-import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+import org.zakaria.realestatehibernatefx.repositories.RealEstatePager;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSelection;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort;
+import org.zakaria.realestatehibernatefx.transfer.TransferReport;
+import org.zakaria.realestatehibernatefx.utility.StartupTimer;
 import org.zakaria.realestatehibernatefx.viewmodel.RealEstateViewModel;
+import org.zakaria.realestatehibernatefx.viewmodel.VirtualRealEstateList;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Controller class for managing Real Estate Properties.
  */
 public class RealEstateController {
 
+    private static final Logger logger = LoggerFactory.getLogger(RealEstateController.class);
+
     // --- UI Components ---
 
     // Menu Items
     @FXML
     private MenuBar menuBar;
     @FXML
+    private MenuItem importMenuItem;
+    @FXML
+    private MenuItem exportMenuItem;
+    @FXML
     private MenuItem exitMenuItem;
     @FXML
     private MenuItem addPropertyMenuItem;
+    @FXML
+    private MenuItem deleteSelectedMenuItem;
+    @FXML
+    private MenuItem reassignOwnerMenuItem;
+    @FXML
+    private MenuItem adjustPricesMenuItem;
 
     // TabPane
     @FXML
     private TabPane mainTabPane;
+    @FXML
+    private Tab analyticsTab;
+    @FXML
+    private AnalyticsController analyticsViewController;
 
     // Properties Tab Components
     @FXML
@@ -57,6 +100,14 @@ public class RealEstateController {
     private TextField filterMinPriceField;
     @FXML
     private TextField filterMaxPriceField;
+    @FXML
+    private TextField filterZipCodeField;
+    @FXML
+    private TextField filterRadiusField;
+    @FXML
+    private Label filterStatusLabel;
+    @FXML
+    private PriceHistogramPane priceHistogram;
 
     @FXML
     private TextField ownerField;
@@ -69,6 +120,8 @@ public class RealEstateController {
     @FXML
     private TextField priceField;
     @FXML
+    private TextField zipCodeField;
+    @FXML
     private Button addPropertyButton;
 
     @FXML
@@ -85,25 +138,69 @@ public class RealEstateController {
     private TableColumn<RealEstateViewModel, Number> numberOfRoomsColumn;
     @FXML
     private TableColumn<RealEstateViewModel, Number> priceColumn;
-
     @FXML
-    private Pagination pagination;
+    private TableColumn<RealEstateViewModel, Number> zipCodeColumn;
 
     // --- Data Models ---
-    private ObservableList<RealEstateViewModel> propertyList = FXCollections.observableArrayList();
+    private VirtualRealEstateList rowList;
+
+    private PageSource pageSource;
+    private long matchCount;
+    // Database time the table rows were shown at, moved on as polled changes are merged
+    private Instant shownAt;
+    private Map<TableColumn<RealEstateViewModel, ?>, RealEstateSort.Field> sortFields;
 
-    private FilteredList<RealEstateViewModel> filteredData;
-    private SortedList<RealEstateViewModel> sortedData;
+    // The table scrolls over every match; rows are fetched in blocks as they come into view
+    private static final int BLOCK_SIZE = Integer.getInteger("realestate.table.blockSize", 100);
+    private static final int CACHED_BLOCKS = Integer.getInteger("realestate.table.cachedBlocks", 16);
 
-    private static final int ROWS_PER_PAGE = 20;
+    // "server" pages and filters in MySQL; "cache" keeps all listings client-side
+    private static final boolean CACHE_MODE =
+            "cache".equalsIgnoreCase(System.getProperty("realestate.browse.mode", "server"));
+    private static final int CACHE_LOAD_BATCH_SIZE = 5_000;
+    private static final int PRICE_HISTOGRAM_BUCKETS = 40;
+    private static final int TRANSFER_BATCH_SIZE = Integer.getInteger("realestate.transfer.batchSize", 1_000);
+    private static final int FILTER_DEBOUNCE_MILLIS = Integer.getInteger("realestate.filter.debounceMillis", 150);
+    // Polling for other clients' changes; an interval of 0 turns it off
+    private static final int SYNC_INTERVAL_MILLIS = Integer.getInteger("realestate.sync.intervalMillis", 2_000);
+    private static final int SYNC_OVERLAP_MILLIS = Integer.getInteger("realestate.sync.overlapMillis", 5_000);
+    private static final int SYNC_MAX_ROWS = Integer.getInteger("realestate.sync.maxRows", 1_000);
+    private static final int APPLIED_VERSIONS_LIMIT = 10_000;
+    // Cache mode starts from a local snapshot of the listings; -Drealestate.snapshot.file= turns it off
+    private static final String SNAPSHOT_FILE = System.getProperty("realestate.snapshot.file",
+            Path.of(System.getProperty("user.home"), ".realestate", "listings.snapshot").toString());
+    private static final boolean SNAPSHOT_ENABLED = CACHE_MODE && !SNAPSHOT_FILE.isBlank();
+    // A snapshot further behind than this many changes is replaced by a full load
+    private static final int SNAPSHOT_MAX_CHANGES = Integer.getInteger("realestate.snapshot.maxChanges", 50_000);
+
+    private final PauseTransition filterDebounce = new PauseTransition(Duration.millis(FILTER_DEBOUNCE_MILLIS));
+    private ListingCache listingCache;
+    private FilterPipeline filterPipeline;
+    private RealEstateChangePoller changePoller;
+    private boolean importing;
+    private boolean firstRowsShown;
+    // The time up to which the listing cache holds every change; null while it is incomplete
+    private Instant cacheWatermark;
+    private Integer databaseId;
+    // The snapshot shown while the database cannot be reached; nothing can be edited meanwhile
+    private ListingSnapshot offlineSnapshot;
+
+    // Versions of recently applied rows, so rows polled again are not applied twice
+    private final Map<Integer, Long> appliedVersions = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+            return size() > APPLIED_VERSIONS_LIMIT;
+        }
+    };
 
     private RealEstateDao realEstateDao; // Data Access Object
+    private AsyncRealEstateRepository asyncRepository; // Runs DAO calls off the FX thread
 
     // --- Initialization ---
     @FXML
     private void initialize() {
         realEstateDao = new RealEstateDao();
-        loadProperties();
+        asyncRepository = new AsyncRealEstateRepository(realEstateDao);
 
         // Initialize Table Columns
         idColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
@@ -112,34 +209,68 @@ public class RealEstateController {
         addressColumn.setCellValueFactory(cellData -> cellData.getValue().addressProperty());
         numberOfRoomsColumn.setCellValueFactory(cellData -> cellData.getValue().numberOfRoomsProperty());
         priceColumn.setCellValueFactory(cellData -> cellData.getValue().priceProperty());
+        zipCodeColumn.setCellValueFactory(cellData -> cellData.getValue().zipCodeProperty());
+
+        // Only the blocks around the visible rows are held in memory
+        rowList = new VirtualRealEstateList(asyncRepository::loadBlock, BLOCK_SIZE, CACHED_BLOCKS,
+                error -> reportFailure("Load Error", "Failed to load properties: ", error));
+        propertyTable.setItems(rowList);
+        propertyTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
-        // Setup Filtered and Sorted Lists
-        filteredData = new FilteredList<>(propertyList, p -> true);
-        sortedData = new SortedList<>(filteredData);
-        sortedData.comparatorProperty().bind(propertyTable.comparatorProperty());
-        propertyTable.setItems(sortedData);
+        // Column sorting, including multi-column sorts, is done by the database over the whole result
+        sortFields = Map.of(
+                idColumn, RealEstateSort.Field.ID,
+                ownerColumn, RealEstateSort.Field.OWNER,
+                realEstateNameColumn, RealEstateSort.Field.NAME,
+                addressColumn, RealEstateSort.Field.ADDRESS,
+                zipCodeColumn, RealEstateSort.Field.ZIP_CODE,
+                numberOfRoomsColumn, RealEstateSort.Field.ROOMS,
+                priceColumn, RealEstateSort.Field.PRICE);
+        propertyTable.setSortPolicy(table -> {
+            if (pageSource != null && !currentSort().equals(pageSource.getSort())) {
+                updateFilters();
+            }
+            return true;
+        });
 
         // Add Listeners for Filters
         addFilterListeners();
 
+        // The price histogram is drawn from the listing cache, so it is only shown in cache mode
+        priceHistogram.setVisible(CACHE_MODE);
+        priceHistogram.setManaged(CACHE_MODE);
+
         // Setup Row Factory for Property Table
         propertyTable.setRowFactory(tv -> {
             TableRow<RealEstateViewModel> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
-                if (!row.isEmpty() && event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                if (isLoadedRow(row) && offlineSnapshot == null
+                        && event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
                     RealEstateViewModel clickedProperty = row.getItem();
                     openEditWindow(clickedProperty);
                 }
             });
 
             row.setOnContextMenuRequested(event -> {
-                if (!row.isEmpty()) {
+                if (isLoadedRow(row)) {
                     ContextMenu contextMenu = new ContextMenu();
-                    MenuItem editItem = new MenuItem("Edit");
-                    editItem.setOnAction(e -> openEditWindow(row.getItem()));
-                    MenuItem deleteItem = new MenuItem("Delete");
-                    deleteItem.setOnAction(e -> deleteProperty(row.getItem()));
-                    contextMenu.getItems().addAll(editItem, deleteItem);
+                    if (row.isSelected() && propertyTable.getSelectionModel().getSelectedIndices().size() > 1) {
+                        // Several rows are selected: offer the bulk operations on all of them
+                        MenuItem deleteItem = new MenuItem("Delete Selected...");
+                        deleteItem.setOnAction(this::handleDeleteSelected);
+                        MenuItem reassignItem = new MenuItem("Reassign Owner...");
+                        reassignItem.setOnAction(this::handleReassignOwner);
+                        MenuItem adjustItem = new MenuItem("Adjust Prices...");
+                        adjustItem.setOnAction(this::handleAdjustPrices);
+                        contextMenu.getItems().addAll(deleteItem, reassignItem, adjustItem);
+                    } else {
+                        MenuItem editItem = new MenuItem("Edit");
+                        editItem.setOnAction(e -> openEditWindow(row.getItem()));
+                        MenuItem deleteItem = new MenuItem("Delete");
+                        deleteItem.setOnAction(e -> deleteProperty(row.getItem()));
+                        contextMenu.getItems().addAll(editItem, deleteItem);
+                    }
+                    contextMenu.getItems().forEach(item -> item.setDisable(offlineSnapshot != null));
                     contextMenu.show(row, event.getScreenX(), event.getScreenY());
                 }
             });
@@ -147,138 +278,433 @@ public class RealEstateController {
             return row;
         });
 
-        // Setup Pagination
-        setupPagination();
+        // Statistics are loaded whenever the Analytics tab is opened
+        analyticsViewController.setRepository(asyncRepository);
+        analyticsTab.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                analyticsViewController.refresh();
+            }
+        });
+
+        // Changes from now on are polled; anything older is part of the first load
+        startChangePolling();
+
+        // Load the first page, or the whole cache first in cache mode; the database may still be starting
+        propertyTable.setPlaceholder(new Label("Loading properties..."));
+        if (SNAPSHOT_ENABLED) {
+            restoreSnapshot();
+        } else {
+            reloadAll();
+        }
+    }
+
+    /**
+     * Starts polling for rows written by other clients, unless turned off.
+     */
+    private void startChangePolling() {
+        if (SYNC_INTERVAL_MILLIS <= 0) {
+            return;
+        }
+        changePoller = new RealEstateChangePoller(realEstateDao, java.time.Duration.ofMillis(SYNC_INTERVAL_MILLIS),
+                java.time.Duration.ofMillis(SYNC_OVERLAP_MILLIS), SYNC_MAX_ROWS,
+                changes -> Platform.runLater(() -> mergeChanges(changes)));
+        changePoller.start();
     }
 
     // --- Data Loading Methods ---
 
     /**
-     * Loads all properties from the database into the property list as ViewModels.
+     * Reloads the visible rows, or the whole cache in cache mode.
      */
-    private void loadProperties() {
-        propertyList.clear();
-        try {
-            List<RealEstate> properties = realEstateDao.getAllRealEstates();
-            if (properties != null) {
-                properties.stream()
-                        .map(RealEstateViewModel::new)
-                        .forEach(propertyList::add);
+    private void reloadAll() {
+        if (CACHE_MODE) {
+            loadCache();
+        } else {
+            updateFilters();
+        }
+    }
+
+    /**
+     * Streams every listing into the client-side cache, then shows the first rows.
+     */
+    private void loadCache() {
+        listingCache = new ListingCache();
+        filterPipeline = new FilterPipeline(listingCache);
+        cacheWatermark = null;
+        ListingCache cache = listingCache;
+        propertyTable.setPlaceholder(new Label("Loading properties..."));
+        // Rows written while streaming are polled as well, so the cache is complete up to the start
+        asyncRepository.loadDatabaseTime()
+                .thenCompose(loadStart -> asyncRepository.streamAllRealEstates(CACHE_LOAD_BATCH_SIZE, cache::addAll)
+                        .thenApply(done -> loadStart))
+                .thenAcceptAsync(loadStart -> {
+                    propertyTable.setPlaceholder(null);
+                    updateFilters();
+                    if (listingCache == cache) {
+                        cacheWatermark = loadStart;
+                        saveSnapshot();
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Load Error", "Failed to load properties: ", error));
+    }
+
+    /**
+     * Shows the listings of the local snapshot as soon as it is read, then
+     * brings them up to date with the changes made since it was written.
+     * Without a snapshot, or with an unreadable one, the listings are loaded
+     * from the database instead.
+     */
+    private void restoreSnapshot() {
+        listingCache = new ListingCache();
+        filterPipeline = new FilterPipeline(listingCache);
+        ListingCache cache = listingCache;
+        asyncRepository.restoreSnapshot(Path.of(SNAPSHOT_FILE), cache)
+                .thenAcceptAsync(snapshot -> {
+                    if (snapshot.isEmpty()) {
+                        reloadAll();
+                        return;
+                    }
+                    propertyTable.setPlaceholder(null);
+                    updateFilters();
+                    reconcileSnapshot(snapshot.get());
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> {
+                    logger.warn("Ignoring listing snapshot {}: ", SNAPSHOT_FILE, error);
+                    Platform.runLater(this::reloadAll);
+                    return null;
+                });
+    }
+
+    /**
+     * Merges the changes made since a snapshot was written into the listing
+     * cache restored from it. The snapshot is loaded again from scratch if it
+     * comes from another database or is too old for its deletions to be
+     * polled, and kept read-only if the database cannot be reached.
+     *
+     * @param snapshot the snapshot the listing cache was restored from
+     */
+    private void reconcileSnapshot(ListingSnapshot snapshot) {
+        ListingCache cache = listingCache;
+        asyncRepository.loadDatabaseId().whenCompleteAsync((id, error) -> {
+            if (listingCache != cache) {
+                return;
+            }
+            if (error != null) {
+                logger.warn("Database unreachable, showing the snapshot of {}: ", snapshot.watermark(), error);
+                showOffline(snapshot);
+                return;
             }
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Load Error", "Failed to load properties: " + e.getMessage());
+            databaseId = id;
+            if (id != snapshot.databaseId()
+                    || snapshot.watermark().isBefore(Instant.now().minus(RealEstateChangePoller.DELETION_RETENTION))) {
+                reloadAll();
+                return;
+            }
+            asyncRepository.loadChangesSince(snapshot.watermark().minusMillis(SYNC_OVERLAP_MILLIS), SNAPSHOT_MAX_CHANGES)
+                    .thenAcceptAsync(changes -> {
+                        if (listingCache != cache) {
+                            return;
+                        }
+                        if (changes.isEmpty()) {
+                            reloadAll();
+                            return;
+                        }
+                        cacheWatermark = snapshot.watermark();
+                        mergeChanges(changes.get());
+                        saveSnapshot();
+                    }, AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(failure -> reportFailure("Load Error", "Failed to update properties: ", failure));
+        }, AsyncRealEstateRepository.FX_THREAD);
+    }
+
+    /**
+     * Keeps showing a snapshot while the database cannot be reached, with
+     * every action that writes or reads the database turned off.
+     *
+     * @param snapshot the snapshot shown
+     */
+    private void showOffline(ListingSnapshot snapshot) {
+        offlineSnapshot = snapshot;
+        if (changePoller != null) {
+            changePoller.close();
+        }
+        for (MenuItem item : List.of(importMenuItem, exportMenuItem, addPropertyMenuItem, deleteSelectedMenuItem,
+                reassignOwnerMenuItem, adjustPricesMenuItem)) {
+            item.setDisable(true);
+        }
+        if (pageSource != null) {
+            showFilterStatus(pageSource);
         }
     }
 
+    /**
+     * Writes the listing cache to the local snapshot in the background, if
+     * the cache is complete.
+     */
+    private void saveSnapshot() {
+        if (!SNAPSHOT_ENABLED || cacheWatermark == null) {
+            return;
+        }
+        if (databaseId == null) {
+            asyncRepository.loadDatabaseId()
+                    .thenAcceptAsync(id -> {
+                        databaseId = id;
+                        saveSnapshot();
+                    }, AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(error -> {
+                        logger.warn("Could not save the listing snapshot: ", error);
+                        return null;
+                    });
+            return;
+        }
+        asyncRepository.saveSnapshot(Path.of(SNAPSHOT_FILE), listingCache, cacheWatermark, databaseId)
+                .whenComplete((snapshot, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not save the listing snapshot {}: ", SNAPSHOT_FILE, error);
+                    } else {
+                        logger.debug("Saved {} listings to {}", snapshot.rows(), SNAPSHOT_FILE);
+                    }
+                });
+    }
+
     // --- Filter Methods ---
 
     /**
-     * Adds listeners to the filter input fields to update the FilteredList predicate.
+     * Adds listeners to the filter input fields to re-query the property table.
+     * Input is debounced so that a burst of keystrokes triggers a single query.
      */
     private void addFilterListeners() {
-        generalFilterField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters());
-        filterOwnerField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters());
-        filterAddressField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters());
-        filterMinPriceField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters());
-        filterMaxPriceField.textProperty().addListener((observable, oldValue, newValue) -> updateFilters());
+        filterDebounce.setOnFinished(event -> updateFilters());
+        generalFilterField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterOwnerField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterAddressField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterMinPriceField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterMaxPriceField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterZipCodeField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
+        filterRadiusField.textProperty().addListener((observable, oldValue, newValue) -> filterDebounce.playFromStart());
     }
 
     /**
-     * Updates the predicate of the FilteredList based on filter input fields.
+     * Re-queries the property table using the current filter input fields.
+     * The filter is evaluated by the database, or by the filter pipeline in
+     * cache mode; only the matching row count and the first block of rows
+     * are fetched, in parallel and off the FX thread. Further blocks are
+     * fetched as the table scrolls to them. A newer call supersedes any query
+     * still in flight.
      */
     private void updateFilters() {
-        filteredData.setPredicate(property -> {
-            if (property == null) {
-                return false;
-            }
+        RealEstateFilter filter = RealEstateFilter.of(
+                generalFilterField.getText(),
+                filterOwnerField.getText(),
+                filterAddressField.getText(),
+                filterMinPriceField.getText(),
+                filterMaxPriceField.getText(),
+                filterZipCodeField.getText(),
+                filterRadiusField.getText());
+        PageSource newSource = CACHE_MODE
+                ? new CachedPageSource(listingCache, filterPipeline, filter, currentSort(), BLOCK_SIZE)
+                : new RealEstatePager(realEstateDao, filter, currentSort(), BLOCK_SIZE);
+        pageSource = newSource;
 
-            // General Filter
-            String generalFilter = generalFilterField.getText().toLowerCase().trim();
-            if (!generalFilter.isEmpty()) {
-                boolean matches = property.ownerProperty().get().toLowerCase().contains(generalFilter) ||
-                        property.addressProperty().get().toLowerCase().contains(generalFilter) ||
-                        property.realEstateNameProperty().get().toLowerCase().contains(generalFilter) ||
-                        String.valueOf(property.priceProperty().get()).contains(generalFilter) ||
-                        String.valueOf(property.numberOfRoomsProperty().get()).contains(generalFilter);
-                if (!matches) {
-                    return false;
-                }
-            }
+        // Read before the rows, so no row changed after it has been shown; cache mode selects by ID instead
+        CompletableFuture<Instant> databaseTime = CACHE_MODE
+                ? CompletableFuture.completedFuture(null)
+                : asyncRepository.loadDatabaseTime();
+        CompletableFuture<Integer> pageCount = asyncRepository.countPages(newSource);
+        CompletableFuture<List<RealEstate>> firstBlock = asyncRepository.loadPage(newSource, 0);
+        databaseTime.thenCombine(pageCount, (time, count) -> time)
+                .thenAcceptBothAsync(firstBlock, (time, rows) -> {
+                    if (pageSource == newSource) {
+                        shownAt = time;
+                        matchCount = newSource.getTotalCount();
+                        propertyTable.getSelectionModel().clearSelection();
+                        rowList.reset(newSource, matchCount, rows);
+                        propertyTable.scrollTo(0);
+                        showFilterStatus(newSource);
+                        showPriceHistogram(newSource);
+                        if (!firstRowsShown) {
+                            firstRowsShown = true;
+                            propertyTable.setPlaceholder(null);
+                            StartupTimer.mark("first rows shown");
+                        }
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Load Error", "Failed to load properties: ", error));
+    }
 
-            // Owner Filter
-            String ownerFilter = filterOwnerField.getText().toLowerCase().trim();
-            if (!ownerFilter.isEmpty()) {
-                if (!property.ownerProperty().get().toLowerCase().contains(ownerFilter)) {
-                    return false;
-                }
-            }
+    /**
+     * Shows the number of matches and, in cache mode, the cost of the filter
+     * pass. A radius around a zip code of unknown location is reported, since
+     * only that zip code is matched.
+     *
+     * @param source the page source that was just shown
+     */
+    private void showFilterStatus(PageSource source) {
+        String status = matchCount + " properties";
+        FilterPipeline.FilterPass pass = filterPipeline == null ? null : filterPipeline.getLastPass();
+        if (pass != null && pass.filter().equals(source.getFilter())) {
+            status += String.format(" - %d rows filtered in %.2f ms (%s)", pass.scanned(), pass.millis(),
+                    pass.strategy().name().toLowerCase(Locale.ROOT).replace('_', ' '));
+        }
+        ZipArea area = source.getFilter().area();
+        if (area != null && area.radiusIgnored()) {
+            status += " - zip code " + area.zipCode() + " has no known location; showing that zip code only";
+        }
+        if (offlineSnapshot != null) {
+            status += " - offline, read-only copy as of " + offlineSnapshot.watermark();
+        }
+        filterStatusLabel.setText(status);
+    }
 
-            // Address Filter
-            String addressFilter = filterAddressField.getText().toLowerCase().trim();
-            if (!addressFilter.isEmpty()) {
-                if (!property.addressProperty().get().toLowerCase().contains(addressFilter)) {
-                    return false;
-                }
-            }
+    /**
+     * Redraws the price histogram from the listing cache, highlighting the
+     * filtered price range. Bucket counts come from the cache's price index,
+     * so this costs a few binary searches rather than a pass over the rows.
+     *
+     * @param source the page source that is shown
+     */
+    private void showPriceHistogram(PageSource source) {
+        if (listingCache == null) {
+            return;
+        }
+        RealEstateFilter filter = source.getFilter();
+        priceHistogram.show(listingCache.priceHistogram(PRICE_HISTOGRAM_BUCKETS), filter.minPrice(), filter.maxPrice());
+    }
 
-            // Min Price Filter
-            String minPriceText = filterMinPriceField.getText().trim();
-            double minPrice = 0.0;
-            if (!minPriceText.isEmpty()) {
-                try {
-                    minPrice = Double.parseDouble(minPriceText);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-                if (property.priceProperty().get() < minPrice) {
-                    return false;
-                }
+    /**
+     * Patches the table after a change was written, without reloading it.
+     * <p>
+     * The row count and the loaded rows are adjusted in place: a changed row
+     * is updated in its existing ViewModel, and rows are inserted or removed
+     * individually, so the selection and scroll position survive. An updated
+     * row keeps its position even if its sort key changed; it moves on the
+     * next reload. Only the loaded blocks after the change are fetched again.
+     *
+     * @param change the change that was written
+     */
+    private void applyChange(RealEstateChange change) {
+        appliedVersions.put(change.id(), change.after() != null ? change.after().getVersion() : Long.MAX_VALUE);
+        if (listingCache != null) {
+            if (change.after() != null) {
+                listingCache.put(change.after());
+            } else {
+                listingCache.remove(change.id());
             }
+        }
+        PageSource source = pageSource;
+        if (source == null) {
+            return;
+        }
+        source.applyChange(change);
+        matchCount = Math.max(0, matchCount + change.countDelta(source.getFilter()));
+        rowList.applyChange(change);
+        showFilterStatus(source);
+        showPriceHistogram(source);
+    }
 
-            // Max Price Filter
-            String maxPriceText = filterMaxPriceField.getText().trim();
-            double maxPrice = Double.MAX_VALUE;
-            if (!maxPriceText.isEmpty()) {
-                try {
-                    maxPrice = Double.parseDouble(maxPriceText);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-                if (property.priceProperty().get() > maxPrice) {
-                    return false;
-                }
+    /**
+     * Merges rows written by other clients into the table.
+     * <p>
+     * Rows already shown at the polled version, including this client's own
+     * writes, are skipped. Rows that are neither loaded in the table nor in
+     * the listing cache may or may not have matched the filter before they
+     * changed, so the matching rows are counted again after such changes.
+     *
+     * @param changes the polled changes
+     */
+    private void mergeChanges(RealEstateChangeSet changes) {
+        if (changes.truncated()) {
+            // The cache misses these changes until it is reloaded
+            cacheWatermark = null;
+            // Too many changes to merge one by one; an import reloads when it finishes anyway
+            if (!importing) {
+                reloadAll();
             }
-
-            return true;
-        });
-
-        setupPagination();
+            return;
+        }
+        boolean recount = false;
+        for (RealEstate row : changes.upserted()) {
+            RealEstate known = knownRow(row.getId());
+            long seenVersion = Math.max(known == null ? -1 : known.getVersion(),
+                    appliedVersions.getOrDefault(row.getId(), -1L));
+            if (row.getVersion() <= seenVersion) {
+                continue;
+            }
+            // A new row starts at version 0; a later version of an unknown row was updated off-page
+            recount |= known == null && row.getVersion() > 0 && !CACHE_MODE;
+            applyChange(new RealEstateChange(known, row));
+        }
+        for (int id : changes.deletedIds()) {
+            if (appliedVersions.getOrDefault(id, -1L) == Long.MAX_VALUE) {
+                continue;
+            }
+            RealEstate known = knownRow(id);
+            if (known != null) {
+                applyChange(RealEstateChange.deleted(known));
+            } else {
+                appliedVersions.put(id, Long.MAX_VALUE);
+                recount |= !CACHE_MODE;
+            }
+        }
+        if (cacheWatermark != null && changes.watermark().isAfter(cacheWatermark)) {
+            cacheWatermark = changes.watermark();
+        }
+        // The merged rows are shown now
+        if (shownAt != null && changes.watermark().isAfter(shownAt)) {
+            shownAt = changes.watermark();
+        }
+        if (recount) {
+            recountMatches();
+        }
     }
 
-    // --- Pagination Setup ---
+    /**
+     * Returns the current state of a row, if this client holds it.
+     *
+     * @param id the row ID
+     * @return the row from the listing cache or the loaded table rows, or null
+     */
+    private RealEstate knownRow(int id) {
+        if (listingCache != null) {
+            return listingCache.find(id);
+        }
+        return rowList.findLoaded(id);
+    }
 
     /**
-     * Sets up the pagination control for the property table based on the filtered and sorted data.
+     * Counts the matching rows again in the background and resizes the table.
      */
-    private void setupPagination() {
-        int totalProperties = filteredData.size();
-        int pageCount = (int) Math.ceil((double) totalProperties / ROWS_PER_PAGE);
-        pagination.setPageCount(pageCount == 0 ? 1 : pageCount);
-        pagination.setCurrentPageIndex(0);
-        pagination.setPageFactory(this::createPage);
+    private void recountMatches() {
+        PageSource source = pageSource;
+        if (source == null) {
+            return;
+        }
+        asyncRepository.recount(source)
+                .thenAcceptAsync(count -> {
+                    if (pageSource == source) {
+                        matchCount = count;
+                        rowList.resize(count);
+                        showFilterStatus(source);
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Load Error", "Failed to count properties: ", error));
     }
 
     /**
-     * Creates a page for the pagination control.
+     * Derives the query sort order from the table's sort order: every sorted
+     * column, most significant first, with its own direction.
      *
-     * @param pageIndex the index of the page to create
-     * @return a VBox containing the table of properties
+     * @return the sort order
      */
-    private VBox createPage(int pageIndex) {
-        int fromIndex = pageIndex * ROWS_PER_PAGE;
-        int toIndex = Math.min(fromIndex + ROWS_PER_PAGE, sortedData.size());
-        propertyTable.setItems(FXCollections.observableArrayList(sortedData.subList(fromIndex, toIndex)));
-        return new VBox(propertyTable);
+    private RealEstateSort currentSort() {
+        return new RealEstateSort(propertyTable.getSortOrder().stream()
+                .map(column -> new RealEstateSort.Key(sortFields.get(column),
+                        column.getSortType() == TableColumn.SortType.ASCENDING))
+                .toList());
+    }
+
+    private static boolean isLoadedRow(TableRow<RealEstateViewModel> row) {
+        return !row.isEmpty() && row.getItem() != null && !VirtualRealEstateList.isPlaceholder(row.getItem());
     }
 
     // --- Event Handlers ---
@@ -295,10 +721,11 @@ public class RealEstateController {
         String address = addressField.getText().trim();
         String numberOfRoomsText = numberOfRoomsField.getText().trim();
         String priceText = priceField.getText().trim();
+        String zipCodeText = zipCodeField.getText().trim();
 
         // Validate inputs
         if (owner.isEmpty() || realEstateName.isEmpty() || address.isEmpty() ||
-                numberOfRoomsText.isEmpty() || priceText.isEmpty()) {
+                numberOfRoomsText.isEmpty() || priceText.isEmpty() || zipCodeText.isEmpty()) {
             showAlert(Alert.AlertType.ERROR, "Input Error", "All fields must be filled.");
             return;
         }
@@ -312,6 +739,10 @@ public class RealEstateController {
             showAlert(Alert.AlertType.ERROR, "Input Error", "Number of Rooms and Price must be valid numbers.");
             return;
         }
+        if (!zipCodeText.matches("[1-9][0-9]{4}")) {
+            showAlert(Alert.AlertType.ERROR, "Input Error", "Zip Code must be a 5-digit number.");
+            return;
+        }
 
         // Create new RealEstateViewModel
         RealEstateViewModel newPropertyVM = new RealEstateViewModel(new RealEstate());
@@ -320,25 +751,23 @@ public class RealEstateController {
         newPropertyVM.numberOfRoomsProperty().set(numberOfRooms);
         newPropertyVM.priceProperty().set(price);
         newPropertyVM.ownerProperty().set(owner);
+        newPropertyVM.zipCodeProperty().set(Long.parseLong(zipCodeText));
 
         // Convert ViewModel to Entity
         RealEstate newPropertyEntity = newPropertyVM.toEntity();
 
         // Save to database
-        try {
-            boolean success = realEstateDao.saveRealEstate(newPropertyEntity);
-            if (success) {
-                // Reload properties to include the new entry
-                loadProperties();
-                updateFilters();
-                clearPropertyInputFields();
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Property added successfully.");
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Add Error", "Failed to add property.");
-            }
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Add Error", "Failed to add property: " + e.getMessage());
-        }
+        asyncRepository.saveRealEstate(newPropertyEntity)
+                .thenAcceptAsync(saved -> {
+                    if (saved.isPresent()) {
+                        applyChange(RealEstateChange.inserted(saved.get()));
+                        clearPropertyInputFields();
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Property added successfully.");
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Add Error", "Failed to add property.");
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Add Error", "Failed to add property: ", error));
     }
 
     /**
@@ -350,6 +779,7 @@ public class RealEstateController {
         addressField.clear();
         numberOfRoomsField.clear();
         priceField.clear();
+        zipCodeField.clear();
     }
 
     /**
@@ -365,6 +795,7 @@ public class RealEstateController {
             RealEstateEditController controller = loader.getController();
             controller.setPropertyViewModel(propertyVM);
             controller.setRealEstateController(this);
+            controller.setRepository(asyncRepository);
 
             Stage stage = new Stage();
             stage.setTitle("Edit Property");
@@ -372,11 +803,6 @@ public class RealEstateController {
             stage.initOwner(propertyTable.getScene().getWindow());
             stage.setScene(new Scene(root));
             stage.showAndWait();
-
-            // After editing, refresh data
-            loadProperties();
-            updateFilters();
-
         } catch (IOException e) {
             showAlert(Alert.AlertType.ERROR, "Load Error", "Failed to load Edit Property window: " + e.getMessage());
         }
@@ -394,21 +820,312 @@ public class RealEstateController {
         confirm.setContentText("Are you sure you want to delete this property?");
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
+            // Convert ViewModel to Entity
+            RealEstate propertyEntity = propertyVM.toEntity();
+            asyncRepository.deleteRealEstate(propertyEntity)
+                    .thenAcceptAsync(success -> {
+                        if (success) {
+                            applyChange(RealEstateChange.deleted(propertyEntity));
+                            showAlert(Alert.AlertType.INFORMATION, "Success", "Property deleted successfully.");
+                        } else {
+                            showAlert(Alert.AlertType.ERROR, "Delete Error", "Failed to delete property.");
+                        }
+                    }, AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(error -> reportFailure("Delete Error", "Failed to delete property: ", error));
+        }
+    }
+
+    // --- Bulk Operations ---
+
+    /**
+     * Deletes every selected property with a bulk statement.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleDeleteSelected(ActionEvent event) {
+        selectedRows().ifPresent(selection -> withSelectedCount(selection, count -> {
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+            confirm.initOwner(menuBar.getScene().getWindow());
+            confirm.setTitle("Delete Confirmation");
+            confirm.setHeaderText(null);
+            confirm.setContentText(String.format("Are you sure you want to delete %d properties?", count));
+            Optional<ButtonType> result = confirm.showAndWait();
+            if (result.isEmpty() || result.get() != ButtonType.OK) {
+                return;
+            }
+            asyncRepository.deleteRealEstates(selection)
+                    .thenAcceptAsync(deleted -> bulkEditDone(selection, deleted, null,
+                                    "Deleted %d properties.", "Delete Error", "Failed to delete properties."),
+                            AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(error -> reportFailure("Delete Error", "Failed to delete properties: ", error));
+        }));
+    }
+
+    /**
+     * Gives every selected property a new owner with a bulk statement.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleReassignOwner(ActionEvent event) {
+        selectedRows().ifPresent(selection -> withSelectedCount(selection, count -> {
+            Optional<String> input = askForText("Reassign Owner",
+                    String.format("New owner of %d properties:", count));
+            if (input.isEmpty()) {
+                return;
+            }
+            String owner = input.get().trim();
+            if (owner.isEmpty()) {
+                showAlert(Alert.AlertType.ERROR, "Input Error", "Owner name cannot be blank.");
+                return;
+            }
+            asyncRepository.reassignOwner(selection, owner)
+                    .thenAcceptAsync(updated -> bulkEditDone(selection, updated, row -> row.setOwner(owner),
+                                    "Reassigned %d properties to " + owner.replace("%", "%%") + ".", "Update Error",
+                                    "Failed to reassign properties."),
+                            AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(error -> reportFailure("Update Error", "Failed to reassign properties: ", error));
+        }));
+    }
+
+    /**
+     * Changes the price of every selected property by a percentage with a
+     * bulk statement.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleAdjustPrices(ActionEvent event) {
+        selectedRows().ifPresent(selection -> withSelectedCount(selection, count -> {
+            Optional<String> input = askForText("Adjust Prices", String.format(
+                    "Price change of %d properties in percent, e.g. 3 or -5:", count));
+            if (input.isEmpty()) {
+                return;
+            }
+            double factor;
             try {
-                // Convert ViewModel to Entity
-                RealEstate propertyEntity = propertyVM.toEntity();
-                boolean success = realEstateDao.deleteRealEstate(propertyEntity);
-                if (success) {
-                    loadProperties();
-                    updateFilters();
-                    showAlert(Alert.AlertType.INFORMATION, "Success", "Property deleted successfully.");
+                factor = 1 + Double.parseDouble(input.get().trim().replace("%", "")) / 100;
+            } catch (NumberFormatException e) {
+                showAlert(Alert.AlertType.ERROR, "Input Error", "Price change must be a valid number.");
+                return;
+            }
+            if (!(factor > 0) || Double.isInfinite(factor)) {
+                showAlert(Alert.AlertType.ERROR, "Input Error", "Price change must be more than -100%.");
+                return;
+            }
+            asyncRepository.adjustPrices(selection, factor)
+                    .thenAcceptAsync(updated -> bulkEditDone(selection, updated,
+                                    row -> row.setPrice(row.getPrice() * factor),
+                                    "Adjusted the prices of %d properties.", "Update Error",
+                                    "Failed to adjust prices."),
+                            AsyncRealEstateRepository.FX_THREAD)
+                    .exceptionally(error -> reportFailure("Update Error", "Failed to adjust prices: ", error));
+        }));
+    }
+
+    /**
+     * Returns the rows selected in the table as the target of a bulk
+     * operation. With every row selected, the target is every row matching
+     * the current filter that has not changed since the table showed it, so
+     * none of them needs to have been loaded; in cache mode it is the rows
+     * the cache matched, by ID, so the database applies the same filter the
+     * table did. Otherwise the selected rows are taken by ID and must all be
+     * loaded.
+     *
+     * @return the selection, or empty if there is none to use; the user has been told why
+     */
+    private Optional<RealEstateSelection> selectedRows() {
+        PageSource source = pageSource;
+        List<Integer> indices = propertyTable.getSelectionModel().getSelectedIndices();
+        if (source == null || indices.isEmpty()) {
+            showAlert(Alert.AlertType.INFORMATION, "No Selection", "Select one or more properties first.");
+            return Optional.empty();
+        }
+        if (indices.size() == rowList.size()) {
+            if (source instanceof CachedPageSource cachedSource) {
+                return Optional.of(RealEstateSelection.of(cachedSource.getIds()));
+            }
+            if (shownAt != null) {
+                return Optional.of(RealEstateSelection.matching(source.getFilter(), shownAt));
+            }
+        }
+        List<Integer> ids = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            RealEstate row = rowList.findLoadedAt(index);
+            if (row == null) {
+                showAlert(Alert.AlertType.INFORMATION, "Selection Loading",
+                        "Some selected properties are still loading. Try again in a moment.");
+                return Optional.empty();
+            }
+            ids.add(row.getId());
+        }
+        return Optional.of(RealEstateSelection.of(ids));
+    }
+
+    /**
+     * Counts the selected rows in the database before a bulk operation is
+     * confirmed, since rows may have been deleted, or no longer match, since
+     * they were shown.
+     *
+     * @param selection the selected rows
+     * @param confirm   asks for and runs the operation, given the number of rows it will write
+     */
+    private void withSelectedCount(RealEstateSelection selection, Consumer<Long> confirm) {
+        asyncRepository.countSelected(selection)
+                .thenAcceptAsync(count -> {
+                    if (count.isEmpty()) {
+                        showAlert(Alert.AlertType.ERROR, "Load Error", "Failed to count the selected properties.");
+                    } else if (count.get() == 0) {
+                        showAlert(Alert.AlertType.INFORMATION, "No Selection",
+                                "None of the selected properties exists any more.");
+                    } else {
+                        confirm.accept(count.get());
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Load Error",
+                        "Failed to count the selected properties: ", error));
+    }
+
+    /**
+     * Reports the outcome of a bulk operation and brings the table up to date.
+     *
+     * @param selection      the rows the operation applied to
+     * @param result         the number of rows written, empty if the operation failed
+     * @param edit           applies the operation to a row, or null for a delete
+     * @param successMessage the message format for the number of rows written
+     * @param errorTitle     the title of the alert on failure
+     * @param errorMessage   the message on failure
+     */
+    private void bulkEditDone(RealEstateSelection selection, Optional<Integer> result, Consumer<RealEstate> edit,
+                              String successMessage, String errorTitle, String errorMessage) {
+        if (result.isEmpty()) {
+            showAlert(Alert.AlertType.ERROR, errorTitle, errorMessage);
+            return;
+        }
+        applyBulkEdit(selection, edit);
+        showAlert(Alert.AlertType.INFORMATION, "Success", String.format(successMessage, result.get()));
+    }
+
+    /**
+     * Brings the table up to date after a bulk operation. The rows are
+     * patched in the listing cache, since reloading it would read every
+     * listing, and recorded as applied so that polling them back changes
+     * nothing; the table then shows the current filter again.
+     *
+     * @param selection the rows the operation applied to
+     * @param edit      applies the operation to a row, or null for a delete
+     */
+    private void applyBulkEdit(RealEstateSelection selection, Consumer<RealEstate> edit) {
+        if (listingCache != null) {
+            for (RealEstate row : cachedRows(selection)) {
+                if (edit == null) {
+                    listingCache.remove(row.getId());
+                    appliedVersions.put(row.getId(), Long.MAX_VALUE);
                 } else {
-                    showAlert(Alert.AlertType.ERROR, "Delete Error", "Failed to delete property.");
+                    // The statement moved every row one version on
+                    edit.accept(row);
+                    row.setVersion(row.getVersion() + 1);
+                    listingCache.put(row);
+                    appliedVersions.put(row.getId(), row.getVersion());
                 }
-            } catch (Exception e) {
-                showAlert(Alert.AlertType.ERROR, "Delete Error", "Failed to delete property: " + e.getMessage());
             }
+        } else if (edit == null && selection.ids() != null) {
+            selection.ids().forEach(id -> appliedVersions.put(id, Long.MAX_VALUE));
+        }
+        updateFilters();
+    }
+
+    /**
+     * Returns the cached rows of a selection.
+     *
+     * @param selection the selection
+     * @return the rows held by the listing cache
+     */
+    private List<RealEstate> cachedRows(RealEstateSelection selection) {
+        if (selection.ids() != null) {
+            return selection.ids().stream().map(listingCache::find).filter(Objects::nonNull).toList();
         }
+        int[] rows = filterPipeline.apply(selection.filter()).rows();
+        return listingCache.read(() -> Arrays.stream(rows)
+                .mapToObj(listingCache::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Imports properties from a CSV or JSON Lines file chosen by the user.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleImport(ActionEvent event) {
+        File file = createTransferFileChooser("Import Properties").showOpenDialog(menuBar.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        importMenuItem.setDisable(true);
+        importing = true;
+        asyncRepository.importRealEstates(file.toPath(), TRANSFER_BATCH_SIZE, report -> Platform.runLater(() ->
+                        filterStatusLabel.setText(String.format("Importing... batch %d, %d rows/s",
+                                report.batch(), Math.round(report.rowsPerSecond())))))
+                .whenCompleteAsync((report, error) -> {
+                    importMenuItem.setDisable(false);
+                    importing = false;
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .thenAcceptAsync(report -> {
+                    // Reload everything: the imported IDs are only known to the database
+                    reloadAll();
+                    showTransferSummary("Import Complete", "Imported", report);
+                }, AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Import Error", "Failed to import properties: ", error));
+    }
+
+    /**
+     * Exports every property to a CSV or JSON Lines file chosen by the user.
+     *
+     * @param event the action event
+     */
+    @FXML
+    private void handleExport(ActionEvent event) {
+        File file = createTransferFileChooser("Export Properties").showSaveDialog(menuBar.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        exportMenuItem.setDisable(true);
+        asyncRepository.exportRealEstates(file.toPath(), TRANSFER_BATCH_SIZE, report -> { })
+                .whenCompleteAsync((report, error) -> exportMenuItem.setDisable(false),
+                        AsyncRealEstateRepository.FX_THREAD)
+                .thenAcceptAsync(report -> showTransferSummary("Export Complete", "Exported", report),
+                        AsyncRealEstateRepository.FX_THREAD)
+                .exceptionally(error -> reportFailure("Export Error", "Failed to export properties: ", error));
+    }
+
+    private FileChooser createTransferFileChooser(String title) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines Files", "*.jsonl", "*.json"));
+        return fileChooser;
+    }
+
+    /**
+     * Shows the outcome of an import or export.
+     *
+     * @param title  the title of the alert
+     * @param verb   what was done to the rows
+     * @param report the transfer summary
+     */
+    private void showTransferSummary(String title, String verb, TransferReport report) {
+        StringBuilder message = new StringBuilder(String.format("%s %d properties in %.1f s (%d rows/s).",
+                verb, report.rows(), report.nanos() / 1e9, Math.round(report.rowsPerSecond())));
+        if (report.rejected() > 0) {
+            message.append(String.format("%n%d records were rejected:", report.rejected()));
+            report.errors().forEach(error -> message.append(System.lineSeparator()).append(error));
+        }
+        showAlert(report.rejected() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION,
+                title, message.toString());
     }
 
     /**
@@ -441,11 +1158,81 @@ public class RealEstateController {
         alert.showAndWait();
     }
 
+    /**
+     * Asks the user for a line of text.
+     *
+     * @param title  the title of the dialog
+     * @param prompt the prompt next to the input field
+     * @return the text entered, or empty if the dialog was cancelled
+     */
+    private Optional<String> askForText(String title, String prompt) {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.initOwner(menuBar.getScene().getWindow());
+        dialog.setTitle(title);
+        dialog.setHeaderText(null);
+        dialog.setContentText(prompt);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * Shows an error alert for a failed background request. Superseded
+     * (cancelled) requests are ignored. May be called from any thread.
+     *
+     * @param title   the title of the alert
+     * @param message the message prefix
+     * @param error   the failure
+     * @return null, so it can be used with {@link CompletableFuture#exceptionally}
+     */
+    private Void reportFailure(String title, String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof CancellationException)) {
+            Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, title, message + cause.getMessage()));
+        }
+        return null;
+    }
+
     /**
      * Refreshes the property table data.
      */
     public void refreshData() {
-        loadProperties();
         updateFilters();
     }
+
+    /**
+     * Patches the property table after a property was updated elsewhere.
+     *
+     * @param before  the RealEstate entity as it was shown
+     * @param updated the updated RealEstate entity as stored
+     */
+    public void propertyUpdated(RealEstate before, RealEstate updated) {
+        applyChange(RealEstateChange.updated(before, updated));
+    }
+
+    /**
+     * Removes a property from the property table after it was found deleted elsewhere.
+     *
+     * @param deleted the RealEstate entity as it was shown
+     */
+    public void propertyDeleted(RealEstate deleted) {
+        applyChange(RealEstateChange.deleted(deleted));
+    }
+
+    /**
+     * Stops polling for changes, cancels outstanding database requests and
+     * stops the background executor. In cache mode, the listings are saved to
+     * the local snapshot for the next start.
+     */
+    public void shutdown() {
+        if (changePoller != null) {
+            changePoller.close();
+        }
+        asyncRepository.close();
+        if (SNAPSHOT_ENABLED && cacheWatermark != null && databaseId != null) {
+            try {
+                ListingSnapshot.write(Path.of(SNAPSHOT_FILE), listingCache, cacheWatermark, databaseId);
+            } catch (IOException e) {
+                logger.warn("Could not save the listing snapshot {}: ", SNAPSHOT_FILE, e);
+            }
+        }
+    }
 }
@@ -3,13 +3,19 @@ package org.zakaria.realestatehibernatefx.controller;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import org.zakaria.realestatehibernatefx.viewmodel.RealEstateViewModel;
-import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
+import org.zakaria.realestatehibernatefx.repositories.AsyncRealEstateRepository;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateUpdateResult;
 import org.zakaria.realestatehibernatefx.model.RealEstate;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Controller class for editing Real Estate Properties.
  */
@@ -30,17 +36,9 @@ public class RealEstateEditController {
     @FXML
     private Button saveButton;
 
-    private RealEstateViewModel propertyVM;
+    private RealEstate original; // The property as it was when editing started
     private RealEstateController mainController;
-    private RealEstateDao realEstateDao;
-
-    /**
-     * Initializes the controller by setting up the RealEstateDao.
-     */
-    @FXML
-    private void initialize() {
-        realEstateDao = new RealEstateDao();
-    }
+    private AsyncRealEstateRepository asyncRepository;
 
     /**
      * Sets the property ViewModel to be edited.
@@ -48,8 +46,8 @@ public class RealEstateEditController {
      * @param propertyVM the RealEstateViewModel property
      */
     public void setPropertyViewModel(RealEstateViewModel propertyVM) {
-        this.propertyVM = propertyVM;
-        populateFields();
+        this.original = propertyVM.toEntity();
+        populateFields(original);
     }
 
     /**
@@ -62,17 +60,26 @@ public class RealEstateEditController {
     }
 
     /**
-     * Populates the fields with the property's current data from the ViewModel.
+     * Sets the repository used to save changes off the FX thread.
+     *
+     * @param repository the shared AsyncRealEstateRepository
      */
-    private void populateFields() {
-        if (propertyVM != null) {
-            idLabel.setText(String.valueOf(propertyVM.idProperty().get()));
-            ownerField.setText(propertyVM.ownerProperty().get());
-            realEstateNameField.setText(propertyVM.realEstateNameProperty().get());
-            addressField.setText(propertyVM.addressProperty().get());
-            numberOfRoomsField.setText(String.valueOf(propertyVM.numberOfRoomsProperty().get()));
-            priceField.setText(String.valueOf(propertyVM.priceProperty().get()));
-        }
+    public void setRepository(AsyncRealEstateRepository repository) {
+        this.asyncRepository = repository;
+    }
+
+    /**
+     * Populates the fields with a property's data.
+     *
+     * @param realEstate the RealEstate entity to show
+     */
+    private void populateFields(RealEstate realEstate) {
+        idLabel.setText(String.valueOf(realEstate.getId()));
+        ownerField.setText(realEstate.getOwner());
+        realEstateNameField.setText(realEstate.getRealEstateName());
+        addressField.setText(realEstate.getAddress());
+        numberOfRoomsField.setText(String.valueOf(realEstate.getNumberOfRooms()));
+        priceField.setText(String.valueOf(realEstate.getPrice()));
     }
 
     /**
@@ -103,28 +110,83 @@ public class RealEstateEditController {
             return;
         }
 
-        // Update ViewModel properties
-        propertyVM.ownerProperty().set(owner);
-        propertyVM.realEstateNameProperty().set(realEstateName);
-        propertyVM.addressProperty().set(address);
-        propertyVM.numberOfRoomsProperty().set(numberOfRooms);
-        propertyVM.priceProperty().set(price);
-
-        // Convert ViewModel to Entity
-        RealEstate updatedEntity = propertyVM.toEntity();
+        // Build the updated entity; the ViewModel in the table changes only once the save succeeds.
+        // It keeps the version read when editing started, so a change made meanwhile is detected.
+        RealEstate updatedEntity = new RealEstate();
+        updatedEntity.setId(original.getId());
+        updatedEntity.setZipCode(original.getZipCode());
+        updatedEntity.setVersion(original.getVersion());
+        updatedEntity.setOwner(owner);
+        updatedEntity.setRealEstateName(realEstateName);
+        updatedEntity.setAddress(address);
+        updatedEntity.setNumberOfRooms(numberOfRooms);
+        updatedEntity.setPrice(price);
+
+        save(updatedEntity, false);
+    }
 
-        // Save changes to database
-        try {
-            boolean success = realEstateDao.updateRealEstate(updatedEntity);
-            if (success) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Property updated successfully.");
-                closeWindow();
-                mainController.refreshData();
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Update Error", "Failed to update property.");
+    /**
+     * Saves the updated entity to the database and handles the outcome.
+     *
+     * @param updatedEntity the updated RealEstate entity
+     * @param force         true to overwrite changes made by someone else
+     */
+    private void save(RealEstate updatedEntity, boolean force) {
+        saveButton.setDisable(true);
+        CompletableFuture<RealEstateUpdateResult> update = force
+                ? asyncRepository.forceUpdateRealEstate(updatedEntity)
+                : asyncRepository.updateRealEstate(updatedEntity);
+        update.whenCompleteAsync((result, error) -> {
+            saveButton.setDisable(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                showAlert(Alert.AlertType.ERROR, "Update Error", "Failed to update property: " + cause.getMessage());
+                return;
             }
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Update Error", "Failed to update property: " + e.getMessage());
+            switch (result.outcome()) {
+                case UPDATED -> {
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Property updated successfully.");
+                    closeWindow();
+                    mainController.propertyUpdated(original, result.current());
+                }
+                case CONFLICT -> resolveConflict(updatedEntity, result.current());
+                case DELETED -> {
+                    showAlert(Alert.AlertType.ERROR, "Update Error", "The property was deleted by someone else.");
+                    closeWindow();
+                    mainController.propertyDeleted(original);
+                }
+                case FAILED -> showAlert(Alert.AlertType.ERROR, "Update Error", "Failed to update property.");
+            }
+        }, AsyncRealEstateRepository.FX_THREAD);
+    }
+
+    /**
+     * Lets the user choose between the stored values and their own after the
+     * property was changed by someone else while it was being edited.
+     *
+     * @param updatedEntity the user's updated RealEstate entity
+     * @param current       the RealEstate entity as now stored
+     */
+    private void resolveConflict(RealEstate updatedEntity, RealEstate current) {
+        ButtonType reload = new ButtonType("Reload");
+        ButtonType overwrite = new ButtonType("Overwrite");
+        Alert alert = new Alert(Alert.AlertType.WARNING, null, reload, overwrite, ButtonType.CANCEL);
+        alert.initOwner(saveButton.getScene().getWindow());
+        alert.setTitle("Edit Conflict");
+        alert.setHeaderText("This property was changed by someone else while you were editing it.");
+        alert.setContentText(String.format("Stored values:%n"
+                        + "Owner: %s%nReal Estate Name: %s%nAddress: %s%nNumber of Rooms: %d%nPrice: %s%n%n"
+                        + "Reload shows the stored values and discards your changes. "
+                        + "Overwrite saves your changes over them.",
+                current.getOwner(), current.getRealEstateName(), current.getAddress(),
+                current.getNumberOfRooms(), current.getPrice()));
+        Optional<ButtonType> choice = alert.showAndWait();
+        if (choice.isPresent() && choice.get() == reload) {
+            mainController.propertyUpdated(original, current);
+            original = current;
+            populateFields(current);
+        } else if (choice.isPresent() && choice.get() == overwrite) {
+            save(updatedEntity, true);
         }
     }
 
@@ -0,0 +1,77 @@
+package org.zakaria.realestatehibernatefx.geo;
+
+import java.util.Arrays;
+
+/**
+ * The zip codes whose centroid lies within a radius of another zip code's
+ * centroid. Two areas are equal if they have the same center and radius,
+ * since the zip codes follow from those.
+ *
+ * @param zipCode     the zip code at the center
+ * @param radiusKm    the radius in kilometers
+ * @param zipCodes    the zip codes in the area, sorted; only the center itself
+ *                    if the radius is 0 or the center has no known location
+ * @param centerKnown false if the center has no known location, so that the
+ *                    radius could not be applied
+ */
+public record ZipArea(long zipCode, double radiusKm, long[] zipCodes, boolean centerKnown) {
+
+    /**
+     * Creates the area of a single zip code.
+     *
+     * @param zipCode     the zip code
+     * @param radiusKm    the radius asked for
+     * @param centerKnown whether the zip code has a known location
+     * @return the area holding only the zip code
+     */
+    static ZipArea exactly(long zipCode, double radiusKm, boolean centerKnown) {
+        return new ZipArea(zipCode, radiusKm, new long[]{zipCode}, centerKnown);
+    }
+
+    /**
+     * Checks whether a radius was asked for but could not be applied, because
+     * the center has no known location; the area then holds only the center.
+     *
+     * @return true if the radius was ignored
+     */
+    public boolean radiusIgnored() {
+        return !centerKnown && radiusKm > 0;
+    }
+
+    /**
+     * Checks whether a zip code lies in this area.
+     *
+     * @param zip the zip code
+     * @return true if it is one of the area's zip codes
+     */
+    public boolean contains(long zip) {
+        return Arrays.binarySearch(zipCodes, zip) >= 0;
+    }
+
+    /**
+     * Checks whether this area lies within another one, i.e. has the same
+     * center and a radius no larger.
+     *
+     * @param other the other area
+     * @return true if every zip code of this area is in the other
+     */
+    public boolean isWithin(ZipArea other) {
+        return zipCode == other.zipCode && radiusKm <= other.radiusKm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ZipArea other && zipCode == other.zipCode
+                && Double.compare(radiusKm, other.radiusKm) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zipCode) * 31 + Double.hashCode(radiusKm);
+    }
+
+    @Override
+    public String toString() {
+        return "ZipArea{zipCode=" + zipCode + ", radiusKm=" + radiusKm + ", zipCodes=" + zipCodes.length + "}";
+    }
+}
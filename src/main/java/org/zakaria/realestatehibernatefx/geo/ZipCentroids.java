@@ -0,0 +1,275 @@
+package org.zakaria.realestatehibernatefx.geo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Centroids of zip codes, with a grid index for radius queries.
+ * <p>
+ * Centroids are read from a tab- or comma-separated file with a header row,
+ * in the layout of the Census Bureau's ZCTA gazetteer file (columns
+ * {@code GEOID}, {@code INTPTLAT} and {@code INTPTLONG}; {@code zip},
+ * {@code latitude} and {@code longitude} are accepted as well). The file named
+ * by the {@code realestate.geo.zipCentroids} system property is used if set,
+ * otherwise the sample bundled with the application.
+ * <p>
+ * The centroids are bucketed into a grid of one-degree cells. A radius query
+ * only measures the distance to the centroids in the cells overlapping the
+ * circle's bounding box, so it reads a few hundred centroids rather than all
+ * of them.
+ */
+public class ZipCentroids {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipCentroids.class);
+
+    private static final String BUNDLED_RESOURCE = "zip-centroids.tsv";
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final long[] zipCodes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    // Grid cell key -> indexes of the centroids in that cell
+    private final Map<Integer, int[]> cells = new HashMap<>();
+
+    private static final class Holder {
+        private static final ZipCentroids INSTANCE = load();
+    }
+
+    /**
+     * Creates a lookup over the given centroids, which must be sorted by zip
+     * code without duplicates.
+     *
+     * @param zipCodes   the zip codes
+     * @param latitudes  the centroid latitudes in degrees
+     * @param longitudes the centroid longitudes in degrees
+     */
+    ZipCentroids(long[] zipCodes, double[] latitudes, double[] longitudes) {
+        this.zipCodes = zipCodes;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        Map<Integer, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < zipCodes.length; i++) {
+            grid.computeIfAbsent(cell(latitudes[i], longitudes[i]), key -> new ArrayList<>()).add(i);
+        }
+        grid.forEach((key, entries) -> cells.put(key, entries.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Returns the centroids loaded at first use.
+     *
+     * @return the shared ZipCentroids
+     */
+    public static ZipCentroids getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the number of known zip codes.
+     *
+     * @return the number of centroids
+     */
+    public int size() {
+        return zipCodes.length;
+    }
+
+    /**
+     * Checks whether a zip code has a known centroid.
+     *
+     * @param zipCode the zip code
+     * @return true if it is known
+     */
+    public boolean contains(long zipCode) {
+        return Arrays.binarySearch(zipCodes, zipCode) >= 0;
+    }
+
+    /**
+     * Finds the zip codes whose centroid lies within a radius of a zip code's
+     * centroid, including the zip code itself. With a radius of 0, or a zip
+     * code of unknown location, the area is the zip code alone; see
+     * {@link ZipArea#radiusIgnored()}.
+     *
+     * @param zipCode  the zip code at the center
+     * @param radiusKm the radius in kilometers
+     * @return the area
+     */
+    public ZipArea within(long zipCode, double radiusKm) {
+        int center = Arrays.binarySearch(zipCodes, zipCode);
+        if (center < 0 || radiusKm <= 0) {
+            return ZipArea.exactly(zipCode, radiusKm, center >= 0);
+        }
+        double latitude = latitudes[center];
+        double longitude = longitudes[center];
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        double cosine = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latitudeSpan)));
+        double longitudeSpan = Math.min(180.0, latitudeSpan / cosine);
+
+        long[] matches = new long[16];
+        int count = 0;
+        int lowLatitude = (int) Math.floor(Math.max(-90.0, latitude - latitudeSpan));
+        int highLatitude = (int) Math.floor(Math.min(89.999, latitude + latitudeSpan));
+        int lowLongitude = (int) Math.floor(longitude - longitudeSpan);
+        // At most 360 columns, so that no cell is visited twice
+        int highLongitude = Math.min(lowLongitude + 359, (int) Math.floor(longitude + longitudeSpan));
+        for (int cellLatitude = lowLatitude; cellLatitude <= highLatitude; cellLatitude++) {
+            for (int cellLongitude = lowLongitude; cellLongitude <= highLongitude; cellLongitude++) {
+                for (int i : cells.getOrDefault(cellKey(cellLatitude, cellLongitude), NO_ENTRIES)) {
+                    if (distanceKm(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm) {
+                        if (count == matches.length) {
+                            matches = Arrays.copyOf(matches, count * 2);
+                        }
+                        matches[count++] = zipCodes[i];
+                    }
+                }
+            }
+        }
+        long[] area = Arrays.copyOf(matches, count);
+        Arrays.sort(area);
+        return new ZipArea(zipCode, radiusKm, area, true);
+    }
+
+    /**
+     * Returns the great-circle distance between two points.
+     *
+     * @param latitude1  the first latitude in degrees
+     * @param longitude1 the first longitude in degrees
+     * @param latitude2  the second latitude in degrees
+     * @param longitude2 the second longitude in degrees
+     * @return the distance in kilometers
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double halfLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double halfLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = halfLatitude * halfLatitude
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * halfLongitude * halfLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static int cell(double latitude, double longitude) {
+        return cellKey((int) Math.floor(latitude), (int) Math.floor(longitude));
+    }
+
+    private static int cellKey(int cellLatitude, int cellLongitude) {
+        return (cellLatitude + 90) * 360 + Math.floorMod(cellLongitude + 180, 360);
+    }
+
+    /**
+     * Loads the configured centroid file, or the bundled sample. A file that
+     * cannot be read leaves the lookup empty, so every zip area is empty.
+     */
+    private static ZipCentroids load() {
+        String file = System.getProperty("realestate.geo.zipCentroids");
+        long start = System.nanoTime();
+        try {
+            ZipCentroids centroids;
+            if (file != null && !file.isBlank()) {
+                try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                    centroids = read(reader);
+                }
+            } else {
+                try (InputStream in = ZipCentroids.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+                    if (in == null) {
+                        throw new IOException("Missing resource " + BUNDLED_RESOURCE);
+                    }
+                    centroids = read(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            }
+            logger.info("Loaded {} zip code centroids from {} in {} ms", centroids.size(),
+                    file != null && !file.isBlank() ? file : "the bundled sample", (System.nanoTime() - start) / 1_000_000);
+            return centroids;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to load zip code centroids: ", e);
+            return new ZipCentroids(new long[0], new double[0], new double[0]);
+        }
+    }
+
+    /**
+     * Parses a centroid file. Blank lines, lines starting with '#' and rows
+     * that cannot be parsed are skipped.
+     *
+     * @param reader the file contents
+     * @return the centroids
+     * @throws IOException if the file cannot be read or has no usable header
+     */
+    static ZipCentroids read(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = nextLine(lines);
+        if (header == null) {
+            throw new IOException("Empty zip centroid file");
+        }
+        String separator = header.indexOf('\t') >= 0 ? "\t" : ",";
+        String[] columns = header.split(separator);
+        int zipColumn = column(columns, "geoid", "zip", "zipcode", "zcta5");
+        int latitudeColumn = column(columns, "intptlat", "latitude", "lat");
+        int longitudeColumn = column(columns, "intptlong", "longitude", "lng", "lon");
+        if (zipColumn < 0 || latitudeColumn < 0 || longitudeColumn < 0) {
+            throw new IOException("Zip centroid file needs zip, latitude and longitude columns: " + header);
+        }
+
+        Map<Long, double[]> centroids = new HashMap<>();
+        int skipped = 0;
+        for (String line = nextLine(lines); line != null; line = nextLine(lines)) {
+            String[] fields = line.split(separator);
+            try {
+                long zipCode = Long.parseLong(fields[zipColumn].trim());
+                double latitude = Double.parseDouble(fields[latitudeColumn].trim());
+                double longitude = Double.parseDouble(fields[longitudeColumn].trim());
+                if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                    throw new NumberFormatException("Coordinates out of range");
+                }
+                centroids.put(zipCode, new double[]{latitude, longitude});
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} unreadable zip centroid rows", skipped);
+        }
+
+        long[] zipCodes = centroids.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        double[] latitudes = new double[zipCodes.length];
+        double[] longitudes = new double[zipCodes.length];
+        for (int i = 0; i < zipCodes.length; i++) {
+            double[] centroid = centroids.get(zipCodes[i]);
+            latitudes[i] = centroid[0];
+            longitudes[i] = centroid[1];
+        }
+        return new ZipCentroids(zipCodes, latitudes, longitudes);
+    }
+
+    private static String nextLine(BufferedReader lines) throws IOException {
+        String line;
+        do {
+            line = lines.readLine();
+        } while (line != null && (line.isBlank() || line.startsWith("#")));
+        return line;
+    }
+
+    private static int column(String[] columns, String... names) {
+        for (int i = 0; i < columns.length; i++) {
+            String column = columns[i].trim().toLowerCase(Locale.ROOT);
+            for (String name : names) {
+                if (column.equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
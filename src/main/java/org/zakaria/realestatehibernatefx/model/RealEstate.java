@@ -10,20 +10,66 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.Instant;
 
 /**
  * Entity class representing a Real Estate property.
+ * <p>
+ * Entities are kept in the {@value #CACHE_REGION} second-level cache region, so
+ * repeated lookups by ID are answered without a database round trip.
+ * Updates write only the changed columns.
+ * <p>
+ * The composite indexes serve the common multi-column table sorts (owner,
+ * rooms or zip code, then price) as an index scan: InnoDB appends the
+ * primary key to every secondary index, which matches the ID tie-break of
+ * paged queries. An order with every direction reversed scans the same index
+ * backwards.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "real_estate")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RealEstate.CACHE_REGION)
+@Table(name = "real_estate", indexes = {
+        @Index(name = "idx_real_estate_owner", columnList = "owner"),
+        @Index(name = "idx_real_estate_price", columnList = "price"),
+        @Index(name = "idx_real_estate_zip_code", columnList = "zipCode"),
+        @Index(name = "idx_real_estate_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_real_estate_owner_price", columnList = "owner, price"),
+        @Index(name = "idx_real_estate_rooms_price", columnList = "number_of_rooms, price"),
+        @Index(name = "idx_real_estate_zip_code_price", columnList = "zipCode, price")
+})
 public class RealEstate {
 
+    /**
+     * Second-level cache region of RealEstate entities.
+     */
+    public static final String CACHE_REGION = "realEstate";
+
+    /**
+     * Number of IDs reserved per round trip to the ID sequence.
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    /**
+     * IDs come from a pooled sequence rather than an IDENTITY column, so
+     * Hibernate knows each ID before the INSERT and can batch inserts. MySQL has
+     * no sequences; Hibernate emulates this one with the {@code real_estate_seq}
+     * table, which is read once per {@link #ID_ALLOCATION_SIZE} IDs. The
+     * optimizer (pooled or pooled-lo) is chosen by
+     * {@code hibernate.id.optimizer.pooled.preferred}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "real_estate_seq")
+    @SequenceGenerator(name = "real_estate_seq", sequenceName = "real_estate_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private int id;
 
     @Column(name = "RealEstateName", unique = true, nullable = false)
@@ -51,6 +97,25 @@ public class RealEstate {
     @NotBlank(message = "Owner name cannot be blank")
     private String owner;
 
+    /**
+     * Incremented by every update. An update or delete of a stale copy fails
+     * instead of overwriting a change made in the meantime.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Time of the last insert or update, by the database clock, so that the
+     * writes of all clients are stamped by one clock. The column default and
+     * its ON UPDATE clause set it; Hibernate never writes it, and it is only
+     * current in entities read by a query. Clients poll this column for rows
+     * changed by others.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "datetime(6) default current_timestamp(6) on update current_timestamp(6) not null")
+    private Instant updatedAt;
+
     @Override
     public String toString() {
         return "RealEstate{" +
@@ -61,6 +126,7 @@ public class RealEstate {
                 ", price=" + price +
                 ", numberOfRooms=" + numberOfRooms +
                 ", owner='" + owner + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
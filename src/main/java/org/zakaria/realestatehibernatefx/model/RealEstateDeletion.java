@@ -0,0 +1,43 @@
+package org.zakaria.realestatehibernatefx.model;
+
+import jakarta.persistence.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entity class recording that a Real Estate property was deleted, so that
+ * other clients polling for changes learn about the deletion. The deletion
+ * time is set by the database clock, like {@link RealEstate#getUpdatedAt()}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "real_estate_deletion", indexes = {
+        @Index(name = "idx_real_estate_deletion_deleted_at", columnList = "deleted_at")
+})
+public class RealEstateDeletion {
+
+    @Id
+    @Column(name = "real_estate_id")
+    private int realEstateId;
+
+    @Column(name = "deleted_at", insertable = false, updatable = false,
+            columnDefinition = "datetime(6) default current_timestamp(6) not null")
+    private Instant deletedAt;
+
+    /**
+     * Records the deletion of a property now.
+     *
+     * @param realEstateId the ID of the deleted property
+     */
+    public RealEstateDeletion(int realEstateId) {
+        this.realEstateId = realEstateId;
+    }
+}
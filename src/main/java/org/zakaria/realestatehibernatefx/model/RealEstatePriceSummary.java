@@ -0,0 +1,84 @@
+package org.zakaria.realestatehibernatefx.model;
+
+import jakarta.persistence.*;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Entity class holding the price statistics of one group of Real Estate
+ * properties, e.g. all properties with the same zip code.
+ * <p>
+ * Rows are a materialized summary of the real_estate table. A write to a
+ * property marks the groups it left and joined as dirty, and dirty groups are
+ * recomputed before the summary is next read.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(RealEstatePriceSummary.Key.class)
+@Table(name = "real_estate_price_summary")
+public class RealEstatePriceSummary {
+
+    @Id
+    @Column(name = "dimension", length = 16)
+    private String dimension;
+
+    @Id
+    @Column(name = "group_key")
+    private String groupKey;
+
+    @Column(name = "listings")
+    private long listings;
+
+    @Column(name = "average_price")
+    private double averagePrice;
+
+    @Column(name = "min_price")
+    private double minPrice;
+
+    @Column(name = "p25_price")
+    private double p25Price;
+
+    @Column(name = "median_price")
+    private double medianPrice;
+
+    @Column(name = "p75_price")
+    private double p75Price;
+
+    @Column(name = "p90_price")
+    private double p90Price;
+
+    @Column(name = "max_price")
+    private double maxPrice;
+
+    @Column(name = "dirty")
+    private boolean dirty;
+
+    @Column(name = "refreshed_at")
+    private Instant refreshedAt;
+
+    /**
+     * Composite primary key of a summary row.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String dimension;
+        private String groupKey;
+    }
+}
@@ -0,0 +1,351 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import javafx.application.Platform;
+import org.zakaria.realestatehibernatefx.cache.ListingCache;
+import org.zakaria.realestatehibernatefx.cache.ListingSnapshot;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.model.RealEstatePriceSummary;
+import org.zakaria.realestatehibernatefx.transfer.BatchReport;
+import org.zakaria.realestatehibernatefx.transfer.RealEstateExporter;
+import org.zakaria.realestatehibernatefx.transfer.RealEstateImporter;
+import org.zakaria.realestatehibernatefx.transfer.TransferFormat;
+import org.zakaria.realestatehibernatefx.transfer.TransferReport;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous facade over {@link RealEstateDao}.
+ * <p>
+ * Every call runs on its own virtual thread so the JavaFX Application Thread
+ * never waits on the database. Callers continue on the UI thread with
+ * {@link #FX_THREAD}, e.g. {@code future.thenAcceptAsync(action, FX_THREAD)}.
+ * <p>
+ * Read requests are issued on named channels: a new request on a channel
+ * cancels the previous one, so a result made obsolete by a newer request
+ * (such as the next keystroke in a filter field) is never delivered.
+ */
+public class AsyncRealEstateRepository implements AutoCloseable {
+
+    /**
+     * Executor that runs tasks on the JavaFX Application Thread.
+     */
+    public static final Executor FX_THREAD = Platform::runLater;
+
+    private static final String PAGE_CHANNEL = "page";
+    private static final String COUNT_CHANNEL = "count";
+    private static final String RECOUNT_CHANNEL = "recount";
+    private static final String ANALYTICS_CHANNEL = "analytics";
+
+    private final RealEstateDao realEstateDao;
+    private final RealEstateAnalyticsDao analyticsDao;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<String, CompletableFuture<?>> latestRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an asynchronous facade over the given DAO.
+     *
+     * @param realEstateDao the DAO to delegate to
+     */
+    public AsyncRealEstateRepository(RealEstateDao realEstateDao) {
+        this(realEstateDao, new RealEstateAnalyticsDao());
+    }
+
+    /**
+     * Creates an asynchronous facade over the given DAOs.
+     *
+     * @param realEstateDao the DAO to delegate to
+     * @param analyticsDao  the DAO for price statistics
+     */
+    public AsyncRealEstateRepository(RealEstateDao realEstateDao, RealEstateAnalyticsDao analyticsDao) {
+        this.realEstateDao = realEstateDao;
+        this.analyticsDao = analyticsDao;
+    }
+
+    /**
+     * Loads a page of rows, superseding any page load still in progress.
+     *
+     * @param source    the page source to load from
+     * @param pageIndex the zero-based page index
+     * @return a future for the rows of the page
+     */
+    public CompletableFuture<List<RealEstate>> loadPage(PageSource source, int pageIndex) {
+        return submitLatest(PAGE_CHANNEL, () -> source.getPage(pageIndex));
+    }
+
+    /**
+     * Loads a page of rows as a block of a scrolling list. Block loads do not
+     * supersede each other, since neighbouring blocks are fetched together.
+     *
+     * @param source     the page source to load from
+     * @param blockIndex the zero-based page index
+     * @return a future for the rows of the page
+     */
+    public CompletableFuture<List<RealEstate>> loadBlock(PageSource source, int blockIndex) {
+        return submit(() -> source.getPage(blockIndex));
+    }
+
+    /**
+     * Counts the pages of a page source, superseding any count still in progress.
+     *
+     * @param source the page source to count
+     * @return a future for the page count
+     */
+    public CompletableFuture<Integer> countPages(PageSource source) {
+        return submitLatest(COUNT_CHANNEL, source::getPageCount);
+    }
+
+    /**
+     * Re-counts the matching rows of a page source, superseding any count still in progress.
+     *
+     * @param source the page source to count
+     * @return a future for the number of matching rows
+     */
+    public CompletableFuture<Long> recount(PageSource source) {
+        return submitLatest(RECOUNT_CHANNEL, source::recount);
+    }
+
+    /**
+     * Loads the price statistics of a dimension, superseding any load still in progress.
+     *
+     * @param dimension the field to group by
+     * @return a future for one row per group
+     */
+    public CompletableFuture<List<RealEstatePriceSummary>> loadPriceSummary(RealEstateAnalyticsDao.Dimension dimension) {
+        return submitLatest(ANALYTICS_CHANNEL, () -> analyticsDao.getPriceSummary(dimension));
+    }
+
+    /**
+     * Streams every RealEstate row in ID order, one batch at a time.
+     *
+     * @param batchSize     the number of rows per batch
+     * @param batchConsumer receives each batch on a background thread
+     * @return a future that completes when all rows have been delivered
+     */
+    public CompletableFuture<Void> streamAllRealEstates(int batchSize, Consumer<List<RealEstate>> batchConsumer) {
+        return submit(() -> {
+            realEstateDao.forEachRealEstateBatch(batchSize, batchConsumer);
+            return null;
+        });
+    }
+
+    /**
+     * Reads the listings of a local snapshot file into a cache.
+     *
+     * @param file  the snapshot file
+     * @param cache the cache to fill
+     * @return a future for the snapshot read, empty if there is no snapshot file
+     */
+    public CompletableFuture<Optional<ListingSnapshot>> restoreSnapshot(Path file, ListingCache cache) {
+        return submit(() -> ListingSnapshot.read(file, cache));
+    }
+
+    /**
+     * Writes the listings of a cache to a local snapshot file.
+     *
+     * @param file       the snapshot file
+     * @param cache      the listings
+     * @param watermark  the time up to which the cache holds every change
+     * @param databaseId identifies the database the listings came from
+     * @return a future for the snapshot written
+     */
+    public CompletableFuture<ListingSnapshot> saveSnapshot(Path file, ListingCache cache, Instant watermark,
+                                                           int databaseId) {
+        return submit(() -> ListingSnapshot.write(file, cache, watermark, databaseId));
+    }
+
+    /**
+     * Reads the database clock, or this client's clock if the database
+     * cannot be reached.
+     *
+     * @return a future for the current time
+     */
+    public CompletableFuture<Instant> loadDatabaseTime() {
+        return submit(() -> realEstateDao.getDatabaseTime().orElseGet(Instant::now));
+    }
+
+    /**
+     * Identifies the database, waiting for it to become ready.
+     *
+     * @return a future for the database ID, failed if the database cannot be reached
+     * @see HibernateUtil#getDatabaseId()
+     */
+    public CompletableFuture<Integer> loadDatabaseId() {
+        return submit(HibernateUtil::getDatabaseId);
+    }
+
+    /**
+     * Loads the rows inserted, updated or deleted after a point in time.
+     *
+     * @param since   the time after which changes are returned
+     * @param maxRows the most changed rows to return
+     * @return a future for the changes, empty on error
+     */
+    public CompletableFuture<Optional<RealEstateChangeSet>> loadChangesSince(Instant since, int maxRows) {
+        return submit(() -> realEstateDao.getChangesSince(since, maxRows));
+    }
+
+    /**
+     * Imports RealEstate records from a CSV or JSON Lines file in batches.
+     *
+     * @param file      the file to read
+     * @param batchSize the number of rows per batch
+     * @param progress  receives a report after every batch, on a background thread
+     * @return a future for the import summary
+     */
+    public CompletableFuture<TransferReport> importRealEstates(Path file, int batchSize, Consumer<BatchReport> progress) {
+        return submit(() -> new RealEstateImporter(batchSize).importFrom(file, TransferFormat.forPath(file), progress));
+    }
+
+    /**
+     * Exports every RealEstate record to a CSV or JSON Lines file in batches.
+     *
+     * @param file      the file to write
+     * @param batchSize the number of rows per batch
+     * @param progress  receives a report after every batch, on a background thread
+     * @return a future for the export summary
+     */
+    public CompletableFuture<TransferReport> exportRealEstates(Path file, int batchSize, Consumer<BatchReport> progress) {
+        return submit(() -> new RealEstateExporter(batchSize).exportTo(file, TransferFormat.forPath(file), progress));
+    }
+
+    /**
+     * Saves a new RealEstate entity.
+     *
+     * @param realEstate the RealEstate entity to save
+     * @return a future for the saved entity with its ID, empty if the save failed
+     */
+    public CompletableFuture<Optional<RealEstate>> saveRealEstate(RealEstate realEstate) {
+        return submit(() -> realEstateDao.saveRealEstate(realEstate));
+    }
+
+    /**
+     * Updates an existing RealEstate entity unless it changed since it was read.
+     *
+     * @param realEstate the RealEstate entity to update
+     * @return a future for the outcome of the update
+     */
+    public CompletableFuture<RealEstateUpdateResult> updateRealEstate(RealEstate realEstate) {
+        return submit(() -> realEstateDao.updateRealEstate(realEstate));
+    }
+
+    /**
+     * Updates an existing RealEstate entity, overwriting concurrent changes.
+     *
+     * @param realEstate the RealEstate entity to update
+     * @return a future for the outcome of the update
+     */
+    public CompletableFuture<RealEstateUpdateResult> forceUpdateRealEstate(RealEstate realEstate) {
+        return submit(() -> realEstateDao.forceUpdateRealEstate(realEstate));
+    }
+
+    /**
+     * Deletes a RealEstate entity.
+     *
+     * @param realEstate the RealEstate entity to delete
+     * @return a future that is true if successful
+     */
+    public CompletableFuture<Boolean> deleteRealEstate(RealEstate realEstate) {
+        return submit(() -> realEstateDao.deleteRealEstate(realEstate));
+    }
+
+    /**
+     * Deletes the selected rows without loading them.
+     *
+     * @param selection the rows to delete
+     * @return a future for the number of deleted rows, empty if the delete failed
+     */
+    public CompletableFuture<Optional<Integer>> deleteRealEstates(RealEstateSelection selection) {
+        return submit(() -> realEstateDao.deleteRealEstates(selection));
+    }
+
+    /**
+     * Counts the selected rows as they are now.
+     *
+     * @param selection the selected rows
+     * @return a future for the number of selected rows, empty on error
+     */
+    public CompletableFuture<Optional<Long>> countSelected(RealEstateSelection selection) {
+        return submit(() -> realEstateDao.countSelected(selection));
+    }
+
+    /**
+     * Gives the selected rows a new owner without loading them.
+     *
+     * @param selection the rows to reassign
+     * @param owner     the new owner
+     * @return a future for the number of updated rows, empty if the update failed
+     */
+    public CompletableFuture<Optional<Integer>> reassignOwner(RealEstateSelection selection, String owner) {
+        return submit(() -> realEstateDao.reassignOwner(selection, owner));
+    }
+
+    /**
+     * Multiplies the prices of the selected rows by a factor without loading them.
+     *
+     * @param selection the rows to reprice
+     * @param factor    the positive factor to multiply prices by
+     * @return a future for the number of updated rows, empty if the update failed
+     */
+    public CompletableFuture<Optional<Integer>> adjustPrices(RealEstateSelection selection, double factor) {
+        return submit(() -> realEstateDao.adjustPrices(selection, factor));
+    }
+
+    /**
+     * Runs a task on a virtual thread. A task cancelled before it starts is skipped.
+     *
+     * @param task the task to run
+     * @return a future for the task's result
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a task on a virtual thread and cancels the previous task on the same channel.
+     *
+     * @param channel the channel name
+     * @param task    the task to run
+     * @return a future for the task's result
+     */
+    private <T> CompletableFuture<T> submitLatest(String channel, Callable<T> task) {
+        CompletableFuture<T> future = submit(task);
+        CompletableFuture<?> previous = latestRequests.put(channel, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        future.whenComplete((result, error) -> latestRequests.remove(channel, future));
+        return future;
+    }
+
+    /**
+     * Cancels outstanding requests and stops the executor.
+     */
+    @Override
+    public void close() {
+        latestRequests.values().forEach(future -> future.cancel(false));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,66 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.util.List;
+
+/**
+ * A filtered and sorted view of RealEstate rows that can be read one page at a time.
+ * <p>
+ * Implementations may block on I/O or computation and are called from
+ * background threads.
+ */
+public interface PageSource {
+
+    /**
+     * Returns the number of matching rows.
+     *
+     * @return the number of matching rows
+     */
+    long getTotalCount();
+
+    /**
+     * Returns the number of pages, at least one.
+     *
+     * @return the page count
+     */
+    int getPageCount();
+
+    /**
+     * Fetches a page of rows.
+     *
+     * @param pageIndex the zero-based page index
+     * @return the rows of the page
+     */
+    List<RealEstate> getPage(int pageIndex);
+
+    /**
+     * Keeps this view consistent with a change that was just written, without
+     * re-reading the database. Called on the JavaFX Application Thread.
+     *
+     * @param change the applied change
+     */
+    void applyChange(RealEstateChange change);
+
+    /**
+     * Re-reads the number of matching rows, for when changes were applied
+     * whose effect on the count could not be derived.
+     *
+     * @return the number of matching rows
+     */
+    long recount();
+
+    /**
+     * Returns the filter this view was built from.
+     *
+     * @return the filter criteria
+     */
+    RealEstateFilter getFilter();
+
+    /**
+     * Returns the order of the rows in this view.
+     *
+     * @return the sort order
+     */
+    RealEstateSort getSort();
+}
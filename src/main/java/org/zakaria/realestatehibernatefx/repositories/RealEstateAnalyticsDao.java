@@ -0,0 +1,252 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.model.RealEstatePriceSummary;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Data Access Object for price statistics of groups of RealEstate entities.
+ * <p>
+ * Statistics are computed by the database with GROUP BY and window functions
+ * (MySQL 8) and kept in the real_estate_price_summary table, so reading them
+ * costs one small query however many listings there are. Writes made through
+ * {@link RealEstateDao} and the importer mark the groups they touch as dirty
+ * with {@link #markChanged(Session, Collection)}; before the summary of a
+ * dimension is read, its dirty groups are recomputed, each from its own range
+ * of the matching (group column, price) index. A dimension that has never
+ * been computed, or has too many dirty groups, is rebuilt in one pass.
+ * Percentiles use the nearest-rank method.
+ */
+public class RealEstateAnalyticsDao {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealEstateAnalyticsDao.class);
+
+    // Beyond this many dirty groups one pass over the table is cheaper than a query per group
+    private static final int FULL_REFRESH_GROUPS = 200;
+    private static final int MARK_CHUNK_SIZE = 500;
+
+    private static final String REFRESH_SQL = """
+            insert into real_estate_price_summary (dimension, group_key, listings, average_price, min_price,
+                    p25_price, median_price, p75_price, p90_price, max_price, dirty, refreshed_at)
+            select :dimension, group_key, count(*), avg(price), min(price),
+                   min(case when position >= 0.25 * total then price end),
+                   min(case when position >= 0.50 * total then price end),
+                   min(case when position >= 0.75 * total then price end),
+                   min(case when position >= 0.90 * total then price end),
+                   max(price), false, :refreshedAt
+            from (select concat(%1$s, '') as group_key, price,
+                         row_number() over (partition by %1$s order by price) as position,
+                         count(*) over (partition by %1$s) as total
+                  from real_estate %2$s) ranked
+            group by group_key
+            """;
+
+    private static final String MARK_SQL_PREFIX = """
+            insert into real_estate_price_summary (dimension, group_key, listings, average_price, min_price,
+                    p25_price, median_price, p75_price, p90_price, max_price, dirty)
+            values\s""";
+
+    /**
+     * Fields that listings are grouped by.
+     */
+    public enum Dimension {
+        ZIP_CODE("Zip code", "zipCode", "zipCode", RealEstate::getZipCode, Long::valueOf),
+        OWNER("Owner", "owner", "owner", RealEstate::getOwner, key -> key),
+        ROOMS("Number of rooms", "number_of_rooms", "numberOfRooms", RealEstate::getNumberOfRooms, Integer::valueOf);
+
+        private final String label;
+        private final String column;
+        private final String attribute;
+        private final Function<RealEstate, Object> accessor;
+        private final Function<String, Comparable<?>> keyParser;
+
+        Dimension(String label, String column, String attribute, Function<RealEstate, Object> accessor,
+                  Function<String, Comparable<?>> keyParser) {
+            this.label = label;
+            this.column = column;
+            this.attribute = attribute;
+            this.accessor = accessor;
+            this.keyParser = keyParser;
+        }
+
+        /**
+         * Returns the name of the RealEstate attribute grouped by, for queries.
+         *
+         * @return the attribute name
+         */
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * Returns the group key of an entity, as stored in the summary.
+         *
+         * @param realEstate the entity
+         * @return the group key
+         */
+        public String groupKey(RealEstate realEstate) {
+            return String.valueOf(accessor.apply(realEstate));
+        }
+
+        /**
+         * Converts a stored group key back to a column value.
+         *
+         * @param groupKey the group key
+         * @return the column value
+         */
+        public Comparable<?> parseKey(String groupKey) {
+            return keyParser.apply(groupKey);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Returns the price statistics of every group of a dimension, recomputing
+     * groups changed since the last read.
+     *
+     * @param dimension the field to group by
+     * @return one row per group in group order, empty on error
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<RealEstatePriceSummary> getPriceSummary(Dimension dimension) {
+        try (Session currentSession = HibernateUtil.getSession()) {
+            Transaction tx = currentSession.beginTransaction();
+            try {
+                refresh(currentSession, dimension);
+                List<RealEstatePriceSummary> rows = new ArrayList<>(currentSession.createQuery(
+                                "from RealEstatePriceSummary s where s.dimension = :dimension and s.listings > 0",
+                                RealEstatePriceSummary.class)
+                        .setParameter("dimension", dimension.name())
+                        .list());
+                tx.commit();
+                rows.sort(Comparator.comparing(row -> (Comparable) dimension.parseKey(row.getGroupKey())));
+                return rows;
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        } catch (Exception e) {
+            logException(e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Marks the summary groups of changed rows as dirty, in the caller's
+     * transaction. Pass both the old and the new state of an updated row so
+     * that the groups it left are recomputed as well.
+     *
+     * @param session the session of the writing transaction
+     * @param rows    the inserted, updated or deleted rows
+     */
+    public static void markChanged(Session session, Collection<RealEstate> rows) {
+        Map<Dimension, Set<String>> keys = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            Set<String> dimensionKeys = new LinkedHashSet<>();
+            rows.forEach(row -> dimensionKeys.add(dimension.groupKey(row)));
+            keys.put(dimension, dimensionKeys);
+        }
+        markChanged(session, keys);
+    }
+
+    /**
+     * Marks summary groups as dirty by their keys, in the caller's
+     * transaction. Used by bulk statements, which know the groups they touch
+     * but not the rows.
+     *
+     * @param session the session of the writing transaction
+     * @param keys    the group keys of each dimension, as returned by {@link Dimension#groupKey(RealEstate)}
+     */
+    public static void markChanged(Session session, Map<Dimension, ? extends Collection<String>> keys) {
+        List<Object[]> groups = new ArrayList<>();
+        keys.forEach((dimension, dimensionKeys) ->
+                dimensionKeys.forEach(key -> groups.add(new Object[]{dimension.name(), key})));
+        for (int from = 0; from < groups.size(); from += MARK_CHUNK_SIZE) {
+            List<Object[]> chunk = groups.subList(from, Math.min(groups.size(), from + MARK_CHUNK_SIZE));
+            StringBuilder sql = new StringBuilder(MARK_SQL_PREFIX);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(:d").append(i).append(", :k").append(i)
+                        .append(", 0, 0, 0, 0, 0, 0, 0, 0, true)");
+            }
+            sql.append(" on duplicate key update dirty = true");
+            NativeQuery<?> mark = session.createNativeQuery(sql.toString(), Object.class)
+                    .addSynchronizedEntityClass(RealEstatePriceSummary.class);
+            for (int i = 0; i < chunk.size(); i++) {
+                mark.setParameter("d" + i, chunk.get(i)[0]).setParameter("k" + i, chunk.get(i)[1]);
+            }
+            mark.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the dirty groups of a dimension, or all of them.
+     */
+    private void refresh(Session session, Dimension dimension) {
+        List<String> dirty = session.createQuery(
+                        "select s.groupKey from RealEstatePriceSummary s where s.dimension = :dimension and s.dirty",
+                        String.class)
+                .setParameter("dimension", dimension.name())
+                .list();
+        long clean = session.createQuery(
+                        "select count(s) from RealEstatePriceSummary s where s.dimension = :dimension and not s.dirty",
+                        Long.class)
+                .setParameter("dimension", dimension.name())
+                .uniqueResult();
+        if (clean == 0 || dirty.size() > FULL_REFRESH_GROUPS) {
+            long start = System.nanoTime();
+            session.createMutationQuery("delete from RealEstatePriceSummary s where s.dimension = :dimension")
+                    .setParameter("dimension", dimension.name())
+                    .executeUpdate();
+            refreshQuery(session, dimension, "").executeUpdate();
+            logger.info("Rebuilt the {} price summary in {} ms", dimension.name(), (System.nanoTime() - start) / 1_000_000);
+        } else if (!dirty.isEmpty()) {
+            session.createMutationQuery(
+                            "delete from RealEstatePriceSummary s where s.dimension = :dimension and s.groupKey in :keys")
+                    .setParameter("dimension", dimension.name())
+                    .setParameterList("keys", dirty)
+                    .executeUpdate();
+            refreshQuery(session, dimension, "where " + dimension.column + " in (:keys)")
+                    .setParameterList("keys", dirty.stream().map(dimension::parseKey).toList())
+                    .executeUpdate();
+            logger.debug("Recomputed {} {} price summary groups", dirty.size(), dimension.name());
+        }
+    }
+
+    private NativeQuery<?> refreshQuery(Session session, Dimension dimension, String where) {
+        return session.createNativeQuery(REFRESH_SQL.formatted(dimension.column, where), Object.class)
+                .addSynchronizedEntityClass(RealEstatePriceSummary.class)
+                .setParameter("dimension", dimension.name())
+                .setParameter("refreshedAt", Instant.now());
+    }
+
+    /**
+     * Logs exceptions using SLF4J.
+     *
+     * @param e the exception to log
+     */
+    private void logException(Exception e) {
+        logger.error("An exception occurred: ", e);
+    }
+}
@@ -0,0 +1,52 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+/**
+ * A single row change that has been written to the database, used to patch
+ * views in place instead of reloading them.
+ *
+ * @param before the row before the change, or null if it was inserted
+ * @param after  the row after the change, or null if it was deleted
+ */
+public record RealEstateChange(RealEstate before, RealEstate after) {
+
+    public RealEstateChange {
+        if (before == null && after == null) {
+            throw new IllegalArgumentException("A change needs a row before or after it");
+        }
+    }
+
+    public static RealEstateChange inserted(RealEstate realEstate) {
+        return new RealEstateChange(null, realEstate);
+    }
+
+    public static RealEstateChange updated(RealEstate before, RealEstate after) {
+        return new RealEstateChange(before, after);
+    }
+
+    public static RealEstateChange deleted(RealEstate realEstate) {
+        return new RealEstateChange(realEstate, null);
+    }
+
+    /**
+     * Returns the ID of the changed row.
+     *
+     * @return the row ID
+     */
+    public int id() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    /**
+     * Returns how the change moves the number of rows matching a filter.
+     *
+     * @param filter the filter
+     * @return -1, 0 or 1
+     */
+    public int countDelta(RealEstateFilter filter) {
+        int matchedBefore = before != null && filter.matches(before) ? 1 : 0;
+        int matchesAfter = after != null && filter.matches(after) ? 1 : 0;
+        return matchesAfter - matchedBefore;
+    }
+}
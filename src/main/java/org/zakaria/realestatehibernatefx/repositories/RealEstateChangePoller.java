@@ -0,0 +1,109 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Polls the database for RealEstate rows written by other clients.
+ * <p>
+ * Each poll is one indexed query for the rows whose {@code updated_at} lies
+ * after the watermark of the previous poll, plus one for the deletions
+ * recorded since. Both times are set by the database clock, and so is the
+ * starting watermark. The query reaches back an extra overlap window because
+ * a row is stamped when it is written but only visible once its transaction
+ * commits; rows seen twice carry the same version and are recognised by the
+ * listener.
+ * <p>
+ * Polls run on a single virtual thread until {@link #close()}.
+ */
+public class RealEstateChangePoller implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealEstateChangePoller.class);
+
+    /**
+     * Deletion records older than this are purged when polling starts, so
+     * changes further back cannot be polled.
+     */
+    public static final Duration DELETION_RETENTION = Duration.ofDays(7);
+
+    private final RealEstateDao realEstateDao;
+    private final Duration interval;
+    private final Duration overlap;
+    private final int maxRows;
+    private final Consumer<RealEstateChangeSet> listener;
+
+    private volatile Thread thread;
+    private Instant watermark;
+
+    /**
+     * Creates a poller; it does not poll until {@link #start()}.
+     *
+     * @param realEstateDao the DAO to poll
+     * @param interval      the pause between polls
+     * @param overlap       how far each poll reaches back before the watermark
+     * @param maxRows       the most rows merged from one poll
+     * @param listener      receives every non-empty change set, on the polling thread
+     */
+    public RealEstateChangePoller(RealEstateDao realEstateDao, Duration interval, Duration overlap, int maxRows,
+                                  Consumer<RealEstateChangeSet> listener) {
+        this.realEstateDao = realEstateDao;
+        this.interval = interval;
+        this.overlap = overlap;
+        this.maxRows = maxRows;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts polling for changes made from now on, by the database clock.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Poller already started");
+        }
+        thread = Thread.ofVirtual().name("realestate-change-poller").start(this::run);
+        logger.info("Polling for changes every {} ms", interval.toMillis());
+    }
+
+    private void run() {
+        watermark = realEstateDao.getDatabaseTime().orElseGet(Instant::now);
+        realEstateDao.purgeDeletionsBefore(watermark.minus(DELETION_RETENTION));
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            poll();
+        }
+    }
+
+    /**
+     * Runs one poll and hands any changes to the listener.
+     */
+    private void poll() {
+        realEstateDao.getChangesSince(watermark.minus(overlap), maxRows).ifPresent(changes -> {
+            if (changes.watermark().isAfter(watermark)) {
+                watermark = changes.watermark();
+            }
+            if (!changes.isEmpty()) {
+                logger.debug("Polled {} changed and {} deleted rows{}", changes.upserted().size(),
+                        changes.deletedIds().size(), changes.truncated() ? " (truncated)" : "");
+                listener.accept(changes);
+            }
+        });
+    }
+
+    /**
+     * Stops polling.
+     */
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
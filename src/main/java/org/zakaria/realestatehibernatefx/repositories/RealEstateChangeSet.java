@@ -0,0 +1,29 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rows written to the database since a point in time, as returned by
+ * {@link RealEstateDao#getChangesSince(Instant, int)}.
+ *
+ * @param upserted   the inserted or updated rows, in the order they were written
+ * @param deletedIds the IDs of the deleted rows
+ * @param watermark  the latest change time seen; the next poll continues from here
+ * @param truncated  true if there were more changes than requested; the
+ *                   rows are then omitted and views should reload instead
+ */
+public record RealEstateChangeSet(List<RealEstate> upserted, List<Integer> deletedIds, Instant watermark,
+                                  boolean truncated) {
+
+    /**
+     * Checks whether the set holds no change.
+     *
+     * @return true if nothing changed
+     */
+    public boolean isEmpty() {
+        return upserted.isEmpty() && deletedIds.isEmpty() && !truncated;
+    }
+}
@@ -1,80 +1,479 @@
 package org.zakaria.realestatehibernatefx.repositories;
 
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.CacheMode;
 import org.hibernate.Session;
+import org.hibernate.StaleStateException;
 import org.hibernate.Transaction;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaInsertSelect;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.model.RealEstateDeletion;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateAnalyticsDao.Dimension;
+import org.zakaria.realestatehibernatefx.utility.EntityValidator;
 import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+import org.zakaria.realestatehibernatefx.utility.PersistenceMetrics;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for RealEstate entities.
+ * <p>
+ * Entities are checked against their constraints before they are written,
+ * see {@link EntityValidator}; a violation is an IllegalArgumentException.
+ * <p>
+ * Writes, and the change polling that must not miss them, go to the primary
+ * database, and keep the reads that follow them there for a while. Lookups,
+ * browsing queries and counts use read-only sessions that a replica may
+ * answer, see {@link HibernateUtil#getReadSession()}.
  */
 public class RealEstateDao {
 
     private static final Logger logger = LoggerFactory.getLogger(RealEstateDao.class);
+    private static final char LIKE_ESCAPE = '\\';
+    // Below the 65,535 parameters MySQL allows in a prepared statement, leaving room for the filter's
+    private static final int MAX_IDS_PER_STATEMENT = 60_000;
+
+    /**
+     * Query cache region of the lookup by name.
+     */
+    public static final String BY_NAME_CACHE_REGION = "realEstateByName";
 
     /**
      * Saves a new RealEstate entity to the database.
      *
      * @param realEstate the RealEstate entity to save
+     * @return an Optional containing the saved entity with its generated ID, empty on error
+     * @throws IllegalArgumentException if the entity violates its constraints
+     */
+    public Optional<RealEstate> saveRealEstate(RealEstate realEstate) {
+        EntityValidator.validate(realEstate);
+        logger.debug("Saving {}", realEstate);
+        return performTransactionWithResult("saveRealEstate", session -> {
+            session.persist(realEstate);
+            RealEstateAnalyticsDao.markChanged(session, List.of(realEstate));
+            PersistenceMetrics.addRows(1);
+            return realEstate;
+        });
+    }
+
+    /**
+     * Saves new RealEstate entities in one transaction.
+     * <p>
+     * Rows are sent as JDBC batches of {@code hibernate.jdbc.batch_size}
+     * inserts, and the persistence context is flushed and cleared after each
+     * batch so that it does not grow with the number of rows.
+     *
+     * @param realEstates the RealEstate entities to save
      * @return true if successful, false otherwise
+     * @throws IllegalArgumentException if an entity violates its constraints
      */
-    public boolean saveRealEstate(RealEstate realEstate) {
-        System.out.println("SAVING REAL ESTATE : "  + realEstate.toString());
-        return performTransaction(session -> session.persist(realEstate));
+    public boolean saveRealEstates(List<RealEstate> realEstates) {
+        realEstates.forEach(EntityValidator::validate);
+        int batchSize = HibernateUtil.getJdbcBatchSize();
+        return performTransaction("saveRealEstates", session -> {
+            // Bulk-loaded rows would only push looked-up entities out of the second-level cache
+            session.setCacheMode(CacheMode.IGNORE);
+            for (int i = 0; i < realEstates.size(); i++) {
+                session.persist(realEstates.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            RealEstateAnalyticsDao.markChanged(session, realEstates);
+            PersistenceMetrics.addRows(realEstates.size());
+        });
     }
 
     /**
-     * Updates an existing RealEstate entity in the database.
+     * Moves the ID sequence past the highest existing ID.
+     * <p>
+     * Rows inserted before the sequence existed (or by other tools) took their
+     * IDs from the AUTO_INCREMENT column, so a freshly created sequence would
+     * hand out IDs that are already in use.
      *
-     * @param realEstate the RealEstate entity to update
      * @return true if successful, false otherwise
      */
-    public boolean updateRealEstate(RealEstate realEstate) {
-        return performTransaction(session -> session.merge(realEstate));
+    public boolean alignIdSequence() {
+        // pooled stores the high end of the next block, pooled-lo its low end
+        int headroom = "pooled".equals(HibernateUtil.getSetting("hibernate.id.optimizer.pooled.preferred"))
+                ? RealEstate.ID_ALLOCATION_SIZE : 1;
+        return performTransaction("alignIdSequence", session -> {
+            Number maxId = session.createSelectionQuery("select max(r.id) from RealEstate r", Number.class)
+                    .getSingleResult();
+            long required = (maxId == null ? 0 : maxId.longValue()) + headroom;
+            // A native statement invalidates every cache region; this runs once, before much is cached
+            int updated = session.createNativeMutationQuery(
+                            "update real_estate_seq set next_val = :required where next_val < :required")
+                    .setParameter("required", required)
+                    .executeUpdate();
+            if (updated > 0) {
+                logger.info("Moved real_estate_seq to {}", required);
+            }
+        });
     }
 
     /**
-     * Deletes a RealEstate entity from the database.
+     * Updates an existing RealEstate entity in the database, unless the row
+     * has changed since the entity was read.
+     * <p>
+     * The stored row is taken from the second-level cache when present, so
+     * the update usually costs a single UPDATE of the changed columns. The
+     * version in its WHERE clause catches a concurrent write the cache has not
+     * seen; the row is then re-read from the database and reported as a
+     * conflict.
+     *
+     * @param realEstate the edited RealEstate entity, with the version it was read at
+     * @return the outcome, with the stored row
+     * @throws IllegalArgumentException if the entity violates its constraints
+     */
+    public RealEstateUpdateResult updateRealEstate(RealEstate realEstate) {
+        return update(realEstate, false);
+    }
+
+    /**
+     * Updates an existing RealEstate entity in the database, overwriting any
+     * change made since the entity was read.
+     *
+     * @param realEstate the edited RealEstate entity
+     * @return the outcome, with the stored row
+     * @throws IllegalArgumentException if the entity violates its constraints
+     */
+    public RealEstateUpdateResult forceUpdateRealEstate(RealEstate realEstate) {
+        return update(realEstate, true);
+    }
+
+    private RealEstateUpdateResult update(RealEstate realEstate, boolean force) {
+        EntityValidator.validate(realEstate);
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin(force ? "forceUpdateRealEstate" : "updateRealEstate");
+        try {
+            try {
+                return performUpdate(realEstate, force);
+            } catch (Exception e) {
+                if (!isStale(e)) {
+                    logException(e);
+                    return RealEstateUpdateResult.failed();
+                }
+            }
+            // The cached row was older than the database row; compare against the database row
+            HibernateUtil.evictEntity(RealEstate.class, realEstate.getId());
+            try {
+                return performUpdate(realEstate, force);
+            } catch (Exception e) {
+                logException(e);
+                return RealEstateUpdateResult.failed();
+            }
+        } finally {
+            operation.end();
+        }
+    }
+
+    private RealEstateUpdateResult performUpdate(RealEstate edited, boolean force) throws Exception {
+        try (Session currentSession = HibernateUtil.getSession()) {
+            long txStart = System.nanoTime();
+            Transaction tx = currentSession.beginTransaction();
+            try {
+                RealEstate stored = currentSession.get(RealEstate.class, edited.getId());
+                if (stored == null) {
+                    tx.rollback();
+                    return RealEstateUpdateResult.deleted();
+                }
+                if (!force && stored.getVersion() != edited.getVersion()) {
+                    tx.rollback();
+                    return RealEstateUpdateResult.conflict(stored);
+                }
+                // Both the groups the row leaves and the ones it joins change
+                RealEstateAnalyticsDao.markChanged(currentSession, List.of(stored, edited));
+                stored.setRealEstateName(edited.getRealEstateName());
+                stored.setZipCode(edited.getZipCode());
+                stored.setAddress(edited.getAddress());
+                stored.setPrice(edited.getPrice());
+                stored.setNumberOfRooms(edited.getNumberOfRooms());
+                stored.setOwner(edited.getOwner());
+                tx.commit();
+                HibernateUtil.keepReadsOnPrimary();
+                PersistenceMetrics.addRows(1);
+                return RealEstateUpdateResult.updated(stored);
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            } finally {
+                PersistenceMetrics.transactionFinished(txStart);
+            }
+        }
+    }
+
+    private static boolean isStale(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StaleStateException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a RealEstate entity from the database and records the deletion
+     * for clients polling {@link #getChangesSince(Instant, int)}.
      *
      * @param realEstate the RealEstate entity to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteRealEstate(RealEstate realEstate) {
-        return performTransaction(session -> session.remove(realEstate));
+        return performTransaction("deleteRealEstate", session -> {
+            session.remove(realEstate);
+            session.persist(new RealEstateDeletion(realEstate.getId()));
+            RealEstateAnalyticsDao.markChanged(session, List.of(realEstate));
+            PersistenceMetrics.addRows(1);
+        });
     }
 
     /**
-     * Retrieves a RealEstate entity by its ID.
+     * Retrieves a RealEstate entity by its ID, from the second-level cache when present.
      *
      * @param id the ID of the RealEstate entity
      * @return the RealEstate entity if found, null otherwise
      */
     public RealEstate getRealEstateById(int id) {
-        try (Session currentSession = HibernateUtil.getSession()) {
-            return currentSession.get(RealEstate.class, id);
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getRealEstateById");
+        // A cached entity costs no query; otherwise a replica may answer
+        try (Session currentSession = HibernateUtil.isCached(RealEstate.class, id)
+                ? HibernateUtil.getSession() : HibernateUtil.getReadSession()) {
+            RealEstate realEstate = currentSession.get(RealEstate.class, id);
+            PersistenceMetrics.addRows(realEstate == null ? 0 : 1);
+            return realEstate;
         } catch (Exception e) {
             logException(e);
             return null;
+        } finally {
+            operation.end();
         }
     }
 
     /**
-     * Deletes a RealEstate entity by its ID.
+     * Deletes a RealEstate entity by its ID, without loading it.
      *
      * @param id the ID of the RealEstate entity to delete
-     * @return true if successful, false otherwise
+     * @return true if the row existed and was deleted, false otherwise
      */
     public boolean deleteRealEstateById(int id) {
-        RealEstate searchedRealEstate = getRealEstateById(id);
-        if (searchedRealEstate == null) {
-            return false;
+        return performTransactionWithResult("deleteRealEstateById",
+                session -> delete(session, RealEstateSelection.of(List.of(id))))
+                .filter(deleted -> deleted > 0)
+                .isPresent();
+    }
+
+    /**
+     * Counts the selected rows as they are now, on the primary database, to
+     * confirm a bulk operation with the number of rows it will write.
+     *
+     * @param selection the selected rows
+     * @return an Optional containing the number of selected rows, empty on error
+     */
+    public Optional<Long> countSelected(RealEstateSelection selection) {
+        if (selection.isEmpty()) {
+            return Optional.of(0L);
+        }
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("countSelected");
+        try (Session currentSession = HibernateUtil.getSession()) {
+            CriteriaBuilder cb = currentSession.getCriteriaBuilder();
+            long count = 0;
+            for (RealEstateSelection part : selection.partition(MAX_IDS_PER_STATEMENT)) {
+                CriteriaQuery<Long> query = cb.createQuery(Long.class);
+                Root<RealEstate> root = query.from(RealEstate.class);
+                query.select(cb.count(root)).where(selectionPredicates(cb, root, part));
+                count += currentSession.createSelectionQuery(query).getSingleResult();
+            }
+            return Optional.of(count);
+        } catch (Exception e) {
+            logException(e);
+            return Optional.empty();
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Deletes the selected rows and records their deletion for clients
+     * polling {@link #getChangesSince(Instant, int)}, without loading them.
+     * <p>
+     * The rows are removed by a DELETE, after their deletion records have
+     * been written by an INSERT ... SELECT. A selection of more IDs than one
+     * statement takes runs these once per part of the selection, see
+     * {@link RealEstateSelection#partition(int)}, in the same transaction.
+     * Like every bulk statement on RealEstate, this evicts the entity cache
+     * region.
+     *
+     * @param selection the rows to delete
+     * @return an Optional containing the number of deleted rows, empty on error
+     */
+    public Optional<Integer> deleteRealEstates(RealEstateSelection selection) {
+        if (selection.isEmpty()) {
+            return Optional.of(0);
         }
-        return deleteRealEstate(searchedRealEstate);
+        return performTransactionWithResult("deleteRealEstates", session -> delete(session, selection));
+    }
+
+    /**
+     * Gives the selected rows a new owner with a bulk UPDATE, without loading
+     * them. Rows changed since they were read are overwritten.
+     *
+     * @param selection the rows to reassign
+     * @param owner     the new owner, not blank
+     * @return an Optional containing the number of updated rows, empty on error
+     */
+    public Optional<Integer> reassignOwner(RealEstateSelection selection, String owner) {
+        // The UPDATE bypasses the entity, so its owner constraint is checked here
+        if (owner == null || owner.isBlank()) {
+            throw new IllegalArgumentException("Owner name cannot be blank");
+        }
+        if (selection.isEmpty()) {
+            return Optional.of(0);
+        }
+        return performTransactionWithResult("reassignOwner", session -> {
+            // The new owner's group changes as well as the groups the rows leave
+            Map<Dimension, Set<String>> groups = selectedGroups(session, selection);
+            groups.get(Dimension.OWNER).add(owner);
+            RealEstateAnalyticsDao.markChanged(session, groups);
+            return bulkUpdate(session, selection, (update, root) -> update.set(root.get("owner"), owner));
+        });
+    }
+
+    /**
+     * Multiplies the prices of the selected rows by a factor with a bulk
+     * UPDATE, without loading them, e.g. 1.03 for a 3% increase. Rows changed
+     * since they were read are overwritten.
+     *
+     * @param selection the rows to reprice
+     * @param factor    the positive factor to multiply prices by
+     * @return an Optional containing the number of updated rows, empty on error
+     */
+    public Optional<Integer> adjustPrices(RealEstateSelection selection, double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("Price factor must be positive: " + factor);
+        }
+        if (selection.isEmpty()) {
+            return Optional.of(0);
+        }
+        return performTransactionWithResult("adjustPrices", session -> {
+            RealEstateAnalyticsDao.markChanged(session, selectedGroups(session, selection));
+            return bulkUpdate(session, selection, (update, root) -> {
+                Path<Double> price = root.get("price");
+                update.set(price, session.getCriteriaBuilder().prod(price, factor));
+            });
+        });
+    }
+
+    private int delete(Session session, RealEstateSelection selection) {
+        RealEstateAnalyticsDao.markChanged(session, selectedGroups(session, selection));
+        HibernateCriteriaBuilder cb = session.getCriteriaBuilder();
+        int deletedRows = 0;
+        for (RealEstateSelection part : selection.partition(MAX_IDS_PER_STATEMENT)) {
+            // The deletion records are selected from the rows before they are gone
+            JpaCriteriaQuery<Tuple> deletions = cb.createTupleQuery();
+            Root<RealEstate> deletedRoot = deletions.from(RealEstate.class);
+            deletions.multiselect(deletedRoot.get("id"))
+                    .where(selectionPredicates(cb, deletedRoot, part));
+            JpaCriteriaInsertSelect<RealEstateDeletion> recordDeletions =
+                    cb.createCriteriaInsertSelect(RealEstateDeletion.class);
+            recordDeletions.setInsertionTargetPaths(recordDeletions.getTarget().get("realEstateId"));
+            recordDeletions.select(deletions);
+            session.createMutationQuery(recordDeletions).executeUpdate();
+
+            CriteriaDelete<RealEstate> delete = cb.createCriteriaDelete(RealEstate.class);
+            Root<RealEstate> root = delete.from(RealEstate.class);
+            delete.where(selectionPredicates(cb, root, part));
+            deletedRows += session.createMutationQuery(delete).executeUpdate();
+        }
+        PersistenceMetrics.addRows(deletedRows);
+        return deletedRows;
+    }
+
+    /**
+     * Runs an UPDATE of the selected rows, one per part of the selection.
+     * The statement also moves
+     * their version on, which Hibernate only does for entities it writes
+     * itself, so that open edits of the rows see a conflict; the database
+     * moves their update time on, so that other clients poll the change.
+     */
+    private int bulkUpdate(Session session, RealEstateSelection selection,
+                           BiConsumer<CriteriaUpdate<RealEstate>, Root<RealEstate>> assignments) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        int updatedRows = 0;
+        for (RealEstateSelection part : selection.partition(MAX_IDS_PER_STATEMENT)) {
+            CriteriaUpdate<RealEstate> update = cb.createCriteriaUpdate(RealEstate.class);
+            Root<RealEstate> root = update.from(RealEstate.class);
+            assignments.accept(update, root);
+            Path<Long> version = root.get("version");
+            update.set(version, cb.sum(version, 1L))
+                    .where(selectionPredicates(cb, root, part));
+            updatedRows += session.createMutationQuery(update).executeUpdate();
+        }
+        PersistenceMetrics.addRows(updatedRows);
+        return updatedRows;
+    }
+
+    /**
+     * Reads the summary groups the selected rows belong to, as one query for
+     * the distinct group columns rather than the rows.
+     */
+    private Map<Dimension, Set<String>> selectedGroups(Session session, RealEstateSelection selection) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        Dimension[] dimensions = Dimension.values();
+        Map<Dimension, Set<String>> groups = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : dimensions) {
+            groups.put(dimension, new LinkedHashSet<>());
+        }
+        for (RealEstateSelection part : selection.partition(MAX_IDS_PER_STATEMENT)) {
+            CriteriaQuery<Tuple> query = cb.createTupleQuery();
+            Root<RealEstate> root = query.from(RealEstate.class);
+            query.multiselect(Arrays.stream(dimensions).<Selection<?>>map(d -> root.get(d.getAttribute())).toList())
+                    .distinct(true)
+                    .where(selectionPredicates(cb, root, part));
+            for (Tuple tuple : session.createSelectionQuery(query).list()) {
+                for (int i = 0; i < dimensions.length; i++) {
+                    groups.get(dimensions[i]).add(String.valueOf(tuple.get(i)));
+                }
+            }
+        }
+        return groups;
+    }
+
+    private Predicate[] selectionPredicates(CriteriaBuilder cb, Root<RealEstate> root, RealEstateSelection selection) {
+        List<Predicate> predicates = filterPredicates(cb, root, selection.filter());
+        if (selection.ids() != null) {
+            predicates.add(root.get("id").in(selection.ids()));
+        }
+        if (selection.notChangedAfter() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("updatedAt"), selection.notChangedAfter()));
+        }
+        return predicates.toArray(Predicate[]::new);
     }
 
     /**
@@ -83,59 +482,414 @@ public class RealEstateDao {
      * @return a list of RealEstate entities
      */
     public List<RealEstate> getAllRealEstates() {
-        try (Session currentSession = HibernateUtil.getSession()) {
-            return currentSession.createQuery("from RealEstate", RealEstate.class).list();
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getAllRealEstates");
+        try (Session currentSession = HibernateUtil.getReadSession()) {
+            return PersistenceMetrics.rows(currentSession.createQuery("from RealEstate", RealEstate.class).list());
         } catch (Exception e) {
             logException(e);
             return null;
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Retrieves one page of RealEstate entities matching a filter.
+     * <p>
+     * Uses keyset (seek) pagination: rows are read starting right after the
+     * boundary row of the previous page, so the cost of a page does not grow
+     * with its position in the table.
+     *
+     * @param filter   the filter criteria
+     * @param sort     the sort order
+     * @param after    the last row of the previous page, or null for the first page
+     * @param pageSize the maximum number of rows to return
+     * @return the page of RealEstate entities, empty on error
+     */
+    public List<RealEstate> getRealEstatePage(RealEstateFilter filter, RealEstateSort sort,
+                                              RealEstate after, int pageSize) {
+        if (filter.unsatisfiable()) {
+            return List.of();
+        }
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getRealEstatePage");
+        try (Session currentSession = HibernateUtil.getReadSession()) {
+            CriteriaBuilder cb = currentSession.getCriteriaBuilder();
+            CriteriaQuery<RealEstate> query = cb.createQuery(RealEstate.class);
+            Root<RealEstate> root = query.from(RealEstate.class);
+            List<Predicate> predicates = filterPredicates(cb, root, filter);
+            if (after != null) {
+                predicates.add(seekPredicate(cb, root, sort, after));
+            }
+            query.select(root)
+                    .where(predicates.toArray(Predicate[]::new))
+                    .orderBy(orders(cb, root, sort));
+            // Browsing reads from the entity cache but does not fill it with every row scrolled past
+            return PersistenceMetrics.rows(currentSession.createSelectionQuery(query)
+                    .setCacheMode(CacheMode.GET)
+                    .setMaxResults(pageSize)
+                    .list());
+        } catch (Exception e) {
+            logException(e);
+            return List.of();
+        } finally {
+            operation.end();
         }
     }
 
     /**
-     * Retrieves a RealEstate entity by its name.
+     * Retrieves the row at a given position of the filtered and sorted result.
+     * <p>
+     * Used to find the keyset boundary when jumping to a page that has not been
+     * reached sequentially.
+     *
+     * @param filter the filter criteria
+     * @param sort   the sort order
+     * @param offset the zero-based position of the row
+     * @return an Optional containing the row, empty if out of range or on error
+     */
+    public Optional<RealEstate> getRealEstateAt(RealEstateFilter filter, RealEstateSort sort, int offset) {
+        if (filter.unsatisfiable()) {
+            return Optional.empty();
+        }
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getRealEstateAt");
+        try (Session currentSession = HibernateUtil.getReadSession()) {
+            CriteriaBuilder cb = currentSession.getCriteriaBuilder();
+            CriteriaQuery<RealEstate> query = cb.createQuery(RealEstate.class);
+            Root<RealEstate> root = query.from(RealEstate.class);
+            query.select(root)
+                    .where(filterPredicates(cb, root, filter).toArray(Predicate[]::new))
+                    .orderBy(orders(cb, root, sort));
+            return currentSession.createSelectionQuery(query)
+                    .setFirstResult(offset)
+                    .setMaxResults(1)
+                    .uniqueResultOptional();
+        } catch (Exception e) {
+            logException(e);
+            return Optional.empty();
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Counts the RealEstate entities matching a filter.
+     *
+     * @param filter the filter criteria
+     * @return the number of matching rows, 0 on error
+     */
+    public long countRealEstates(RealEstateFilter filter) {
+        if (filter.unsatisfiable()) {
+            return 0;
+        }
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("countRealEstates");
+        try (Session currentSession = HibernateUtil.getReadSession()) {
+            CriteriaBuilder cb = currentSession.getCriteriaBuilder();
+            CriteriaQuery<Long> query = cb.createQuery(Long.class);
+            Root<RealEstate> root = query.from(RealEstate.class);
+            query.select(cb.count(root))
+                    .where(filterPredicates(cb, root, filter).toArray(Predicate[]::new));
+            return currentSession.createSelectionQuery(query).getSingleResult();
+        } catch (Exception e) {
+            logException(e);
+            return 0;
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Reads every RealEstate entity in ID order, one keyset page at a time,
+     * so that no single query materializes the whole table.
+     *
+     * @param batchSize     the number of rows per batch
+     * @param batchConsumer receives each batch
+     */
+    public void forEachRealEstateBatch(int batchSize, Consumer<List<RealEstate>> batchConsumer) {
+        RealEstate after = null;
+        List<RealEstate> batch;
+        do {
+            batch = getRealEstatePage(RealEstateFilter.NONE, RealEstateSort.BY_ID, after, batchSize);
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+                after = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Retrieves the rows inserted, updated or deleted after a point in time.
+     * <p>
+     * Both lookups are range scans on the {@code updated_at} and
+     * {@code deleted_at} indexes. Changed rows are read past the second-level
+     * cache and replace whatever it held for them, since another client may
+     * have written them.
+     *
+     * @param since   the time after which changes are returned
+     * @param maxRows the most changed rows to return
+     * @return an Optional containing the changes, empty on error
+     */
+    public Optional<RealEstateChangeSet> getChangesSince(Instant since, int maxRows) {
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getChangesSince");
+        try (Session currentSession = HibernateUtil.getSession()) {
+            List<RealEstate> upserted = currentSession.createSelectionQuery(
+                            "from RealEstate r where r.updatedAt > :since order by r.updatedAt, r.id", RealEstate.class)
+                    .setParameter("since", since)
+                    .setCacheMode(CacheMode.REFRESH)
+                    .setMaxResults(maxRows + 1)
+                    .list();
+            List<RealEstateDeletion> deletions = currentSession.createSelectionQuery(
+                            "from RealEstateDeletion d where d.deletedAt > :since", RealEstateDeletion.class)
+                    .setParameter("since", since)
+                    .list();
+            PersistenceMetrics.addRows(upserted.size() + deletions.size());
+            Instant watermark = since;
+            for (RealEstateDeletion deletion : deletions) {
+                HibernateUtil.evictEntity(RealEstate.class, deletion.getRealEstateId());
+                if (deletion.getDeletedAt().isAfter(watermark)) {
+                    watermark = deletion.getDeletedAt();
+                }
+            }
+            if (!upserted.isEmpty() || !deletions.isEmpty()) {
+                HibernateUtil.evictQueryRegion(BY_NAME_CACHE_REGION);
+                // The caller shows these rows; a lagging replica must not reload older ones over them
+                HibernateUtil.keepReadsOnPrimary();
+            }
+            if (upserted.size() > maxRows) {
+                Instant latest = currentSession.createSelectionQuery(
+                                "select max(r.updatedAt) from RealEstate r", Instant.class)
+                        .getSingleResult();
+                if (latest.isAfter(watermark)) {
+                    watermark = latest;
+                }
+                return Optional.of(new RealEstateChangeSet(List.of(), List.of(), watermark, true));
+            }
+            if (!upserted.isEmpty() && upserted.get(upserted.size() - 1).getUpdatedAt().isAfter(watermark)) {
+                watermark = upserted.get(upserted.size() - 1).getUpdatedAt();
+            }
+            List<Integer> deletedIds = deletions.stream().map(RealEstateDeletion::getRealEstateId).toList();
+            return Optional.of(new RealEstateChangeSet(upserted, deletedIds, watermark, false));
+        } catch (Exception e) {
+            logException(e);
+            return Optional.empty();
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Removes deletion records older than a point in time.
+     *
+     * @param before the time before which records are removed
+     * @return true if successful, false otherwise
+     */
+    public boolean purgeDeletionsBefore(Instant before) {
+        return performTransaction("purgeDeletionsBefore", session -> PersistenceMetrics.addRows(session
+                .createMutationQuery("delete from RealEstateDeletion d where d.deletedAt < :before")
+                .setParameter("before", before)
+                .executeUpdate()));
+    }
+
+    /**
+     * Reads the current time of the database clock, which stamps every
+     * change, so that a point to poll changes from is not skewed by the
+     * clock of this client.
+     *
+     * @return an Optional containing the database time, empty on error
+     */
+    public Optional<Instant> getDatabaseTime() {
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getDatabaseTime");
+        try (Session currentSession = HibernateUtil.getSession()) {
+            return Optional.of(currentSession.createSelectionQuery("select instant", Instant.class).getSingleResult());
+        } catch (Exception e) {
+            logException(e);
+            return Optional.empty();
+        } finally {
+            operation.end();
+        }
+    }
+
+    /**
+     * Retrieves a RealEstate entity by its name. The result is kept in the
+     * query cache until the real_estate table is next written.
      *
      * @param name the name of the RealEstate entity
      * @return an Optional containing the RealEstate entity if found, empty otherwise
      */
     public Optional<RealEstate> getRealEstateByName(String name) {
-        try (Session currentSession = HibernateUtil.getSession()) {
+        PersistenceMetrics.Operation operation = PersistenceMetrics.begin("getRealEstateByName");
+        try (Session currentSession = HibernateUtil.getReadSession()) {
             return currentSession.createQuery("FROM RealEstate i WHERE i.realEstateName = :name", RealEstate.class)
                     .setParameter("name", name)
+                    .setCacheable(true)
+                    .setCacheRegion(BY_NAME_CACHE_REGION)
                     .uniqueResultOptional();
         } catch (Exception e) {
             logException(e);
             return Optional.empty();
+        } finally {
+            operation.end();
         }
     }
 
     /**
      * Performs a transaction with the provided action.
      *
-     * @param action the action to perform within the transaction
+     * @param operation the operation name the call and its transaction are recorded under
+     * @param action    the action to perform within the transaction
      * @return true if the transaction was successful, false otherwise
      */
-    private boolean performTransaction(TransactionConsumer action) {
-        Transaction tx = null;
+    private boolean performTransaction(String operation, TransactionConsumer action) {
+        return performTransactionWithResult(operation, session -> {
+            action.accept(session);
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Performs a transaction that produces a result. The call's latency and
+     * the transaction's duration are recorded in {@link PersistenceMetrics}.
+     *
+     * @param operation the operation name the call and its transaction are recorded under
+     * @param action    the action to perform within the transaction
+     * @return an Optional containing the action's result, empty if the transaction failed
+     */
+    private <T> Optional<T> performTransactionWithResult(String operation, TransactionFunction<T> action) {
+        PersistenceMetrics.Operation call = PersistenceMetrics.begin(operation);
         try (Session currentSession = HibernateUtil.getSession()) {
-            tx = currentSession.beginTransaction();
-            action.accept(currentSession);
-            tx.commit();
-            return true;
-        } catch (Exception e) {
-            if (tx != null && tx.isActive()) {
-                tx.rollback();
+            long txStart = System.nanoTime();
+            Transaction tx = currentSession.beginTransaction();
+            try {
+                T result = action.apply(currentSession);
+                tx.commit();
+                HibernateUtil.keepReadsOnPrimary();
+                return Optional.ofNullable(result);
+            } catch (Exception e) {
+                // Roll back while the session still holds its connection
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            } finally {
+                PersistenceMetrics.transactionFinished(txStart);
             }
+        } catch (Exception e) {
             logException(e);
-            return false;
+            return Optional.empty();
+        } finally {
+            call.end();
         }
     }
 
     /**
-     * Logs exceptions using SLF4J.
+     * Translates a filter into Criteria predicates.
+     * <p>
+     * Text criteria are compared without lower(): the MySQL column collation is
+     * already case-insensitive, and wrapping the column in a function would stop
+     * the owner index from being used. Owner is matched by prefix so it is an
+     * index range scan; price bounds are a range scan on the price index. The
+     * general text criterion is a substring match and cannot use an index. A
+     * zip area is resolved to its zip codes in memory beforehand and sent as
+     * an IN list, a set of point lookups on the zip code index.
+     *
+     * @param cb     the criteria builder
+     * @param root   the RealEstate root
+     * @param filter the filter criteria
+     * @return a mutable list of predicates
+     */
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<RealEstate> root, RealEstateFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.text() != null) {
+            String pattern = "%" + escapeLike(filter.text()) + "%";
+            predicates.add(cb.or(
+                    cb.like(root.get("owner"), pattern, LIKE_ESCAPE),
+                    cb.like(root.get("address"), pattern, LIKE_ESCAPE),
+                    cb.like(root.get("realEstateName"), pattern, LIKE_ESCAPE),
+                    cb.like(root.get("numberOfRooms").as(String.class), pattern, LIKE_ESCAPE)));
+        }
+        if (filter.owner() != null) {
+            predicates.add(cb.like(root.get("owner"), escapeLike(filter.owner()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.address() != null) {
+            predicates.add(cb.like(root.get("address"), "%" + escapeLike(filter.address()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.ge(root.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.le(root.get("price"), filter.maxPrice()));
+        }
+        if (filter.area() != null) {
+            long[] zipCodes = filter.area().zipCodes();
+            predicates.add(zipCodes.length == 0 ? cb.disjunction()
+                    : root.get("zipCode").in(Arrays.stream(zipCodes).boxed().toList()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Builds the keyset predicate selecting the rows after a boundary row.
+     * <p>
+     * For sort keys k1..kn this is the row-value comparison expanded into
+     * {@code k1 beyond v1 OR (k1 = v1 AND k2 beyond v2) OR ...}, where
+     * "beyond" is greater or less depending on each key's direction, so that
+     * mixed ascending and descending keys can seek along one index.
+     *
+     * @param cb    the criteria builder
+     * @param root  the RealEstate root
+     * @param sort  the sort order
+     * @param after the boundary row
+     * @return the seek predicate
+     */
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<RealEstate> root, RealEstateSort sort, RealEstate after) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (RealEstateSort.Key key : sort.keys()) {
+            Path<Comparable<Object>> attribute = root.get(key.field().getAttribute());
+            @SuppressWarnings("unchecked")
+            Comparable<Object> value = (Comparable<Object>) key.field().valueOf(after);
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(beyond(cb, attribute, value, key.ascending()));
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(value == null ? cb.isNull(attribute) : cb.equal(attribute, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    /**
+     * Selects the values that sort after a value in one direction. Nulls sort
+     * first in ascending order, as in MySQL.
+     */
+    private Predicate beyond(CriteriaBuilder cb, Path<Comparable<Object>> attribute, Comparable<Object> value,
+                             boolean ascending) {
+        if (value == null) {
+            return ascending ? cb.isNotNull(attribute) : cb.disjunction();
+        }
+        if (ascending) {
+            return cb.greaterThan(attribute, value);
+        }
+        return cb.or(cb.lessThan(attribute, value), cb.isNull(attribute));
+    }
+
+    private List<Order> orders(CriteriaBuilder cb, Root<RealEstate> root, RealEstateSort sort) {
+        return sort.keys().stream()
+                .map(key -> {
+                    Path<Object> attribute = root.get(key.field().getAttribute());
+                    return key.ascending() ? cb.asc(attribute) : cb.desc(attribute);
+                })
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Logs exceptions using SLF4J and counts the running call as failed.
      *
      * @param e the exception to log
      */
     private void logException(Exception e) {
+        PersistenceMetrics.failed();
         logger.error("An exception occurred: ", e);
     }
 
@@ -146,4 +900,12 @@ public class RealEstateDao {
     private interface TransactionConsumer {
         void accept(Session session) throws Exception;
     }
+
+    /**
+     * Functional interface for transaction actions that produce a result.
+     */
+    @FunctionalInterface
+    private interface TransactionFunction<T> {
+        T apply(Session session) throws Exception;
+    }
 }
@@ -0,0 +1,177 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.geo.ZipArea;
+import org.zakaria.realestatehibernatefx.geo.ZipCentroids;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.search.CaseFolding;
+
+import java.util.Locale;
+import java.util.function.BiPredicate;
+
+/**
+ * Immutable set of filter criteria for RealEstate queries.
+ * <p>
+ * Blank text criteria, null price bounds and a null zip area are ignored. A
+ * filter built from an unparseable price bound, zip code or radius matches
+ * nothing, mirroring the table's previous in-memory behaviour. Text criteria
+ * are lower-cased with the root locale and match regardless of case.
+ * <p>
+ * The price is not matched as text: the database and Java format a double
+ * differently (e.g. {@code 1.0E7}), so the same row would match in one and
+ * not in the other. The price bounds filter prices.
+ *
+ * @param text        general text matched against owner, address, name and rooms
+ * @param owner       owner name prefix
+ * @param address     address substring
+ * @param minPrice    inclusive lower price bound, or null
+ * @param maxPrice    inclusive upper price bound, or null
+ * @param area        the zip codes near a zip code, or null
+ * @param unsatisfiable true if the filter can never match a row
+ */
+public record RealEstateFilter(String text,
+                               String owner,
+                               String address,
+                               Double minPrice,
+                               Double maxPrice,
+                               ZipArea area,
+                               boolean unsatisfiable) {
+
+    /**
+     * A filter that matches every row.
+     */
+    public static final RealEstateFilter NONE = new RealEstateFilter(null, null, null, null, null, null, false);
+
+    public RealEstateFilter {
+        text = normalize(text);
+        owner = normalize(owner);
+        address = normalize(address);
+    }
+
+    /**
+     * Builds a filter from raw filter field input.
+     *
+     * @param text         general filter text
+     * @param owner        owner filter text
+     * @param address      address filter text
+     * @param minPriceText minimum price text
+     * @param maxPriceText maximum price text
+     * @return the parsed filter
+     */
+    public static RealEstateFilter of(String text, String owner, String address,
+                                      String minPriceText, String maxPriceText) {
+        return of(text, owner, address, minPriceText, maxPriceText, null, null);
+    }
+
+    /**
+     * Builds a filter from raw filter field input, including a zip code and
+     * a radius around it. The zip codes in the radius are looked up in
+     * {@link ZipCentroids}; without a radius only the zip code itself matches.
+     *
+     * @param text         general filter text
+     * @param owner        owner filter text
+     * @param address      address filter text
+     * @param minPriceText minimum price text
+     * @param maxPriceText maximum price text
+     * @param zipCodeText  zip code text
+     * @param radiusText   radius text in kilometers
+     * @return the parsed filter
+     */
+    public static RealEstateFilter of(String text, String owner, String address,
+                                      String minPriceText, String maxPriceText,
+                                      String zipCodeText, String radiusText) {
+        try {
+            return new RealEstateFilter(text, owner, address,
+                    parsePrice(minPriceText), parsePrice(maxPriceText), parseArea(zipCodeText, radiusText), false);
+        } catch (NumberFormatException e) {
+            return new RealEstateFilter(text, owner, address, null, null, null, true);
+        }
+    }
+
+    /**
+     * Checks whether this filter has no active criteria.
+     *
+     * @return true if every row matches
+     */
+    public boolean isEmpty() {
+        return !unsatisfiable && text == null && owner == null && address == null
+                && minPrice == null && maxPrice == null && area == null;
+    }
+
+    /**
+     * Checks whether this filter can only match a subset of the rows matched by
+     * another filter, so that its result can be computed from the other's.
+     *
+     * @param previous the previously applied filter
+     * @return true if this filter narrows the previous one
+     */
+    public boolean isRefinementOf(RealEstateFilter previous) {
+        if (previous == null || unsatisfiable || previous.unsatisfiable) {
+            return false;
+        }
+        return narrows(text, previous.text, String::contains)
+                && narrows(owner, previous.owner, String::startsWith)
+                && narrows(address, previous.address, String::contains)
+                && (previous.minPrice == null || (minPrice != null && minPrice >= previous.minPrice))
+                && (previous.maxPrice == null || (maxPrice != null && maxPrice <= previous.maxPrice))
+                && (previous.area == null || (area != null && area.isWithin(previous.area)));
+    }
+
+    /**
+     * Checks whether a single row matches this filter. This agrees with the
+     * database query under a case-insensitive collation, except that an
+     * accent-insensitive collation also matches text that differs in accents.
+     *
+     * @param realEstate the row
+     * @return true if the row matches
+     */
+    public boolean matches(RealEstate realEstate) {
+        if (unsatisfiable) {
+            return false;
+        }
+        if (text != null && !(CaseFolding.contains(realEstate.getOwner(), text)
+                || CaseFolding.contains(realEstate.getAddress(), text)
+                || CaseFolding.contains(realEstate.getRealEstateName(), text)
+                || String.valueOf(realEstate.getNumberOfRooms()).contains(text))) {
+            return false;
+        }
+        if (owner != null && !CaseFolding.startsWith(realEstate.getOwner(), owner)) {
+            return false;
+        }
+        if (address != null && !CaseFolding.contains(realEstate.getAddress(), address)) {
+            return false;
+        }
+        return (minPrice == null || realEstate.getPrice() >= minPrice)
+                && (maxPrice == null || realEstate.getPrice() <= maxPrice)
+                && (area == null || area.contains(realEstate.getZipCode()));
+    }
+
+    private static boolean narrows(String current, String previous, BiPredicate<String, String> refines) {
+        return previous == null || (current != null && refines.test(current, previous));
+    }
+
+    private static Double parsePrice(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    private static ZipArea parseArea(String zipCodeText, String radiusText) {
+        if (zipCodeText == null || zipCodeText.isBlank()) {
+            return null;
+        }
+        long zipCode = Long.parseLong(zipCodeText.trim());
+        double radiusKm = radiusText == null || radiusText.isBlank() ? 0 : Double.parseDouble(radiusText.trim());
+        if (!(radiusKm >= 0)) {
+            throw new NumberFormatException("Negative radius: " + radiusText);
+        }
+        return ZipCentroids.getInstance().within(zipCode, radiusKm);
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,148 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyset pager over the RealEstate rows matching a filter, in a given sort order.
+ * <p>
+ * Remembers the boundary row of every page it has served so that moving to a
+ * neighbouring page is a seek from a known key. Jumping to an unvisited page
+ * costs one extra single-row lookup to find its boundary.
+ * <p>
+ * A pager may be used from several background threads at once.
+ */
+public class RealEstatePager implements PageSource {
+
+    private final RealEstateDao realEstateDao;
+    private final RealEstateFilter filter;
+    private final RealEstateSort sort;
+    private final int pageSize;
+    private final Comparator<RealEstate> order;
+    private final Map<Integer, RealEstate> pageBoundaries = new ConcurrentHashMap<>();
+    private volatile long totalCount = -1;
+
+    /**
+     * Creates a pager for the given filter and sort order.
+     *
+     * @param realEstateDao the DAO used to run the queries
+     * @param filter        the filter criteria
+     * @param sort          the sort order
+     * @param pageSize      the number of rows per page
+     */
+    public RealEstatePager(RealEstateDao realEstateDao, RealEstateFilter filter, RealEstateSort sort, int pageSize) {
+        this.realEstateDao = realEstateDao;
+        this.filter = filter;
+        this.sort = sort;
+        this.order = sort.comparator();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the number of matching rows, counting them on first use.
+     *
+     * @return the number of matching rows
+     */
+    @Override
+    public long getTotalCount() {
+        if (totalCount < 0) {
+            totalCount = realEstateDao.countRealEstates(filter);
+        }
+        return totalCount;
+    }
+
+    /**
+     * Returns the number of pages, at least one.
+     *
+     * @return the page count
+     */
+    @Override
+    public int getPageCount() {
+        return (int) Math.max(1, (getTotalCount() + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Fetches a page of rows.
+     *
+     * @param pageIndex the zero-based page index
+     * @return the rows of the page
+     */
+    @Override
+    public List<RealEstate> getPage(int pageIndex) {
+        RealEstate after = null;
+        if (pageIndex > 0) {
+            after = pageBoundaries.get(pageIndex - 1);
+            if (after == null) {
+                after = realEstateDao.getRealEstateAt(filter, sort, pageIndex * pageSize - 1).orElse(null);
+                if (after == null) {
+                    return List.of();
+                }
+            }
+        }
+        List<RealEstate> page = realEstateDao.getRealEstatePage(filter, sort, after, pageSize);
+        if (!page.isEmpty()) {
+            pageBoundaries.put(pageIndex, page.get(page.size() - 1));
+        }
+        return page;
+    }
+
+    /**
+     * Adjusts the row count and drops the page boundaries the change moves.
+     * A boundary keeps its position if the change takes a row away before it
+     * and puts one back before it, or touches only rows after it; otherwise
+     * its page is located by offset again until it has been revisited. When
+     * the sort has a text key, whose collation the comparator cannot mirror
+     * exactly, every boundary is dropped.
+     *
+     * @param change the applied change
+     */
+    @Override
+    public void applyChange(RealEstateChange change) {
+        if (totalCount >= 0) {
+            totalCount = Math.max(0, totalCount + change.countDelta(filter));
+        }
+        RealEstate before = change.before() != null && filter.matches(change.before()) ? change.before() : null;
+        RealEstate after = change.after() != null && filter.matches(change.after()) ? change.after() : null;
+        if (before == null && after == null) {
+            return;
+        }
+        if (sort.hasTextKey()) {
+            pageBoundaries.clear();
+            return;
+        }
+        pageBoundaries.values().removeIf(boundary -> boundary.getId() == change.id()
+                || isBefore(before, boundary) != isBefore(after, boundary));
+    }
+
+    private boolean isBefore(RealEstate row, RealEstate boundary) {
+        return row != null && order.compare(row, boundary) < 0;
+    }
+
+    /**
+     * Counts the matching rows again. A recount follows changes whose earlier
+     * state is unknown, which may have moved any boundary, so the remembered
+     * boundaries are dropped too.
+     *
+     * @return the number of matching rows
+     */
+    @Override
+    public long recount() {
+        pageBoundaries.clear();
+        totalCount = realEstateDao.countRealEstates(filter);
+        return totalCount;
+    }
+
+    @Override
+    public RealEstateFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public RealEstateSort getSort() {
+        return sort;
+    }
+}
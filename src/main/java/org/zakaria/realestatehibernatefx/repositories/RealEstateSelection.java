@@ -0,0 +1,80 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The rows a bulk operation of {@link RealEstateDao} applies to: either the
+ * rows with given IDs, or every row matching a filter. Both are translated
+ * into the WHERE clause of the statement, so the rows are never loaded.
+ * <p>
+ * A selection by filter is bounded by the time the rows were shown: rows
+ * inserted or updated after it, which the user has not seen in their current
+ * state, are left alone even if they match the filter.
+ *
+ * @param filter          the filter the rows match; {@link RealEstateFilter#NONE} for a selection by ID
+ * @param ids             the IDs of the selected rows, or null for every row matching the filter
+ * @param notChangedAfter the database time the rows were shown, or null for no bound
+ */
+public record RealEstateSelection(RealEstateFilter filter, List<Integer> ids, Instant notChangedAfter) {
+
+    public RealEstateSelection {
+        if (filter == null) {
+            throw new IllegalArgumentException("A selection needs a filter");
+        }
+        ids = ids == null ? null : List.copyOf(ids);
+    }
+
+    /**
+     * Selects rows by ID.
+     *
+     * @param ids the IDs of the rows
+     * @return the selection
+     */
+    public static RealEstateSelection of(Collection<Integer> ids) {
+        return new RealEstateSelection(RealEstateFilter.NONE, List.copyOf(ids), null);
+    }
+
+    /**
+     * Selects every row matching a filter that has not changed since it was
+     * shown.
+     *
+     * @param filter  the filter criteria
+     * @param shownAt the database time the rows were shown
+     * @return the selection
+     */
+    public static RealEstateSelection matching(RealEstateFilter filter, Instant shownAt) {
+        return new RealEstateSelection(filter, null, shownAt);
+    }
+
+    /**
+     * Checks whether the selection can hold no row, so that no statement needs to run.
+     *
+     * @return true if nothing is selected
+     */
+    public boolean isEmpty() {
+        return filter.unsatisfiable() || ids != null && ids.isEmpty();
+    }
+
+    /**
+     * Splits a selection by ID into selections of at most a given number of
+     * IDs, so that no statement exceeds the 65,535 placeholders MySQL allows
+     * in a prepared statement. A selection by filter is not split.
+     *
+     * @param maxIds the most IDs per selection
+     * @return the parts of this selection
+     */
+    public List<RealEstateSelection> partition(int maxIds) {
+        if (ids == null || ids.size() <= maxIds) {
+            return List.of(this);
+        }
+        List<RealEstateSelection> parts = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += maxIds) {
+            parts.add(new RealEstateSelection(filter, ids.subList(from, Math.min(from + maxIds, ids.size())),
+                    notChangedAfter));
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,150 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sort order for paged RealEstate queries, by one or more fields, each
+ * ascending or descending. Rows are always ordered by ID after the sort
+ * fields so that every row has a unique position: the keys end with an ID
+ * key, which is appended if it is not given, and any keys after it or
+ * repeating an earlier field are dropped.
+ *
+ * @param keys the sort keys, most significant first
+ */
+public record RealEstateSort(List<Key> keys) {
+
+    /**
+     * The default order, ascending by ID.
+     */
+    public static final RealEstateSort BY_ID = new RealEstateSort(List.of());
+
+    public RealEstateSort {
+        List<Key> normalized = new ArrayList<>();
+        Set<Field> seen = EnumSet.noneOf(Field.class);
+        for (Key key : keys) {
+            if (seen.add(key.field())) {
+                normalized.add(key);
+            }
+            if (key.field() == Field.ID) {
+                break;
+            }
+        }
+        if (!seen.contains(Field.ID)) {
+            normalized.add(new Key(Field.ID, true));
+        }
+        keys = List.copyOf(normalized);
+    }
+
+    /**
+     * Creates a sort order by a single field.
+     *
+     * @param field     the field to sort by
+     * @param ascending true for ascending order
+     */
+    public RealEstateSort(Field field, boolean ascending) {
+        this(List.of(new Key(field, ascending)));
+    }
+
+    /**
+     * Returns a comparator over the sort keys. Null values sort first in
+     * ascending order, as in MySQL, and text is compared ignoring case, like
+     * the case-insensitive collation of the table. That collation ignores
+     * accents too, which this comparator does not, so text differing only in
+     * accents may be ordered differently than by the query.
+     *
+     * @return the row comparator
+     */
+    @SuppressWarnings("unchecked")
+    public Comparator<RealEstate> comparator() {
+        Comparator<RealEstate> order = null;
+        for (Key key : keys) {
+            Comparator<Comparable<Object>> values = Comparator.nullsFirst(key.field().isText()
+                    ? (Comparator<Comparable<Object>>) (Comparator<?>) String.CASE_INSENSITIVE_ORDER
+                    : Comparator.naturalOrder());
+            if (!key.ascending()) {
+                values = values.reversed();
+            }
+            Comparator<RealEstate> byKey = Comparator.comparing(
+                    (RealEstate realEstate) -> (Comparable<Object>) key.field().valueOf(realEstate), values);
+            order = order == null ? byKey : order.thenComparing(byKey);
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether a key compares text, whose database order
+     * {@link #comparator()} follows only approximately.
+     *
+     * @return true if a sort field is a text field
+     */
+    public boolean hasTextKey() {
+        return keys.stream().anyMatch(key -> key.field().isText());
+    }
+
+    /**
+     * One sort key.
+     *
+     * @param field     the field to sort by
+     * @param ascending true for ascending order
+     */
+    public record Key(Field field, boolean ascending) {
+    }
+
+    /**
+     * Sortable RealEstate fields.
+     */
+    public enum Field {
+        ID("id", false, RealEstate::getId),
+        OWNER("owner", true, RealEstate::getOwner),
+        NAME("realEstateName", true, RealEstate::getRealEstateName),
+        ADDRESS("address", true, RealEstate::getAddress),
+        ZIP_CODE("zipCode", false, RealEstate::getZipCode),
+        ROOMS("numberOfRooms", false, RealEstate::getNumberOfRooms),
+        PRICE("price", false, RealEstate::getPrice);
+
+        private final String attribute;
+        private final boolean text;
+        private final Function<RealEstate, Object> accessor;
+
+        Field(String attribute, boolean text, Function<RealEstate, Object> accessor) {
+            this.attribute = attribute;
+            this.text = text;
+            this.accessor = accessor;
+        }
+
+        /**
+         * Returns the entity attribute name used in queries.
+         *
+         * @return the attribute name
+         */
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * Checks whether this is a text field, ordered by the collation of its column.
+         *
+         * @return true for text fields
+         */
+        public boolean isText() {
+            return text;
+        }
+
+        /**
+         * Reads this field from an entity.
+         *
+         * @param realEstate the entity
+         * @return the field value
+         */
+        public Object valueOf(RealEstate realEstate) {
+            return accessor.apply(realEstate);
+        }
+    }
+}
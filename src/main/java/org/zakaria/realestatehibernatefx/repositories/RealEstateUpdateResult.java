@@ -0,0 +1,52 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+/**
+ * Outcome of {@link RealEstateDao#updateRealEstate(RealEstate)}.
+ *
+ * @param outcome what happened to the update
+ * @param current the row as stored after the update, or the concurrently
+ *                changed row on a conflict; null if deleted or failed
+ */
+public record RealEstateUpdateResult(Outcome outcome, RealEstate current) {
+
+    /**
+     * Possible outcomes of an update.
+     */
+    public enum Outcome {
+        /** The update was written. */
+        UPDATED,
+        /** The row was changed by someone else since it was read; nothing was written. */
+        CONFLICT,
+        /** The row was deleted by someone else; nothing was written. */
+        DELETED,
+        /** The update failed for another reason, which has been logged. */
+        FAILED
+    }
+
+    public static RealEstateUpdateResult updated(RealEstate current) {
+        return new RealEstateUpdateResult(Outcome.UPDATED, current);
+    }
+
+    public static RealEstateUpdateResult conflict(RealEstate current) {
+        return new RealEstateUpdateResult(Outcome.CONFLICT, current);
+    }
+
+    public static RealEstateUpdateResult deleted() {
+        return new RealEstateUpdateResult(Outcome.DELETED, null);
+    }
+
+    public static RealEstateUpdateResult failed() {
+        return new RealEstateUpdateResult(Outcome.FAILED, null);
+    }
+
+    /**
+     * Checks whether the update was written.
+     *
+     * @return true if the outcome is {@link Outcome#UPDATED}
+     */
+    public boolean isUpdated() {
+        return outcome == Outcome.UPDATED;
+    }
+}
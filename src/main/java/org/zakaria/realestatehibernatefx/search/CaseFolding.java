@@ -0,0 +1,100 @@
+package org.zakaria.realestatehibernatefx.search;
+
+import java.util.Locale;
+
+/**
+ * Case-insensitive text comparison with the semantics of
+ * {@link String#toLowerCase(Locale) toLowerCase(Locale.ROOT)}, so that the
+ * result does not depend on the default locale (in Turkish, "I" does not
+ * lower-case to "i").
+ * <p>
+ * Outside of a few characters, lower-casing a string with the root locale
+ * lower-cases each {@code char} on its own, so most values are compared one
+ * character at a time without creating a lower-case copy. Values holding one
+ * of the exceptions, whose lower case depends on their context or has another
+ * length, are lower-cased as a whole.
+ */
+public final class CaseFolding {
+
+    private static final char CAPITAL_I_WITH_DOT = 'İ';
+    private static final char CAPITAL_SIGMA = 'Σ';
+
+    private CaseFolding() {
+    }
+
+    /**
+     * Lower-cases a value with the root locale.
+     *
+     * @param value the value
+     * @return the lower-case value
+     */
+    public static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether the lower case of a value contains a needle.
+     *
+     * @param value  the value, may be null
+     * @param needle the lower-case needle, see {@link #fold(String)}
+     * @return true if the value contains the needle, ignoring case
+     */
+    public static boolean contains(String value, String needle) {
+        if (value == null) {
+            return false;
+        }
+        if (!foldsPerChar(value)) {
+            return fold(value).contains(needle);
+        }
+        int last = value.length() - needle.length();
+        for (int i = 0; i <= last; i++) {
+            if (regionMatches(value, i, needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the lower case of a value starts with a prefix.
+     *
+     * @param value  the value, may be null
+     * @param prefix the lower-case prefix, see {@link #fold(String)}
+     * @return true if the value starts with the prefix, ignoring case
+     */
+    public static boolean startsWith(String value, String prefix) {
+        if (value == null) {
+            return false;
+        }
+        if (!foldsPerChar(value)) {
+            return fold(value).startsWith(prefix);
+        }
+        return value.length() >= prefix.length() && regionMatches(value, 0, prefix);
+    }
+
+    /**
+     * Checks whether lower-casing a value with the root locale lower-cases
+     * each {@code char} on its own.
+     *
+     * @param value the value
+     * @return false if the value must be lower-cased as a whole
+     */
+    public static boolean foldsPerChar(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == CAPITAL_I_WITH_DOT || c == CAPITAL_SIGMA || Character.isSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(String value, int offset, String needle) {
+        for (int j = 0; j < needle.length(); j++) {
+            if (Character.toLowerCase(value.charAt(offset + j)) != needle.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,245 @@
+package org.zakaria.realestatehibernatefx.search;
+
+import java.util.Arrays;
+
+/**
+ * Inverted trigram index answering case-insensitive substring queries over rows
+ * of text fields.
+ * <p>
+ * Every field of a row is split into overlapping three-character grams, and each
+ * gram keeps a sorted posting list of the rows containing it. A substring query
+ * intersects the posting lists of its own grams, starting from the shortest,
+ * which yields a small superset of the matching rows; the caller verifies those
+ * candidates against the real predicate. Grams never span two fields, and are
+ * lower-cased like {@link CaseFolding} lower-cases text.
+ * <p>
+ * Grams are packed into a {@code long} and looked up in an open-addressing
+ * table, so neither building nor querying boxes keys. The index is not
+ * thread-safe; callers provide their own locking.
+ */
+public class TrigramIndex {
+
+    /**
+     * Queries shorter than this have no grams and cannot use the index.
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private long[] keys = new long[1 << 12];
+    private int[] slots = new int[1 << 12];
+    private int keyCount;
+
+    private int[][] postings = new int[1 << 10][];
+    private int[] postingSizes = new int[1 << 10];
+
+    /**
+     * Indexes the fields of a row. Rows are cheapest to add in ascending order.
+     *
+     * @param row    the row number
+     * @param fields the text fields of the row, nulls are skipped
+     */
+    public void add(int row, String... fields) {
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            String text = foldedForGrams(field);
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                insert(postingFor(gram(text, i), true), row);
+            }
+        }
+    }
+
+    /**
+     * Removes a row from the index.
+     *
+     * @param row    the row number
+     * @param fields the text fields the row was indexed with
+     */
+    public void remove(int row, String... fields) {
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            String text = foldedForGrams(field);
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                int posting = postingFor(gram(text, i), false);
+                if (posting >= 0) {
+                    delete(posting, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the rows that contain every gram of a needle, in ascending order.
+     *
+     * @param needle the lower-case substring to look for
+     * @return candidate rows, or null if the needle is too short to use the index
+     */
+    public int[] candidates(String needle) {
+        int gramCount = needle.length() - GRAM_LENGTH + 1;
+        if (gramCount < 1) {
+            return null;
+        }
+        int[] lists = new int[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            int posting = postingFor(gram(needle, i), false);
+            if (posting < 0) {
+                return NO_ROWS;
+            }
+            lists[i] = posting;
+        }
+        int shortest = 0;
+        for (int i = 1; i < gramCount; i++) {
+            if (postingSizes[lists[i]] < postingSizes[lists[shortest]]) {
+                shortest = i;
+            }
+        }
+        int[] result = Arrays.copyOf(postings[lists[shortest]], postingSizes[lists[shortest]]);
+        int size = result.length;
+        for (int i = 0; i < gramCount && size > 0; i++) {
+            if (i != shortest) {
+                size = retainAll(result, size, postings[lists[i]], postingSizes[lists[i]]);
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the number of distinct grams in the index.
+     *
+     * @return the gram count
+     */
+    public int gramCount() {
+        return keyCount;
+    }
+
+    /**
+     * Removes every row from the index.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(postings, null);
+        Arrays.fill(postingSizes, 0);
+        keyCount = 0;
+    }
+
+    /**
+     * Keeps the rows of {@code rows[0..size)} that also occur in a posting list.
+     * Both inputs are sorted; each lookup gallops forward from the previous hit.
+     */
+    private static int retainAll(int[] rows, int size, int[] posting, int postingSize) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < size && from < postingSize; i++) {
+            int found = Arrays.binarySearch(posting, from, postingSize, rows[i]);
+            if (found >= 0) {
+                rows[kept++] = rows[i];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Returns a field as text whose grams {@link #gram(String, int)} lower-cases
+     * one character at a time; only the few values that cannot be lower-cased
+     * that way are copied.
+     */
+    private static String foldedForGrams(String field) {
+        return CaseFolding.foldsPerChar(field) ? field : CaseFolding.fold(field);
+    }
+
+    private static long gram(String text, int offset) {
+        return ((long) Character.toLowerCase(text.charAt(offset)) << 32)
+                | ((long) Character.toLowerCase(text.charAt(offset + 1)) << 16)
+                | Character.toLowerCase(text.charAt(offset + 2));
+    }
+
+    /**
+     * Finds the posting list of a gram.
+     *
+     * @param key    the packed gram
+     * @param create whether to create a missing posting list
+     * @return the posting list number, or -1 if absent and not created
+     */
+    private int postingFor(long key, boolean create) {
+        int mask = keys.length - 1;
+        int index = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (slots[index] != 0) {
+            if (keys[index] == key) {
+                return slots[index] - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        int posting = keyCount++;
+        keys[index] = key;
+        slots[index] = posting + 1;
+        if (posting == postings.length) {
+            postings = Arrays.copyOf(postings, posting * 2);
+            postingSizes = Arrays.copyOf(postingSizes, posting * 2);
+        }
+        postings[posting] = new int[4];
+        if (keyCount * 2 > keys.length) {
+            rehash();
+        }
+        return posting;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldSlots.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != 0) {
+                int index = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+                while (slots[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                slots[index] = oldSlots[i];
+            }
+        }
+    }
+
+    private void insert(int posting, int row) {
+        int[] rows = postings[posting];
+        int size = postingSizes[posting];
+        int position;
+        if (size == 0 || rows[size - 1] < row) {
+            position = size;
+        } else {
+            int found = Arrays.binarySearch(rows, 0, size, row);
+            if (found >= 0) {
+                return;
+            }
+            position = -found - 1;
+        }
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+            postings[posting] = rows;
+        }
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        rows[position] = row;
+        postingSizes[posting] = size + 1;
+    }
+
+    private void delete(int posting, int row) {
+        int[] rows = postings[posting];
+        int size = postingSizes[posting];
+        int found = Arrays.binarySearch(rows, 0, size, row);
+        if (found >= 0) {
+            System.arraycopy(rows, found + 1, rows, found, size - found - 1);
+            postingSizes[posting] = size - 1;
+        }
+    }
+}
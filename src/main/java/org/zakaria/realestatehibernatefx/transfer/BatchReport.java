@@ -0,0 +1,21 @@
+package org.zakaria.realestatehibernatefx.transfer;
+
+/**
+ * Throughput of one batch of an import or export.
+ *
+ * @param batch    the one-based batch number
+ * @param rows     the rows written in this batch
+ * @param rejected the rows rejected in this batch
+ * @param nanos    the elapsed time of this batch
+ */
+public record BatchReport(int batch, int rows, int rejected, long nanos) {
+
+    /**
+     * Returns the throughput of this batch.
+     *
+     * @return rows written per second
+     */
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+}
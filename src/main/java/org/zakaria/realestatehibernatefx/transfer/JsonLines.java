@@ -0,0 +1,156 @@
+package org.zakaria.realestatehibernatefx.transfer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal reader and writer for flat JSON objects, one per line.
+ * <p>
+ * Nested objects and arrays are not supported; RealEstate records do not need them.
+ */
+final class JsonLines {
+
+    private JsonLines() {
+    }
+
+    /**
+     * Parses a flat JSON object into raw values keyed by member name.
+     * Strings are unescaped, numbers and literals are returned as written, and
+     * null becomes a missing value.
+     *
+     * @param line the JSON object
+     * @return the member values
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    static Map<String, String> parseObject(String line) {
+        Map<String, String> values = new HashMap<>();
+        Cursor cursor = new Cursor(line);
+        cursor.expect('{');
+        if (cursor.peek() == '}') {
+            return values;
+        }
+        do {
+            String name = cursor.readString();
+            cursor.expect(':');
+            String value = cursor.peek() == '"' ? cursor.readString() : cursor.readLiteral();
+            if (!"null".equals(value) || cursor.lastWasString) {
+                values.put(name, value);
+            }
+        } while (cursor.consume(','));
+        cursor.expect('}');
+        return values;
+    }
+
+    /**
+     * Writes a string as a JSON string literal, or null.
+     *
+     * @param value the string
+     * @return the JSON literal
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static final class Cursor {
+        private final String text;
+        private int position;
+        private boolean lastWasString;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON object");
+            }
+            return text.charAt(position);
+        }
+
+        boolean consume(char expected) {
+            if (peek() == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char expected) {
+            if (!consume(expected)) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at position " + position);
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    lastWasString = true;
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case 'n' -> value.append('\n');
+                        case 'r' -> value.append('\r');
+                        case 't' -> value.append('\t');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        default -> value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated JSON string");
+        }
+
+        String readLiteral() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && ",}".indexOf(text.charAt(position)) < 0
+                    && !Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw new IllegalArgumentException("Expected a value at position " + position);
+            }
+            lastWasString = false;
+            return text.substring(start, position);
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.zakaria.realestatehibernatefx.transfer;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateAnalyticsDao;
+import org.zakaria.realestatehibernatefx.utility.EntityValidator;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming importer for RealEstate records.
+ * <p>
+ * Records are read one line at a time, validated against the entity's
+ * jakarta.validation constraints, and written in batches: each batch is
+ * persisted in its own session and transaction and reaches the database as a
+ * single JDBC batch, so memory use does not depend on the file size. IDs come
+ * from the pooled ID sequence, which is what lets Hibernate batch the inserts;
+ * with {@code rewriteBatchedStatements=true} on the connection URL the MySQL
+ * driver sends each batch as a single multi-row INSERT.
+ * <p>
+ * If a batch is refused by the database (for example a duplicate name), it is
+ * rolled back and retried row by row so that only the offending rows are rejected.
+ */
+public class RealEstateImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealEstateImporter.class);
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final int batchSize;
+
+    /**
+     * Creates an importer that writes batches of the given size.
+     *
+     * @param batchSize the number of rows per batch
+     */
+    public RealEstateImporter(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every record of a file.
+     *
+     * @param file     the file to read
+     * @param format   the file format
+     * @param progress receives a report after every batch
+     * @return the import summary
+     * @throws IOException if the file cannot be read
+     */
+    public TransferReport importFrom(Path file, TransferFormat format, Consumer<BatchReport> progress) throws IOException {
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        List<RealEstate> batch = new ArrayList<>(batchSize);
+        long written = 0;
+        long rejected = 0;
+        int batches = 0;
+        int batchRejected = 0;
+        long batchStart = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> header = null;
+            long lineNumber = 0;
+            if (format.header() != null) {
+                String headerLine = reader.readLine();
+                header = headerLine == null ? List.of() : format.parseHeader(headerLine);
+                lineNumber++;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    RealEstate realEstate = toEntity(format.parse(line, header));
+                    EntityValidator.validate(realEstate);
+                    batch.add(realEstate);
+                } catch (RuntimeException e) {
+                    rejected++;
+                    batchRejected++;
+                    addError(errors, "Line " + lineNumber + ": " + e.getMessage());
+                }
+
+                if (batch.size() == batchSize) {
+                    int failed = writeBatch(batch, errors);
+                    batches++;
+                    written += batch.size() - failed;
+                    rejected += failed;
+                    report(progress, batches, batch.size() - failed, batchRejected + failed, batchStart);
+                    batch.clear();
+                    batchRejected = 0;
+                    batchStart = System.nanoTime();
+                }
+            }
+        }
+        if (!batch.isEmpty() || batchRejected > 0) {
+            int failed = writeBatch(batch, errors);
+            batches++;
+            written += batch.size() - failed;
+            rejected += failed;
+            report(progress, batches, batch.size() - failed, batchRejected + failed, batchStart);
+        }
+
+        TransferReport summary = new TransferReport(written, rejected, batches, System.nanoTime() - start, errors);
+        logger.info("Imported {} rows ({} rejected) from {} in {} batches, {} rows/s",
+                written, rejected, file, batches, Math.round(summary.rowsPerSecond()));
+        return summary;
+    }
+
+    /**
+     * Writes a batch in one transaction, falling back to row-by-row inserts if it is refused.
+     *
+     * @param batch  the rows to insert
+     * @param errors collects rejection messages
+     * @return the number of rows rejected by the database
+     */
+    private int writeBatch(List<RealEstate> batch, List<String> errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try (Session session = HibernateUtil.getSession()) {
+            // Skip the second-level cache; nobody has looked these rows up yet
+            session.setCacheMode(CacheMode.IGNORE);
+            session.setJdbcBatchSize(batch.size());
+            Transaction tx = session.beginTransaction();
+            try {
+                batch.forEach(session::persist);
+                RealEstateAnalyticsDao.markChanged(session, batch);
+                tx.commit();
+                HibernateUtil.keepReadsOnPrimary();
+                return 0;
+            } catch (ConstraintViolationException e) {
+                tx.rollback();
+                logger.warn("Batch refused by the database, retrying row by row: {}", e.getMessage());
+            }
+        }
+        int failed = 0;
+        for (RealEstate realEstate : batch) {
+            // The failed batch assigned IDs; a new row must not carry one
+            realEstate.setId(0);
+            try (Session session = HibernateUtil.getSession()) {
+                session.setCacheMode(CacheMode.IGNORE);
+                Transaction tx = session.beginTransaction();
+                try {
+                    session.persist(realEstate);
+                    RealEstateAnalyticsDao.markChanged(session, List.of(realEstate));
+                    tx.commit();
+                    HibernateUtil.keepReadsOnPrimary();
+                } catch (ConstraintViolationException e) {
+                    tx.rollback();
+                    failed++;
+                    addError(errors, realEstate.getRealEstateName() + ": " + e.getErrorMessage());
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static RealEstate toEntity(Map<String, String> record) {
+        RealEstate realEstate = new RealEstate();
+        realEstate.setRealEstateName(text(record, "realEstateName"));
+        realEstate.setOwner(text(record, "owner"));
+        realEstate.setAddress(text(record, "address"));
+        realEstate.setZipCode(Long.parseLong(number(record, "zipCode")));
+        realEstate.setPrice(Double.parseDouble(number(record, "price")));
+        realEstate.setNumberOfRooms(Integer.parseInt(number(record, "numberOfRooms")));
+        return realEstate;
+    }
+
+    private static String text(Map<String, String> record, String field) {
+        String value = record.get(field);
+        return value == null ? null : value.trim();
+    }
+
+    private static String number(Map<String, String> record, String field) {
+        String value = text(record, field);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        return value;
+    }
+
+    private static void addError(List<String> errors, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(message);
+        }
+        logger.debug("Rejected record: {}", message);
+    }
+
+    private static void report(Consumer<BatchReport> progress, int batch, int rows, int rejected, long batchStart) {
+        BatchReport report = new BatchReport(batch, rows, rejected, System.nanoTime() - batchStart);
+        logger.info("Import batch {}: {} rows, {} rejected, {} rows/s",
+                batch, rows, rejected, Math.round(report.rowsPerSecond()));
+        progress.accept(report);
+    }
+}
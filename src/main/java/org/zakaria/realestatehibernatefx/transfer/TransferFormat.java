@@ -0,0 +1,168 @@
+package org.zakaria.realestatehibernatefx.transfer;
+
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Line-oriented file formats for importing and exporting RealEstate records.
+ * <p>
+ * Both formats hold exactly one record per line so that files can be streamed
+ * without reading them whole. Field names are those of the RealEstate entity.
+ */
+public enum TransferFormat {
+
+    /**
+     * Comma-separated values with a header line. Fields may be quoted with
+     * double quotes; a quote inside a quoted field is doubled.
+     */
+    CSV {
+        @Override
+        public String header() {
+            return String.join(",", FIELDS);
+        }
+
+        @Override
+        public Map<String, String> parse(String line, List<String> header) {
+            List<String> values = splitCsv(line);
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                record.put(header.get(i), values.get(i));
+            }
+            return record;
+        }
+
+        @Override
+        public List<String> parseHeader(String line) {
+            return splitCsv(line).stream().map(String::trim).toList();
+        }
+
+        @Override
+        public String format(RealEstate realEstate) {
+            return realEstate.getId() + "," + quoteCsv(realEstate.getRealEstateName()) + ","
+                    + quoteCsv(realEstate.getOwner()) + "," + quoteCsv(realEstate.getAddress()) + ","
+                    + realEstate.getZipCode() + "," + realEstate.getPrice() + "," + realEstate.getNumberOfRooms();
+        }
+    },
+
+    /**
+     * JSON Lines: one flat JSON object per line, no header.
+     */
+    JSON_LINES {
+        @Override
+        public String header() {
+            return null;
+        }
+
+        @Override
+        public Map<String, String> parse(String line, List<String> header) {
+            return JsonLines.parseObject(line);
+        }
+
+        @Override
+        public List<String> parseHeader(String line) {
+            return null;
+        }
+
+        @Override
+        public String format(RealEstate realEstate) {
+            return "{\"id\":" + realEstate.getId()
+                    + ",\"realEstateName\":" + JsonLines.quote(realEstate.getRealEstateName())
+                    + ",\"owner\":" + JsonLines.quote(realEstate.getOwner())
+                    + ",\"address\":" + JsonLines.quote(realEstate.getAddress())
+                    + ",\"zipCode\":" + realEstate.getZipCode()
+                    + ",\"price\":" + realEstate.getPrice()
+                    + ",\"numberOfRooms\":" + realEstate.getNumberOfRooms() + "}";
+        }
+    };
+
+    /**
+     * Exported fields, in CSV column order.
+     */
+    static final List<String> FIELDS = List.of("id", "realEstateName", "owner", "address", "zipCode", "price", "numberOfRooms");
+
+    /**
+     * Returns the header line written before the records, or null if the format has none.
+     *
+     * @return the header line
+     */
+    public abstract String header();
+
+    /**
+     * Parses the header line, or returns null if the format has none.
+     *
+     * @param line the first line of the file
+     * @return the field names in column order
+     */
+    public abstract List<String> parseHeader(String line);
+
+    /**
+     * Parses one record line into raw field values keyed by field name.
+     *
+     * @param line   the record line
+     * @param header the field names from {@link #parseHeader(String)}, or null
+     * @return the raw field values
+     */
+    public abstract Map<String, String> parse(String line, List<String> header);
+
+    /**
+     * Formats a RealEstate entity as one record line.
+     *
+     * @param realEstate the entity
+     * @return the record line, without line terminator
+     */
+    public abstract String format(RealEstate realEstate);
+
+    /**
+     * Picks the format from a file name extension: .csv for CSV, anything else for JSON Lines.
+     *
+     * @param file the file
+     * @return the matching format
+     */
+    public static TransferFormat forPath(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSON_LINES;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String quoteCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
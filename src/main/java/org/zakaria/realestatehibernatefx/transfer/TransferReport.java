@@ -0,0 +1,24 @@
+package org.zakaria.realestatehibernatefx.transfer;
+
+import java.util.List;
+
+/**
+ * Summary of a completed import or export.
+ *
+ * @param rows     the rows written
+ * @param rejected the rows rejected by parsing, validation or the database
+ * @param batches  the number of batches
+ * @param nanos    the total elapsed time
+ * @param errors   the first few rejection messages
+ */
+public record TransferReport(long rows, long rejected, int batches, long nanos, List<String> errors) {
+
+    /**
+     * Returns the overall throughput.
+     *
+     * @return rows written per second
+     */
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,44 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+/**
+ * Hit and miss counts of the RealEstate second-level and query caches since startup.
+ *
+ * @param entityHits   lookups by ID answered from the entity cache
+ * @param entityMisses lookups by ID that went to the database
+ * @param entityPuts   entities stored in the entity cache
+ * @param queryHits    cacheable queries answered from the query cache
+ * @param queryMisses  cacheable queries that went to the database
+ * @param queryPuts    query results stored in the query cache
+ */
+public record CacheStatistics(long entityHits, long entityMisses, long entityPuts,
+                              long queryHits, long queryMisses, long queryPuts) {
+
+    /**
+     * Returns the share of entity lookups answered from the cache.
+     *
+     * @return the entity cache hit ratio between 0 and 1
+     */
+    public double entityHitRatio() {
+        return ratio(entityHits, entityMisses);
+    }
+
+    /**
+     * Returns the share of cacheable queries answered from the cache.
+     *
+     * @return the query cache hit ratio between 0 and 1
+     */
+    public double queryHitRatio() {
+        return ratio(queryHits, queryMisses);
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : hits / (double) (hits + misses);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entity hits=%d misses=%d puts=%d (%.0f%%), query hits=%d misses=%d puts=%d (%.0f%%)",
+                entityHits, entityMisses, entityPuts, entityHitRatio() * 100,
+                queryHits, queryMisses, queryPuts, queryHitRatio() * 100);
+    }
+}
@@ -0,0 +1,91 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.zakaria.realestatehibernatefx.cache.InProcessRegionFactory;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Database settings that can be tuned per deployment without rebuilding.
+ * <p>
+ * Each setting is resolved, in order, from the system property
+ * {@code realestate.db.<key>} (e.g. {@code -Drealestate.db.pool.maxSize=20}),
+ * the environment variable {@code REALESTATE_DB_<KEY>} (e.g.
+ * {@code REALESTATE_DB_POOL_MAXSIZE=20}), the hibernate.cfg.xml property, and
+ * finally the built-in default.
+ */
+public enum DatabaseSetting {
+
+    URL("url", "hibernate.connection.url", null),
+    USERNAME("username", "hibernate.connection.username", null),
+    PASSWORD("password", "hibernate.connection.password", null),
+    DRIVER("driver", "hibernate.connection.driver_class", null),
+    POOL_MAX_SIZE("pool.maxSize", "hibernate.hikari.maximumPoolSize", "10"),
+    POOL_MIN_IDLE("pool.minIdle", "hibernate.hikari.minimumIdle", "2"),
+    POOL_CONNECTION_TIMEOUT_MILLIS("pool.connectionTimeoutMillis", "hibernate.hikari.connectionTimeout", "30000"),
+    STATEMENT_CACHE_SIZE("statementCache.size", "hibernate.hikari.dataSource.prepStmtCacheSize", "250"),
+    // Unset by default: with useCursorFetch, a fetch size makes every query open a server-side cursor
+    FETCH_SIZE("fetchSize", "hibernate.jdbc.fetch_size", null),
+    BATCH_SIZE("batchSize", "hibernate.jdbc.batch_size", "500"),
+    CACHE_MAX_ENTRIES("cache.maxEntries", InProcessRegionFactory.MAX_ENTRIES, "10000"),
+    CACHE_TTL_SECONDS("cache.ttlSeconds", InProcessRegionFactory.TTL_SECONDS, "600"),
+    // Comma-separated JDBC URLs of read replicas, reached with the primary's credentials
+    REPLICA_URLS("replica.urls", "hibernate.connection.replica_urls", null),
+    // How long reads stay on the primary after a local write, to outlast the replication lag
+    REPLICA_READ_YOUR_WRITES_MILLIS("replica.readYourWritesMillis",
+            "hibernate.connection.replica_read_your_writes_millis", "5000"),
+    // Schema management is opt-in: none, validate, update or create
+    SCHEMA_ACTION("schema.action", "hibernate.hbm2ddl.auto", "none");
+
+    private final String key;
+    private final String hibernateProperty;
+    private final String defaultValue;
+
+    DatabaseSetting(String key, String hibernateProperty, String defaultValue) {
+        this.key = key;
+        this.hibernateProperty = hibernateProperty;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Returns the hibernate.cfg.xml property that supplies the configured value.
+     *
+     * @return the property name
+     */
+    public String getHibernateProperty() {
+        return hibernateProperty;
+    }
+
+    /**
+     * Resolves the setting.
+     *
+     * @param configuration the properties loaded from hibernate.cfg.xml
+     * @return the value, or null if the setting is not set anywhere
+     */
+    public String resolve(Properties configuration) {
+        String value = System.getProperty("realestate.db." + key);
+        if (value == null) {
+            value = System.getenv("REALESTATE_DB_" + key.replace('.', '_').toUpperCase(Locale.ROOT));
+        }
+        if (value == null) {
+            value = configuration.getProperty(hibernateProperty);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
+    /**
+     * Resolves a numeric setting.
+     *
+     * @param configuration the properties loaded from hibernate.cfg.xml
+     * @return the value
+     * @throws IllegalStateException if the value is not a number
+     */
+    public int resolveInt(Properties configuration) {
+        String value = resolve(configuration);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Database setting " + key + " must be a number, was: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks entities against their jakarta.validation constraints.
+ * <p>
+ * Automatic Bean Validation on flush is turned off in hibernate.cfg.xml, so
+ * every path that writes entities (the DAO and the importer) validates them
+ * with this class first.
+ */
+public final class EntityValidator {
+
+    private EntityValidator() {
+    }
+
+    /**
+     * Checks an entity against its constraints.
+     *
+     * @param entity the entity
+     * @throws IllegalArgumentException with the messages of the violated constraints
+     */
+    public static void validate(Object entity) {
+        Set<ConstraintViolation<Object>> violations = ValidatorHolder.VALIDATOR.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Lazily built validator. Parameter interpolation keeps constraint messages
+     * working without an Expression Language implementation on the module path.
+     */
+    private static final class ValidatorHolder {
+        static final Validator VALIDATOR = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+    }
+}
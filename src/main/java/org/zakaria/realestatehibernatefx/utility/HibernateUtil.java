@@ -1,28 +1,311 @@
 package org.zakaria.realestatehibernatefx.utility;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.zakaria.realestatehibernatefx.cache.InProcessRegionFactory;
 import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.model.RealEstateDeletion;
+import org.zakaria.realestatehibernatefx.model.RealEstatePriceSummary;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class for managing Hibernate SessionFactory and Sessions.
+ * <p>
+ * The SessionFactory is built on a background thread, started by
+ * {@link #startAsync()} or by the first use; callers that need it before it
+ * is ready wait for it.
+ * <p>
+ * Connections come from a HikariCP pool, so opening a Session per DAO call
+ * only borrows an already open connection. Pool and JDBC settings can be
+ * overridden per deployment, see {@link DatabaseSetting}; any other
+ * hibernate.cfg.xml property can be overridden with a system property of the
+ * same name.
+ * <p>
+ * Writes always go to the primary database. If replica URLs are configured,
+ * a read-only SessionFactory is built for each replica once the primary one
+ * is ready, and {@link #getReadSession()} spreads reads over them. After this
+ * client writes listings, or polls other clients' changes from the primary,
+ * reads stay on the primary for
+ * {@link DatabaseSetting#REPLICA_READ_YOUR_WRITES_MILLIS}, so what it reads
+ * next is not older than what it already shows although the replicas lag
+ * behind.
  */
 public class HibernateUtil {
 
-    private static SessionFactory sessionFactory;
+    private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
+
+    // Touch every table and column added since the first release, without reading a row
+    private static final List<String> SCHEMA_PROBES = List.of(
+            "select id, version, updated_at from real_estate where 1 = 0",
+            "select next_val from real_estate_seq where 1 = 0",
+            "select real_estate_id, deleted_at from real_estate_deletion where 1 = 0",
+            "select dimension, group_key, dirty, refreshed_at from real_estate_price_summary where 1 = 0");
+    private static final String SCHEMA_UPGRADE_SCRIPT = "db/upgrade-schema.sql";
+
+    private static final PoolMetricsTracker poolMetrics = new PoolMetricsTracker();
+    private static final CompletableFuture<SessionFactory> bootstrap = new CompletableFuture<>();
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static volatile HikariDataSource dataSource;
+    private static volatile List<Replica> replicas = List.of();
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+    private static volatile long readYourWritesNanos;
+    // System.nanoTime() until which reads go to the primary
+    private static volatile long primaryReadsUntil = System.nanoTime();
+
+    /**
+     * Starts building the SessionFactory on a background thread, unless it
+     * was already started. The application calls this before it loads its
+     * window, so the window appears while the connection pool is opened and
+     * the mapping is built. Any other first use starts the build as well.
+     *
+     * @return a future completed when the SessionFactory is ready
+     */
+    public static CompletableFuture<Void> startAsync(){
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(() -> {
+                try {
+                    bootstrap.complete(StartupTimer.time("SessionFactory bootstrap", HibernateUtil::buildSessionFactory));
+                    PersistenceMetrics.start();
+                    startReplicas();
+                } catch (Throwable e) {
+                    logger.error("Initial SessionFactory creation failed: ", e);
+                    bootstrap.completeExceptionally(e);
+                }
+            }, "hibernate-bootstrap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return bootstrap.thenApply(factory -> null);
+    }
 
-    static {
+    /**
+     * Returns the SessionFactory, waiting for the bootstrap to finish.
+     *
+     * @return the SessionFactory
+     * @throws IllegalStateException if the SessionFactory could not be built
+     */
+    private static SessionFactory sessionFactory(){
+        startAsync();
         try {
-            // Create the SessionFactory from hibernate.cfg.xml
-            Configuration configuration = new Configuration();
-            configuration.configure("hibernate.cfg.xml");
-            configuration.addAnnotatedClass(RealEstate.class);
-            sessionFactory = configuration.buildSessionFactory();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new ExceptionInInitializerError("Initial SessionFactory creation failed: " + e);
+            return bootstrap.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Initial SessionFactory creation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Builds the SessionFactory from hibernate.cfg.xml and the overrides.
+     * The schema is only inspected if a schema action is configured, see
+     * {@link DatabaseSetting#SCHEMA_ACTION}; otherwise a few empty queries
+     * check that it has the tables and columns of this version.
+     *
+     * @throws IllegalStateException if the schema is out of date
+     */
+    private static SessionFactory buildSessionFactory(){
+        try {
+            Configuration configuration = newConfiguration();
+            Properties properties = configuration.getProperties();
+            dataSource = StartupTimer.time("connection pool", () ->
+                    createDataSource(properties, "realestate", DatabaseSetting.URL.resolve(properties), false));
+            useDataSource(configuration, dataSource);
+            configuration.setProperty(InProcessRegionFactory.MAX_ENTRIES,
+                    DatabaseSetting.CACHE_MAX_ENTRIES.resolve(properties));
+            configuration.setProperty(InProcessRegionFactory.TTL_SECONDS,
+                    DatabaseSetting.CACHE_TTL_SECONDS.resolve(properties));
+            String schemaAction = DatabaseSetting.SCHEMA_ACTION.resolve(properties);
+            configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, schemaAction);
+            logger.info("Schema action: {}", schemaAction);
+            SessionFactory sessionFactory = configuration.buildSessionFactory();
+            if ("none".equals(schemaAction)) {
+                checkSchema(sessionFactory);
+            }
+            return sessionFactory;
+        } catch (RuntimeException e) {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the schema probes, so that a database created by an earlier version
+     * fails at startup with the way to upgrade it, rather than on the first
+     * query that needs a new column.
+     *
+     * @param sessionFactory the SessionFactory, closed if the check fails
+     * @throws IllegalStateException if a probe fails
+     */
+    private static void checkSchema(SessionFactory sessionFactory){
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    for (String probe : SCHEMA_PROBES) {
+                        statement.executeQuery(probe).close();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            sessionFactory.close();
+            throw new IllegalStateException("The database schema is older than this version of the application ("
+                    + e.getMessage() + "). Apply " + SCHEMA_UPGRADE_SCRIPT + " from the application resources, or "
+                    + "start once with -Drealestate.db.schema.action=update", e);
+        }
+    }
+
+    /**
+     * Builds a read-only SessionFactory for each configured replica; a
+     * replica that cannot be reached is left out. Replicas have no
+     * second-level cache, since it would not learn of the writes on the
+     * primary, and never touch the schema.
+     */
+    private static void startReplicas(){
+        try {
+            Properties settings = newConfiguration().getProperties();
+            String urls = DatabaseSetting.REPLICA_URLS.resolve(settings);
+            if (urls == null || urls.isBlank()) {
+                return;
+            }
+            readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(
+                    DatabaseSetting.REPLICA_READ_YOUR_WRITES_MILLIS.resolveInt(settings));
+            List<Replica> built = new ArrayList<>();
+            int index = 0;
+            for (String url : urls.split(",")) {
+                if (url.isBlank()) {
+                    continue;
+                }
+                String poolName = "realestate-replica-" + ++index;
+                HikariDataSource replicaPool = null;
+                try {
+                    Configuration configuration = newConfiguration();
+                    replicaPool = createDataSource(configuration.getProperties(), poolName, url.trim(), true);
+                    useDataSource(configuration, replicaPool);
+                    configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+                    configuration.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+                    configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+                    built.add(new Replica(poolName, configuration.buildSessionFactory(), replicaPool));
+                } catch (RuntimeException e) {
+                    logger.warn("Leaving out replica {}: ", poolName, e);
+                    if (replicaPool != null) {
+                        replicaPool.close();
+                    }
+                }
+            }
+            replicas = List.copyOf(built);
+            logger.info("Reads are spread over {} replicas", built.size());
+        } catch (RuntimeException e) {
+            logger.warn("Replicas not started, all reads go to the primary: ", e);
+        }
+    }
+
+    /**
+     * Reads hibernate.cfg.xml and applies the overrides given as system properties.
+     *
+     * @return the configuration
+     */
+    private static Configuration newConfiguration(){
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+        configuration.addAnnotatedClass(RealEstate.class);
+        configuration.addAnnotatedClass(RealEstateDeletion.class);
+        configuration.addAnnotatedClass(RealEstatePriceSummary.class);
+        // -Dhibernate.<setting>=<value> overrides hibernate.cfg.xml
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("hibernate.")) {
+                configuration.setProperty(name, System.getProperty(name));
+            }
         }
+        return configuration;
+    }
+
+    /**
+     * Lets a configuration take its connections from a pool, with the JDBC
+     * settings resolved from the database settings.
+     *
+     * @param configuration the configuration
+     * @param pool          the connection pool
+     */
+    private static void useDataSource(Configuration configuration, HikariDataSource pool){
+        Properties properties = configuration.getProperties();
+        // Credentials now belong to the pool; Hibernate must not pass them to getConnection()
+        for (DatabaseSetting setting : List.of(DatabaseSetting.URL, DatabaseSetting.USERNAME,
+                DatabaseSetting.PASSWORD, DatabaseSetting.DRIVER)) {
+            properties.remove(setting.getHibernateProperty());
+            configuration.getStandardServiceRegistryBuilder().getSettings().remove(setting.getHibernateProperty());
+        }
+        properties.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, pool);
+        String fetchSize = DatabaseSetting.FETCH_SIZE.resolve(properties);
+        if (fetchSize != null) {
+            configuration.setProperty(AvailableSettings.STATEMENT_FETCH_SIZE, fetchSize);
+        }
+        configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE,
+                DatabaseSetting.BATCH_SIZE.resolve(properties));
+    }
+
+    /**
+     * Creates a connection pool from the resolved database settings.
+     * <p>
+     * The MySQL driver caches prepared statements per connection on the
+     * client, and server-side prepared statements let MySQL skip re-parsing.
+     * Only the primary pool reports to {@link #getPoolMetrics()}.
+     *
+     * @param properties the properties loaded from hibernate.cfg.xml
+     * @param poolName   the pool name, also used for its MBeans
+     * @param url        the JDBC URL
+     * @param readOnly   whether the connections are read-only, for a replica
+     * @return the pooled DataSource
+     */
+    private static HikariDataSource createDataSource(Properties properties, String poolName, String url,
+                                                     boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(DatabaseSetting.USERNAME.resolve(properties));
+        config.setPassword(DatabaseSetting.PASSWORD.resolve(properties));
+        String driver = DatabaseSetting.DRIVER.resolve(properties);
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+        config.setMaximumPoolSize(DatabaseSetting.POOL_MAX_SIZE.resolveInt(properties));
+        config.setMinimumIdle(Math.min(DatabaseSetting.POOL_MIN_IDLE.resolveInt(properties),
+                config.getMaximumPoolSize()));
+        config.setConnectionTimeout(DatabaseSetting.POOL_CONNECTION_TIMEOUT_MILLIS.resolveInt(properties));
+
+        int statementCacheSize = DatabaseSetting.STATEMENT_CACHE_SIZE.resolveInt(properties);
+        config.addDataSourceProperty("cachePrepStmts", String.valueOf(statementCacheSize > 0));
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+
+        if (readOnly) {
+            config.setReadOnly(true);
+        } else {
+            config.setMetricsTrackerFactory(poolMetrics);
+        }
+        config.setRegisterMbeans(true);
+        logger.info("Connection pool {}: maxSize={}, minIdle={}, statementCache={}", poolName,
+                config.getMaximumPoolSize(), config.getMinimumIdle(), statementCacheSize);
+        return new HikariDataSource(config);
     }
 
     /**
@@ -31,15 +314,207 @@ public class HibernateUtil {
      * @return a new Session
      */
     public static Session getSession(){
-        return sessionFactory.openSession();
+        return sessionFactory().openSession();
+    }
+
+    /**
+     * Provides a new StatelessSession for bulk reads and writes that should
+     * bypass the persistence context.
+     *
+     * @return a new StatelessSession
+     */
+    public static StatelessSession getStatelessSession(){
+        return sessionFactory().openStatelessSession();
+    }
+
+    /**
+     * Provides a new read-only Session for queries that a replica may answer.
+     * Replicas take turns; the primary answers if there is none, and for a
+     * while after {@link #keepReadsOnPrimary()}.
+     *
+     * @return a new read-only Session
+     */
+    public static Session getReadSession(){
+        Session session = readSessionFactory().openSession();
+        session.setDefaultReadOnly(true);
+        return session;
+    }
+
+    /**
+     * Provides a new StatelessSession for bulk reads that a replica may answer,
+     * see {@link #getReadSession()}.
+     *
+     * @return a new StatelessSession
+     */
+    public static StatelessSession getReadStatelessSession(){
+        return readSessionFactory().openStatelessSession();
+    }
+
+    /**
+     * Checks whether an entity is held by the primary's second-level cache,
+     * where reading it costs no query at all.
+     *
+     * @param entityClass the entity class
+     * @param id          the entity ID
+     * @return true if the entity is cached
+     */
+    public static boolean isCached(Class<?> entityClass, Object id){
+        return sessionFactory().getCache().containsEntity(entityClass, id);
+    }
+
+    /**
+     * Keeps reads on the primary for the read-your-writes window. Call it
+     * after committing a write of listings, and after reading changes from
+     * the primary that a replica may not have yet. Writes that no read
+     * depends on, such as the price summary refresh, leave the replicas in
+     * use.
+     */
+    public static void keepReadsOnPrimary(){
+        primaryReadsUntil = System.nanoTime() + readYourWritesNanos;
+    }
+
+    private static SessionFactory readSessionFactory(){
+        SessionFactory primary = sessionFactory();
+        List<Replica> replicas = HibernateUtil.replicas;
+        if (replicas.isEmpty() || System.nanoTime() - primaryReadsUntil < 0) {
+            return primary;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size())).sessionFactory();
+    }
+
+    /**
+     * Returns the configured JDBC batch size.
+     *
+     * @return the number of statements per JDBC batch, 1 if batching is off
+     */
+    public static int getJdbcBatchSize(){
+        // Always set when the SessionFactory is built, see useDataSource()
+        String batchSize = getSetting(AvailableSettings.STATEMENT_BATCH_SIZE);
+        return batchSize == null ? 1 : Math.max(1, Integer.parseInt(batchSize));
+    }
+
+    /**
+     * Returns a configuration setting of the SessionFactory.
+     *
+     * @param name the setting name
+     * @return the setting value, or null if it is not set
+     */
+    public static String getSetting(String name){
+        Object value = sessionFactory().getProperties().get(name);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Identifies the database this application is connected to, so that data
+     * kept locally can be told apart from that of another database.
+     *
+     * @return a hash of the JDBC URL
+     * @throws IllegalStateException if the SessionFactory could not be built
+     */
+    public static int getDatabaseId(){
+        sessionFactory();
+        HikariDataSource dataSource = HibernateUtil.dataSource;
+        if (dataSource == null) {
+            throw new IllegalStateException("The connection pool is closed");
+        }
+        return dataSource.getJdbcUrl().hashCode();
+    }
+
+    /**
+     * Returns the current state of the connection pool, to see whether it
+     * saturates under load.
+     *
+     * @return the pool metrics
+     */
+    public static PoolMetrics getPoolMetrics(){
+        return poolMetrics.snapshot();
     }
 
     /**
-     * Shuts down the SessionFactory, releasing all resources.
+     * Returns the Hibernate statistics without waiting for the bootstrap.
+     *
+     * @return the statistics, or null if the SessionFactory is not ready
+     */
+    static Statistics statistics(){
+        return bootstrap.isDone() && !bootstrap.isCompletedExceptionally() ? bootstrap.join().getStatistics() : null;
+    }
+
+    /**
+     * Returns the hit and miss counts of the RealEstate entity and query caches,
+     * to verify that the caches earn their memory.
+     *
+     * @return the cache statistics
+     */
+    public static CacheStatistics getCacheStatistics(){
+        Statistics statistics = sessionFactory().getStatistics();
+        CacheRegionStatistics entities = statistics.getDomainDataRegionStatistics(RealEstate.CACHE_REGION);
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics(RealEstateDao.BY_NAME_CACHE_REGION);
+        return new CacheStatistics(
+                entities == null ? 0 : entities.getHitCount(),
+                entities == null ? 0 : entities.getMissCount(),
+                entities == null ? 0 : entities.getPutCount(),
+                queries == null ? 0 : queries.getHitCount(),
+                queries == null ? 0 : queries.getMissCount(),
+                queries == null ? 0 : queries.getPutCount());
+    }
+
+    /**
+     * Evicts every entity and query result from the second-level cache, for
+     * use after the database was changed behind Hibernate's back.
+     */
+    public static void evictCaches(){
+        sessionFactory().getCache().evictAllRegions();
+    }
+
+    /**
+     * Evicts one entity from the second-level cache, for use after another
+     * client changed or deleted its row.
+     *
+     * @param entityClass the entity class
+     * @param id          the entity ID
+     */
+    public static void evictEntity(Class<?> entityClass, Object id){
+        sessionFactory().getCache().evictEntityData(entityClass, id);
+    }
+
+    /**
+     * Evicts the results of a query cache region.
+     *
+     * @param region the query cache region
+     */
+    public static void evictQueryRegion(String region){
+        sessionFactory().getCache().evictQueryRegion(region);
+    }
+
+    /**
+     * Shuts down the SessionFactory and the connection pool, releasing all resources.
      */
     public static void shutdown(){
+        SessionFactory sessionFactory = bootstrap.isDone() && !bootstrap.isCompletedExceptionally()
+                ? bootstrap.join() : null;
         if (sessionFactory != null){
+            PersistenceMetrics.stop();
+            logger.info("Second-level cache at shutdown: {}", getCacheStatistics());
             sessionFactory.close();
+        } else if (started.get() && !bootstrap.isDone()){
+            logger.info("Shutting down while the SessionFactory is still being built");
+        }
+        HikariDataSource dataSource = HibernateUtil.dataSource;
+        if (dataSource != null){
+            logger.info("Connection pool at shutdown: {}", getPoolMetrics());
+            dataSource.close();
+        }
+        List<Replica> replicas = HibernateUtil.replicas;
+        HibernateUtil.replicas = List.of();
+        for (Replica replica : replicas) {
+            replica.sessionFactory().close();
+            replica.dataSource().close();
         }
     }
+
+    /**
+     * A read-only SessionFactory on a replica, with its connection pool.
+     */
+    private record Replica(String name, SessionFactory sessionFactory, HikariDataSource dataSource) {
+    }
 }
@@ -0,0 +1,101 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, transaction durations, row and statement counts of one
+ * persistence operation.
+ */
+class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram transactions = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void recordCall(long nanos, boolean failed, long rowCount, int statementCount) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        statements.add(statementCount);
+    }
+
+    void recordTransaction(long nanos) {
+        transactions.record(nanos);
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latency.percentileMillis(0.50);
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latency.percentileMillis(0.99);
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latency.maxMillis();
+    }
+
+    @Override
+    public long getTransactionCount() {
+        return transactions.count();
+    }
+
+    @Override
+    public double getTransactionP50Millis() {
+        return transactions.percentileMillis(0.50);
+    }
+
+    @Override
+    public double getTransactionP99Millis() {
+        return transactions.percentileMillis(0.99);
+    }
+
+    @Override
+    public String toString() {
+        String line = String.format("%s: calls=%d errors=%d p50=%.3fms p99=%.3fms max=%.3fms rows=%d statements=%d",
+                name, getCount(), getErrors(), getLatencyP50Millis(), getLatencyP99Millis(), getLatencyMaxMillis(),
+                getRows(), getStatements());
+        long transactionCount = getTransactionCount();
+        if (transactionCount > 0) {
+            line += String.format(" transactions=%d tx p50=%.3fms tx p99=%.3fms",
+                    transactionCount, getTransactionP50Millis(), getTransactionP99Millis());
+        }
+        return line;
+    }
+}
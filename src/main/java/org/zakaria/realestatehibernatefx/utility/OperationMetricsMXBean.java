@@ -0,0 +1,58 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+/**
+ * JMX view of the metrics of one persistence operation, e.g. one DAO method,
+ * since startup.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return the number of completed calls
+     */
+    long getCount();
+
+    /**
+     * @return the number of calls that failed
+     */
+    long getErrors();
+
+    /**
+     * @return the rows read or written by all calls
+     */
+    long getRows();
+
+    /**
+     * @return the SQL statements prepared by all calls
+     */
+    long getStatements();
+
+    /**
+     * @return the median call duration in milliseconds
+     */
+    double getLatencyP50Millis();
+
+    /**
+     * @return the 99th percentile call duration in milliseconds
+     */
+    double getLatencyP99Millis();
+
+    /**
+     * @return the longest call duration in milliseconds
+     */
+    double getLatencyMaxMillis();
+
+    /**
+     * @return the number of transactions run by the calls
+     */
+    long getTransactionCount();
+
+    /**
+     * @return the median transaction duration, from begin to commit or rollback, in milliseconds
+     */
+    double getTransactionP50Millis();
+
+    /**
+     * @return the 99th percentile transaction duration in milliseconds
+     */
+    double getTransactionP99Millis();
+}
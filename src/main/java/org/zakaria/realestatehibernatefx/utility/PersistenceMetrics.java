@@ -0,0 +1,342 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the persistence layer, cheap enough to leave on in production.
+ * <p>
+ * DAO methods mark each call with {@link #begin(String)} and
+ * {@link Operation#end()}. Per operation, the call latency and transaction
+ * durations go into lock-free histograms (p50/p99/max), and rows and prepared
+ * SQL statements are counted; the statements are reported by
+ * {@link SlowQueryInspector} as Hibernate prepares them. An operation slower
+ * than {@code realestate.metrics.slowMillis} (default 500) is logged with
+ * the SQL it ran.
+ * <p>
+ * The metrics and Hibernate's {@link Statistics} are published as MXBeans
+ * under {@code org.zakaria.realestatehibernatefx:type=Persistence} and
+ * summarized to SLF4J every {@code realestate.metrics.logIntervalSeconds}
+ * (default 300, 0 turns it off), if anything happened since the last
+ * summary.
+ */
+public final class PersistenceMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistenceMetrics.class);
+
+    private static final String JMX_DOMAIN = "org.zakaria.realestatehibernatefx";
+    private static final int LOG_INTERVAL_SECONDS = Integer.getInteger("realestate.metrics.logIntervalSeconds", 300);
+    // Statements kept per call for the slow-operation log; the rest are only counted
+    private static final int MAX_LOGGED_STATEMENTS = 3;
+    private static final int MAX_LOGGED_STATEMENT_LENGTH = 500;
+
+    private static final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Operation> current = new ThreadLocal<>();
+    private static final LongAdder slowOperations = new LongAdder();
+    private static volatile long slowNanos = Long.getLong("realestate.metrics.slowMillis", 500) * 1_000_000;
+    private static ScheduledExecutorService reporter;
+    private static long lastLoggedCalls;
+
+    private PersistenceMetrics() {
+    }
+
+    /**
+     * Starts timing a call of an operation on the current thread. The call
+     * must be ended with {@link Operation#end()}, typically in a finally
+     * block. Calls may nest, e.g. a DAO method that calls another one.
+     *
+     * @param name the operation name, e.g. the DAO method
+     * @return the running call
+     */
+    public static Operation begin(String name) {
+        Operation operation = new Operation(operations.computeIfAbsent(name, PersistenceMetrics::register),
+                current.get());
+        current.set(operation);
+        return operation;
+    }
+
+    /**
+     * Adds to the rows read or written by the current call.
+     *
+     * @param count the number of rows
+     */
+    public static void addRows(long count) {
+        Operation operation = current.get();
+        if (operation != null) {
+            operation.rows += count;
+        }
+    }
+
+    /**
+     * Adds the size of a result to the rows of the current call.
+     *
+     * @param rows the rows read
+     * @param <C>  the collection type
+     * @return the rows, unchanged
+     */
+    public static <C extends Collection<?>> C rows(C rows) {
+        if (rows != null) {
+            addRows(rows.size());
+        }
+        return rows;
+    }
+
+    /**
+     * Marks the current call as failed.
+     */
+    public static void failed() {
+        Operation operation = current.get();
+        if (operation != null) {
+            operation.failed = true;
+        }
+    }
+
+    /**
+     * Records a finished transaction of the current call.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the transaction began
+     */
+    public static void transactionFinished(long startNanos) {
+        Operation operation = current.get();
+        if (operation != null) {
+            operation.metrics.recordTransaction(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Counts a statement Hibernate prepared for the current call.
+     *
+     * @param sql the statement
+     */
+    static void statementPrepared(String sql) {
+        Operation operation = current.get();
+        if (operation == null) {
+            return;
+        }
+        operation.statements++;
+        if (operation.sql.size() < MAX_LOGGED_STATEMENTS) {
+            operation.sql.add(sql.length() > MAX_LOGGED_STATEMENT_LENGTH
+                    ? sql.substring(0, MAX_LOGGED_STATEMENT_LENGTH) + "..." : sql);
+        }
+    }
+
+    /**
+     * Publishes the MXBeans and starts the periodic summary. Called once the
+     * SessionFactory is ready.
+     */
+    static synchronized void start() {
+        try {
+            register(new ObjectName(JMX_DOMAIN, "type", "Persistence"), new Summary());
+        } catch (JMException e) {
+            logger.debug("Could not publish persistence metrics: ", e);
+        }
+        if (LOG_INTERVAL_SECONDS > 0 && reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "persistence-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(PersistenceMetrics::logSummaryIfActive,
+                    LOG_INTERVAL_SECONDS, LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic summary and logs a last one.
+     */
+    static synchronized void stop() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        logSummary();
+    }
+
+    /**
+     * Logs the metrics of every operation and the Hibernate statistics.
+     */
+    public static void logSummary() {
+        Statistics statistics = HibernateUtil.statistics();
+        if (statistics != null) {
+            logger.info("Persistence: transactions={} queries={} slowestQuery={}ms statements={} entityLoads={} "
+                            + "slowOperations={} pool[{}]",
+                    statistics.getTransactionCount(), statistics.getQueryExecutionCount(),
+                    statistics.getQueryExecutionMaxTime(), statistics.getPrepareStatementCount(),
+                    statistics.getEntityLoadCount(), slowOperations.sum(), HibernateUtil.getPoolMetrics());
+        }
+        for (OperationMetrics metrics : sortedOperations()) {
+            if (metrics.getCount() > 0) {
+                logger.info("  {}", metrics);
+            }
+        }
+    }
+
+    private static synchronized void logSummaryIfActive() {
+        long calls = operations.values().stream().mapToLong(OperationMetrics::getCount).sum();
+        if (calls != lastLoggedCalls) {
+            lastLoggedCalls = calls;
+            logSummary();
+        }
+    }
+
+    private static List<OperationMetrics> sortedOperations() {
+        List<OperationMetrics> sorted = new ArrayList<>(operations.values());
+        sorted.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return sorted;
+    }
+
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        try {
+            register(new ObjectName(JMX_DOMAIN + ":type=Persistence,operation=" + ObjectName.quote(name)), metrics);
+        } catch (JMException e) {
+            logger.debug("Could not publish metrics of {}: ", name, e);
+        }
+        return metrics;
+    }
+
+    private static void register(ObjectName objectName, Object mbean) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            logger.debug("Could not register {}: ", objectName, e);
+        }
+    }
+
+    /**
+     * One running call of an operation.
+     */
+    public static final class Operation {
+
+        private final OperationMetrics metrics;
+        private final Operation parent;
+        private final long startNanos = System.nanoTime();
+        private final List<String> sql = new ArrayList<>(MAX_LOGGED_STATEMENTS);
+        private long rows;
+        private int statements;
+        private boolean failed;
+
+        private Operation(OperationMetrics metrics, Operation parent) {
+            this.metrics = metrics;
+            this.parent = parent;
+        }
+
+        /**
+         * Ends the call, records its metrics and logs it if it was slow.
+         */
+        public void end() {
+            long nanos = System.nanoTime() - startNanos;
+            current.set(parent);
+            metrics.recordCall(nanos, failed, rows, statements);
+            long threshold = slowNanos;
+            if (threshold > 0 && nanos >= threshold) {
+                slowOperations.increment();
+                logger.warn("Slow {}: {} ms, {} rows, {} statements{}{}", metrics.getName(),
+                        String.format("%.1f", nanos / 1_000_000.0), rows, statements,
+                        failed ? " (failed)" : "", sql.isEmpty() ? "" : ": " + String.join(" | ", sql));
+            }
+        }
+    }
+
+    /**
+     * The persistence-wide MXBean.
+     */
+    private static final class Summary implements PersistenceMetricsMXBean {
+
+        @Override
+        public long getSlowOperationThresholdMillis() {
+            return slowNanos / 1_000_000;
+        }
+
+        @Override
+        public void setSlowOperationThresholdMillis(long millis) {
+            slowNanos = Math.max(0, millis) * 1_000_000;
+        }
+
+        @Override
+        public long getSlowOperations() {
+            return slowOperations.sum();
+        }
+
+        @Override
+        public String[] getOperationNames() {
+            return sortedOperations().stream().map(OperationMetrics::getName).toArray(String[]::new);
+        }
+
+        @Override
+        public String[] getOperationSummaries() {
+            return sortedOperations().stream().map(OperationMetrics::toString).toArray(String[]::new);
+        }
+
+        @Override
+        public long getTransactionCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getTransactionCount();
+        }
+
+        @Override
+        public long getQueryExecutionCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getQueryExecutionCount();
+        }
+
+        @Override
+        public long getQueryExecutionMaxTimeMillis() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getQueryExecutionMaxTime();
+        }
+
+        @Override
+        public String getQueryExecutionMaxTimeQuery() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? null : statistics.getQueryExecutionMaxTimeQueryString();
+        }
+
+        @Override
+        public long getPrepareStatementCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getPrepareStatementCount();
+        }
+
+        @Override
+        public long getEntityLoadCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getEntityLoadCount();
+        }
+
+        @Override
+        public long getSecondLevelCacheHitCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getSecondLevelCacheHitCount();
+        }
+
+        @Override
+        public long getSecondLevelCacheMissCount() {
+            Statistics statistics = HibernateUtil.statistics();
+            return statistics == null ? 0 : statistics.getSecondLevelCacheMissCount();
+        }
+
+        @Override
+        public void logSummary() {
+            PersistenceMetrics.logSummary();
+        }
+    }
+}
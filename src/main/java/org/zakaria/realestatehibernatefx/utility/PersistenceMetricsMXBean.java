@@ -0,0 +1,79 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+/**
+ * JMX view of the persistence layer as a whole: the slow-operation log and
+ * Hibernate's session factory statistics. Each operation has its own
+ * {@link OperationMetricsMXBean}.
+ */
+public interface PersistenceMetricsMXBean {
+
+    /**
+     * @return the duration from which an operation is logged as slow, in milliseconds
+     */
+    long getSlowOperationThresholdMillis();
+
+    /**
+     * @param millis the duration from which an operation is logged as slow; 0 turns the log off
+     */
+    void setSlowOperationThresholdMillis(long millis);
+
+    /**
+     * @return the number of operations logged as slow
+     */
+    long getSlowOperations();
+
+    /**
+     * @return the names of the operations called so far
+     */
+    String[] getOperationNames();
+
+    /**
+     * @return the one-line summaries of every operation
+     */
+    String[] getOperationSummaries();
+
+    /**
+     * @return the transactions completed by Hibernate
+     */
+    long getTransactionCount();
+
+    /**
+     * @return the HQL and Criteria queries executed by Hibernate
+     */
+    long getQueryExecutionCount();
+
+    /**
+     * @return the longest query execution in milliseconds
+     */
+    long getQueryExecutionMaxTimeMillis();
+
+    /**
+     * @return the query with the longest execution
+     */
+    String getQueryExecutionMaxTimeQuery();
+
+    /**
+     * @return the JDBC statements prepared by Hibernate
+     */
+    long getPrepareStatementCount();
+
+    /**
+     * @return the entities loaded from the database
+     */
+    long getEntityLoadCount();
+
+    /**
+     * @return the entity lookups answered from the second-level cache
+     */
+    long getSecondLevelCacheHitCount();
+
+    /**
+     * @return the entity lookups that missed the second-level cache
+     */
+    long getSecondLevelCacheMissCount();
+
+    /**
+     * Logs the summary now instead of waiting for the next interval.
+     */
+    void logSummary();
+}
@@ -0,0 +1,34 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+/**
+ * Snapshot of the connection pool's state and connection wait times.
+ *
+ * @param active            connections lent out
+ * @param idle              connections waiting in the pool
+ * @param total             open connections
+ * @param maxSize           the maximum pool size
+ * @param waitingThreads    threads currently waiting for a connection
+ * @param acquisitions      connections handed out since startup
+ * @param averageWaitMillis the average time spent waiting for a connection
+ * @param maxWaitMillis     the longest time spent waiting for a connection
+ * @param timeouts          requests that gave up waiting for a connection
+ */
+public record PoolMetrics(int active, int idle, int total, int maxSize, int waitingThreads,
+                          long acquisitions, double averageWaitMillis, double maxWaitMillis, long timeouts) {
+
+    /**
+     * Checks whether every connection is in use and threads are queuing for one.
+     *
+     * @return true if the pool is saturated
+     */
+    public boolean saturated() {
+        return active >= maxSize && waitingThreads > 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d total=%d/%d waiting=%d acquisitions=%d "
+                        + "avgWait=%.3fms maxWait=%.3fms timeouts=%d",
+                active, idle, total, maxSize, waitingThreads, acquisitions, averageWaitMillis, maxWaitMillis, timeouts);
+    }
+}
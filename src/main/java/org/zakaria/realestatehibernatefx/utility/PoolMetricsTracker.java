@@ -0,0 +1,56 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool statistics reported by HikariCP.
+ */
+class PoolMetricsTracker implements MetricsTrackerFactory, IMetricsTracker {
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        waitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Takes a snapshot of the pool.
+     *
+     * @return the current pool metrics
+     */
+    PoolMetrics snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquisitions.sum();
+        double averageWaitMillis = count == 0 ? 0 : waitNanos.sum() / (double) count / 1_000_000;
+        double maxWaitMillis = maxWaitNanos.get() / 1_000_000.0;
+        if (stats == null) {
+            return new PoolMetrics(0, 0, 0, 0, 0, count, averageWaitMillis, maxWaitMillis, timeouts.sum());
+        }
+        return new PoolMetrics(stats.getActiveConnections(), stats.getIdleConnections(), stats.getTotalConnections(),
+                stats.getMaxConnections(), stats.getPendingThreads(), count, averageWaitMillis, maxWaitMillis,
+                timeouts.sum());
+    }
+}
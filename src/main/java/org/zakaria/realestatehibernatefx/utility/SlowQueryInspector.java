@@ -0,0 +1,19 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Reports each SQL statement Hibernate prepares to {@link PersistenceMetrics},
+ * which counts it for the running operation and keeps it for the slow
+ * operation log. The statement is not changed.
+ */
+public class SlowQueryInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        PersistenceMetrics.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,65 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Logs how long the phases of application startup take, measured from the
+ * start of the JVM, so that a slow cold start can be traced to its phase.
+ */
+public final class StartupTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Logs that a point of startup was reached.
+     *
+     * @param milestone the name of the milestone
+     */
+    public static void mark(String milestone) {
+        logger.info("Startup: {} at {} ms", milestone, sinceJvmStart());
+    }
+
+    /**
+     * Runs a startup phase and logs its duration.
+     *
+     * @param phase the name of the phase
+     * @param work  the phase
+     * @param <T>   the result type
+     * @return the result of the phase
+     */
+    public static <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            logger.info("Startup: {} took {} ms (done at {} ms)", phase,
+                    (System.nanoTime() - start) / 1_000_000, sinceJvmStart());
+        }
+    }
+
+    /**
+     * Runs a startup phase that has no result and logs its duration.
+     *
+     * @param phase the name of the phase
+     * @param work  the phase
+     */
+    public static void time(String phase, Runnable work) {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - JVM_START_MILLIS;
+    }
+}
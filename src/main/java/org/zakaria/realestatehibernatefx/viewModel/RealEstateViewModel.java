@@ -6,15 +6,34 @@ import org.zakaria.realestatehibernatefx.model.RealEstate;
 
 /**
  * ViewModel class for RealEstate entities, encapsulating JavaFX properties for UI binding.
+ * <p>
+ * Values are held in plain fields, and each JavaFX property is created only
+ * when it is first asked for, typically by a table cell that shows it. A
+ * ViewModel that is never displayed, or whose column is hidden, costs no
+ * property objects. ViewModels can be recycled for other rows with
+ * {@link #updateFromEntity(RealEstate)}; existing properties then fire change
+ * events and their cells update.
  */
-public class RealEstateViewModel {
+public final class RealEstateViewModel {
 
-    private final IntegerProperty id = new SimpleIntegerProperty();
-    private final StringProperty realEstateName = new SimpleStringProperty();
-    private final StringProperty address = new SimpleStringProperty();
-    private final DoubleProperty price = new SimpleDoubleProperty();
-    private final IntegerProperty numberOfRooms = new SimpleIntegerProperty();
-    private final StringProperty owner = new SimpleStringProperty();
+    private int id;
+    private String realEstateName;
+    private String address;
+    private double price;
+    private int numberOfRooms;
+    private String owner;
+    private long zipCode;
+
+    // Not shown, but carried back to the entity so an update does not lose it
+    private long version;
+
+    private IntegerProperty idProperty;
+    private StringProperty realEstateNameProperty;
+    private StringProperty addressProperty;
+    private DoubleProperty priceProperty;
+    private IntegerProperty numberOfRoomsProperty;
+    private StringProperty ownerProperty;
+    private LongProperty zipCodeProperty;
 
     /**
      * Constructs a ViewModel from a RealEstate entity.
@@ -22,37 +41,95 @@ public class RealEstateViewModel {
      * @param realEstate the RealEstate entity
      */
     public RealEstateViewModel(RealEstate realEstate) {
-        this.id.set(realEstate.getId());
-        this.realEstateName.set(realEstate.getRealEstateName());
-        this.address.set(realEstate.getAddress());
-        this.price.set(realEstate.getPrice());
-        this.numberOfRooms.set(realEstate.getNumberOfRooms());
-        this.owner.set(realEstate.getOwner());
+        updateFromEntity(realEstate);
     }
 
-    // Getters for JavaFX properties
+    // Getters for JavaFX properties, created on first use
     public IntegerProperty idProperty() {
-        return id;
+        if (idProperty == null) {
+            idProperty = new SimpleIntegerProperty(this, "id", id);
+        }
+        return idProperty;
     }
 
     public StringProperty realEstateNameProperty() {
-        return realEstateName;
+        if (realEstateNameProperty == null) {
+            realEstateNameProperty = new SimpleStringProperty(this, "realEstateName", realEstateName);
+        }
+        return realEstateNameProperty;
     }
 
     public StringProperty addressProperty() {
-        return address;
+        if (addressProperty == null) {
+            addressProperty = new SimpleStringProperty(this, "address", address);
+        }
+        return addressProperty;
     }
 
     public DoubleProperty priceProperty() {
-        return price;
+        if (priceProperty == null) {
+            priceProperty = new SimpleDoubleProperty(this, "price", price);
+        }
+        return priceProperty;
     }
 
     public IntegerProperty numberOfRoomsProperty() {
-        return numberOfRooms;
+        if (numberOfRoomsProperty == null) {
+            numberOfRoomsProperty = new SimpleIntegerProperty(this, "numberOfRooms", numberOfRooms);
+        }
+        return numberOfRoomsProperty;
     }
 
     public StringProperty ownerProperty() {
-        return owner;
+        if (ownerProperty == null) {
+            ownerProperty = new SimpleStringProperty(this, "owner", owner);
+        }
+        return ownerProperty;
+    }
+
+    public LongProperty zipCodeProperty() {
+        if (zipCodeProperty == null) {
+            zipCodeProperty = new SimpleLongProperty(this, "zipCode", zipCode);
+        }
+        return zipCodeProperty;
+    }
+
+    // Value getters that do not create properties
+    public int getId() {
+        return idProperty != null ? idProperty.get() : id;
+    }
+
+    public String getRealEstateName() {
+        return realEstateNameProperty != null ? realEstateNameProperty.get() : realEstateName;
+    }
+
+    public String getAddress() {
+        return addressProperty != null ? addressProperty.get() : address;
+    }
+
+    public double getPrice() {
+        return priceProperty != null ? priceProperty.get() : price;
+    }
+
+    public int getNumberOfRooms() {
+        return numberOfRoomsProperty != null ? numberOfRoomsProperty.get() : numberOfRooms;
+    }
+
+    public String getOwner() {
+        return ownerProperty != null ? ownerProperty.get() : owner;
+    }
+
+    public long getZipCode() {
+        return zipCodeProperty != null ? zipCodeProperty.get() : zipCode;
+    }
+
+    /**
+     * Returns the version of the entity this ViewModel was last updated from.
+     *
+     * @return the entity version
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -62,12 +139,14 @@ public class RealEstateViewModel {
      */
     public RealEstate toEntity() {
         RealEstate realEstate = new RealEstate();
-        realEstate.setId(this.id.get());
-        realEstate.setRealEstateName(this.realEstateName.get());
-        realEstate.setAddress(this.address.get());
-        realEstate.setPrice(this.price.get());
-        realEstate.setNumberOfRooms(this.numberOfRooms.get());
-        realEstate.setOwner(this.owner.get());
+        realEstate.setId(getId());
+        realEstate.setRealEstateName(getRealEstateName());
+        realEstate.setAddress(getAddress());
+        realEstate.setPrice(getPrice());
+        realEstate.setNumberOfRooms(getNumberOfRooms());
+        realEstate.setOwner(getOwner());
+        realEstate.setZipCode(getZipCode());
+        realEstate.setVersion(this.version);
         return realEstate;
     }
 
@@ -77,11 +156,34 @@ public class RealEstateViewModel {
      * @param realEstate the RealEstate entity
      */
     public void updateFromEntity(RealEstate realEstate) {
-        this.id.set(realEstate.getId());
-        this.realEstateName.set(realEstate.getRealEstateName());
-        this.address.set(realEstate.getAddress());
-        this.price.set(realEstate.getPrice());
-        this.numberOfRooms.set(realEstate.getNumberOfRooms());
-        this.owner.set(realEstate.getOwner());
+        this.id = realEstate.getId();
+        this.realEstateName = realEstate.getRealEstateName();
+        this.address = realEstate.getAddress();
+        this.price = realEstate.getPrice();
+        this.numberOfRooms = realEstate.getNumberOfRooms();
+        this.owner = realEstate.getOwner();
+        this.zipCode = realEstate.getZipCode();
+        this.version = realEstate.getVersion();
+        if (idProperty != null) {
+            idProperty.set(id);
+        }
+        if (realEstateNameProperty != null) {
+            realEstateNameProperty.set(realEstateName);
+        }
+        if (addressProperty != null) {
+            addressProperty.set(address);
+        }
+        if (priceProperty != null) {
+            priceProperty.set(price);
+        }
+        if (numberOfRoomsProperty != null) {
+            numberOfRoomsProperty.set(numberOfRooms);
+        }
+        if (ownerProperty != null) {
+            ownerProperty.set(owner);
+        }
+        if (zipCodeProperty != null) {
+            zipCodeProperty.set(zipCode);
+        }
     }
 }
@@ -0,0 +1,359 @@
+package org.zakaria.realestatehibernatefx.viewmodel;
+
+import javafx.collections.ObservableListBase;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.AsyncRealEstateRepository;
+import org.zakaria.realestatehibernatefx.repositories.PageSource;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Observable list of every row of a {@link PageSource}, of which only the
+ * rows near the visible part of the table are loaded.
+ * <p>
+ * The list reports the full number of matching rows, so a TableView scrolls
+ * over the whole result. Rows are fetched in blocks of one source page:
+ * {@link #get(int)} on a row whose block is not loaded returns an empty
+ * placeholder ViewModel at once and requests the block in the background; the
+ * placeholder is filled in with {@link RealEstateViewModel#updateFromEntity}
+ * when the block arrives, so its cells update without a list change. When the
+ * first row of a block is read, the next block in the direction of scrolling
+ * is requested as well.
+ * <p>
+ * Loaded blocks are kept in a least-recently-used cache of a fixed number of
+ * blocks. The list must only be used on the JavaFX Application Thread.
+ */
+public class VirtualRealEstateList extends ObservableListBase<RealEstateViewModel> {
+
+    private final BiFunction<PageSource, Integer, CompletableFuture<List<RealEstate>>> blockLoader;
+    private final Consumer<Throwable> failureHandler;
+    private final Map<Integer, Block> blocks;
+    private final int blockSize;
+
+    private PageSource source;
+    private int size;
+    private int lastReadBlock = -1;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param blockLoader    fetches a page of a source in the background
+     * @param blockSize      the page size of the sources shown
+     * @param cachedBlocks   the number of blocks to keep loaded
+     * @param failureHandler receives failed block loads, on the JavaFX Application Thread
+     */
+    public VirtualRealEstateList(BiFunction<PageSource, Integer, CompletableFuture<List<RealEstate>>> blockLoader,
+                                 int blockSize, int cachedBlocks, Consumer<Throwable> failureHandler) {
+        this.blockLoader = blockLoader;
+        this.blockSize = blockSize;
+        this.failureHandler = failureHandler;
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > cachedBlocks;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a ViewModel is a placeholder for a row that has not been loaded.
+     *
+     * @param viewModel a ViewModel from this list
+     * @return true if the row is not loaded yet
+     */
+    public static boolean isPlaceholder(RealEstateViewModel viewModel) {
+        return viewModel.getId() == 0;
+    }
+
+    /**
+     * Replaces the contents with the rows of another source.
+     *
+     * @param newSource  the page source, with pages of the block size
+     * @param rowCount   the number of matching rows
+     * @param firstBlock the rows of the first page, already loaded
+     */
+    public void reset(PageSource newSource, long rowCount, List<RealEstate> firstBlock) {
+        int oldSize = size;
+        source = newSource;
+        size = (int) Math.min(Integer.MAX_VALUE, rowCount);
+        blocks.clear();
+        lastReadBlock = -1;
+        Block block = new Block(0);
+        fill(block, firstBlock);
+        blocks.put(0, block);
+        // Reported as a removal and an addition rather than a replacement, for
+        // which listeners may walk the added rows and so load every block
+        beginChange();
+        nextRemove(0, placeholders(oldSize));
+        endChange();
+        beginChange();
+        nextAdd(0, size);
+        endChange();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public RealEstateViewModel get(int index) {
+        Objects.checkIndex(index, size);
+        int blockIndex = index / blockSize;
+        Block block = blocks.get(blockIndex);
+        if (block == null) {
+            block = load(blockIndex);
+        }
+        if (!block.read) {
+            block.read = true;
+            prefetch(blockIndex);
+        }
+        int offset = index - blockIndex * blockSize;
+        while (block.rows.size() <= offset) {
+            block.rows.add(placeholder());
+        }
+        return block.rows.get(offset);
+    }
+
+    /**
+     * Returns the position of a loaded row.
+     *
+     * @param id the row ID
+     * @return the row index, or -1 if the row is not loaded
+     */
+    public int indexOfLoaded(int id) {
+        for (Block block : blocks.values()) {
+            for (int i = 0; i < block.rows.size(); i++) {
+                if (block.rows.get(i).getId() == id) {
+                    int index = block.index * blockSize + i;
+                    return index < size ? index : -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a loaded row without loading or prefetching anything.
+     *
+     * @param id the row ID
+     * @return the row, or null if it is not loaded
+     */
+    public RealEstate findLoaded(int id) {
+        int index = indexOfLoaded(id);
+        return index >= 0 ? blocks.get(index / blockSize).rows.get(index % blockSize).toEntity() : null;
+    }
+
+    /**
+     * Returns the row at a position if its block is loaded, without loading
+     * or prefetching anything.
+     *
+     * @param index the row index
+     * @return the row, or null if it is not loaded
+     */
+    public RealEstate findLoadedAt(int index) {
+        Block block = index < size ? blocks.get(index / blockSize) : null;
+        int offset = index % blockSize;
+        if (block == null || !block.loaded || offset >= block.rows.size()) {
+            return null;
+        }
+        RealEstateViewModel row = block.rows.get(offset);
+        return isPlaceholder(row) ? null : row.toEntity();
+    }
+
+    /**
+     * Patches the list after a change was written, without reloading it.
+     * <p>
+     * A loaded row that still matches is updated in its existing ViewModel
+     * and keeps its position even if its sort key changed. A row that stops
+     * matching is removed, and a new matching row is inserted at its sort
+     * position among the loaded rows, or at the end if it sorts outside them.
+     * The loaded blocks after the change, or all of them if its position is
+     * unknown, are then fetched again in the background since their rows have
+     * moved by one.
+     *
+     * @param change the change that was written
+     */
+    public void applyChange(RealEstateChange change) {
+        if (source == null) {
+            return;
+        }
+        int index = indexOfLoaded(change.id());
+        RealEstate after = change.after();
+        boolean matches = after != null && source.getFilter().matches(after);
+        if (index >= 0 && matches) {
+            blocks.get(index / blockSize).rows.get(index % blockSize).updateFromEntity(after);
+        } else if (index >= 0) {
+            removeRow(index, index / blockSize);
+        } else if (matches && change.countDelta(source.getFilter()) > 0) {
+            insertRow(after);
+        } else if (change.countDelta(source.getFilter()) < 0 && size > 0) {
+            // The row was matching but not loaded, so its position is unknown
+            removeRow(size - 1, 0);
+        }
+    }
+
+    /**
+     * Changes the number of rows after a recount, adding or removing rows at the end.
+     *
+     * @param rowCount the number of matching rows
+     */
+    public void resize(long rowCount) {
+        int newSize = (int) Math.min(Integer.MAX_VALUE, rowCount);
+        if (newSize == size) {
+            return;
+        }
+        int oldSize = size;
+        size = newSize;
+        beginChange();
+        if (newSize > oldSize) {
+            nextAdd(oldSize, newSize);
+        } else {
+            nextRemove(newSize, placeholders(oldSize - newSize));
+        }
+        endChange();
+        reloadFrom(Math.min(oldSize, newSize) / blockSize);
+    }
+
+    private void removeRow(int index, int firstStaleBlock) {
+        int blockIndex = index / blockSize;
+        Block block = blocks.get(blockIndex);
+        int offset = index - blockIndex * blockSize;
+        RealEstateViewModel removed = block != null && offset < block.rows.size()
+                ? block.rows.remove(offset)
+                : placeholder();
+        size--;
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+        reloadFrom(firstStaleBlock);
+    }
+
+    private void insertRow(RealEstate realEstate) {
+        Comparator<RealEstate> order = source.getSort().comparator();
+        int index = -1;
+        for (Block block : blocks.values()) {
+            List<RealEstateViewModel> rows = block.rows;
+            if (!block.loaded || rows.isEmpty()
+                    || order.compare(realEstate, rows.get(rows.size() - 1).toEntity()) > 0
+                    || order.compare(realEstate, rows.get(0).toEntity()) < 0 && block.index > 0) {
+                continue;
+            }
+            int offset = 0;
+            while (offset < rows.size() && order.compare(rows.get(offset).toEntity(), realEstate) < 0) {
+                offset++;
+            }
+            index = block.index * blockSize + offset;
+            rows.add(offset, new RealEstateViewModel(realEstate));
+            if (rows.size() > blockSize) {
+                rows.remove(blockSize);
+            }
+            break;
+        }
+        int firstStaleBlock = index >= 0 ? index / blockSize : 0;
+        if (index < 0) {
+            index = size;
+        }
+        size++;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+        reloadFrom(firstStaleBlock);
+    }
+
+    /**
+     * Fetches the loaded blocks from a block on again, filling in their
+     * existing ViewModels.
+     */
+    private void reloadFrom(int firstBlock) {
+        for (Block block : List.copyOf(blocks.values())) {
+            if (block.index >= firstBlock) {
+                request(block);
+            }
+        }
+    }
+
+    private Block load(int blockIndex) {
+        Block block = new Block(blockIndex);
+        blocks.put(blockIndex, block);
+        request(block);
+        return block;
+    }
+
+    private void prefetch(int blockIndex) {
+        int direction = blockIndex >= lastReadBlock ? 1 : -1;
+        lastReadBlock = blockIndex;
+        int next = blockIndex + direction;
+        if (next >= 0 && (long) next * blockSize < size && !blocks.containsKey(next)) {
+            load(next);
+        }
+    }
+
+    private void request(Block block) {
+        PageSource requestSource = source;
+        blockLoader.apply(requestSource, block.index)
+                .whenCompleteAsync((rows, error) -> {
+                    if (source != requestSource) {
+                        return;
+                    }
+                    if (error != null) {
+                        failureHandler.accept(error);
+                    } else {
+                        fill(block, rows);
+                    }
+                }, AsyncRealEstateRepository.FX_THREAD);
+    }
+
+    private void fill(Block block, List<RealEstate> rows) {
+        int length = (int) Math.min(blockSize, Math.max(0, size - (long) block.index * blockSize));
+        if (block.rows.size() > length) {
+            block.rows.subList(length, block.rows.size()).clear();
+        }
+        for (int i = 0; i < length; i++) {
+            if (i == block.rows.size()) {
+                block.rows.add(placeholder());
+            }
+            RealEstateViewModel row = block.rows.get(i);
+            RealEstate loaded = i < rows.size() ? rows.get(i) : null;
+            // A replica behind the change already applied here must not undo it
+            if (loaded != null && loaded.getId() == row.getId() && loaded.getVersion() < row.getVersion()) {
+                continue;
+            }
+            // Rows the source no longer has, e.g. after a concurrent delete, become placeholders again
+            row.updateFromEntity(loaded != null ? loaded : new RealEstate());
+        }
+        block.loaded = true;
+    }
+
+    private static RealEstateViewModel placeholder() {
+        return new RealEstateViewModel(new RealEstate());
+    }
+
+    private static List<RealEstateViewModel> placeholders(int count) {
+        return Collections.nCopies(count, placeholder());
+    }
+
+    /**
+     * A block of consecutive rows, as placeholders until it has been loaded.
+     */
+    private static final class Block {
+        final int index;
+        final List<RealEstateViewModel> rows = new ArrayList<>();
+        boolean loaded;
+        boolean read;
+
+        Block(int index) {
+            this.index = index;
+        }
+    }
+}
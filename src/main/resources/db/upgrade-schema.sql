@@ -0,0 +1,60 @@
+-- Brings a MySQL database created by an earlier version of Real Estate Manager,
+-- which only had the real_estate table, up to the current mapping.
+--
+-- Run it once, before starting the new version:
+--   mysql -u root -p realestate_db < upgrade-schema.sql
+--
+-- A database that a newer version already updated with
+-- -Drealestate.db.schema.action=update may have some of these objects; skip the
+-- statements for those. Such a database may also have updated_at without its
+-- default, which inserts need now that the database stamps it:
+--   alter table real_estate modify column updated_at
+--       datetime(6) default current_timestamp(6) on update current_timestamp(6) not null;
+
+-- Optimistic locking and change polling. Existing rows start at version 0 and
+-- are stamped with the time of the upgrade.
+alter table real_estate add column version bigint not null default 0;
+alter table real_estate add column updated_at
+    datetime(6) default current_timestamp(6) on update current_timestamp(6) not null;
+
+create index idx_real_estate_owner on real_estate (owner);
+create index idx_real_estate_price on real_estate (price);
+create index idx_real_estate_zip_code on real_estate (zipCode);
+create index idx_real_estate_updated_at on real_estate (updated_at);
+create index idx_real_estate_owner_price on real_estate (owner, price);
+create index idx_real_estate_rooms_price on real_estate (number_of_rooms, price);
+create index idx_real_estate_zip_code_price on real_estate (zipCode, price);
+
+-- IDs now come from this table instead of AUTO_INCREMENT, starting after the
+-- highest existing ID. The application also moves it past max(id) at startup.
+create table real_estate_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into real_estate_seq select coalesce(max(id), 0) + 1 from real_estate;
+
+-- Deletions, so that other clients can drop deleted rows from their views.
+create table real_estate_deletion (
+    real_estate_id integer not null,
+    deleted_at datetime(6) default current_timestamp(6) not null,
+    primary key (real_estate_id)
+) engine=InnoDB;
+
+create index idx_real_estate_deletion_deleted_at on real_estate_deletion (deleted_at);
+
+-- Price statistics per group, filled by the application on first use.
+create table real_estate_price_summary (
+    dimension varchar(16) not null,
+    group_key varchar(255) not null,
+    listings bigint,
+    average_price float(53),
+    min_price float(53),
+    p25_price float(53),
+    median_price float(53),
+    p75_price float(53),
+    p90_price float(53),
+    max_price float(53),
+    dirty bit,
+    refreshed_at datetime(6),
+    primary key (dimension, group_key)
+) engine=InnoDB;
@@ -0,0 +1,137 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateChange;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateFilter;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Field;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Key;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachedPageSourceTest {
+
+    private static final int ROWS = 3_000;
+    private static final int PAGE_SIZE = 100;
+    private static final List<RealEstateSort> SORTS = List.of(
+            RealEstateSort.BY_ID,
+            new RealEstateSort(Field.OWNER, true),
+            new RealEstateSort(Field.ADDRESS, false),
+            new RealEstateSort(Field.PRICE, false),
+            new RealEstateSort(List.of(new Key(Field.ROOMS, true), new Key(Field.NAME, false))));
+    private static final List<RealEstateFilter> FILTERS = List.of(
+            RealEstateFilter.NONE,
+            RealEstateFilter.of("", "o1", "", "", ""),
+            RealEstateFilter.of("", "", "", "2000", "6000"),
+            RealEstateFilter.of("a1", "", "", "", "8000"));
+
+    private final Random random = new Random(17);
+
+    @Test
+    void pagesFollowSortOrder() {
+        for (RealEstateSort sort : SORTS) {
+            for (RealEstateFilter filter : FILTERS) {
+                ListingCache cache = newCache();
+                CachedPageSource source = new CachedPageSource(cache, new FilterPipeline(cache), filter, sort, PAGE_SIZE);
+                List<Integer> pages = new ArrayList<>();
+                for (int page = 0; page < source.getPageCount(); page++) {
+                    source.getPage(page).forEach(realEstate -> pages.add(realEstate.getId()));
+                }
+                assertEquals(bruteForce(cache, filter, sort), pages, sort + " " + filter);
+                assertEquals(pages.size(), source.getTotalCount());
+            }
+        }
+    }
+
+    @Test
+    void patchedRowsMatchFreshResult() {
+        for (RealEstateSort sort : SORTS) {
+            for (RealEstateFilter filter : FILTERS) {
+                ListingCache cache = newCache();
+                CachedPageSource source = new CachedPageSource(cache, new FilterPipeline(cache), filter, sort, PAGE_SIZE);
+                source.getTotalCount();
+                int nextId = ROWS + 1;
+                for (int change = 0; change < 1_000; change++) {
+                    int operation = random.nextInt(3);
+                    if (operation == 0) {
+                        RealEstate inserted = randomRealEstate(nextId++);
+                        cache.put(inserted);
+                        source.applyChange(RealEstateChange.inserted(inserted));
+                        continue;
+                    }
+                    RealEstate before = cache.find(1 + random.nextInt(nextId - 1));
+                    if (before == null) {
+                        continue;
+                    }
+                    if (operation == 1) {
+                        RealEstate after = randomRealEstate(before.getId());
+                        after.setVersion(before.getVersion() + 1);
+                        cache.put(after);
+                        source.applyChange(RealEstateChange.updated(before, after));
+                    } else {
+                        cache.remove(before.getId());
+                        source.applyChange(RealEstateChange.deleted(before));
+                    }
+                }
+                CachedPageSource fresh = new CachedPageSource(cache, new FilterPipeline(cache), filter, sort, PAGE_SIZE);
+                assertEquals(fresh.getIds(), source.getIds(), sort + " " + filter);
+                assertEquals(bruteForce(cache, filter, sort), source.getIds(), sort + " " + filter);
+            }
+        }
+    }
+
+    @Test
+    void sortIsStable() {
+        int[] values = random.ints(10_000, 0, 1_000).toArray();
+        Integer[] expected = Arrays.stream(values).boxed().toArray(Integer[]::new);
+        Arrays.sort(expected, Comparator.comparingInt(value -> value / 100));
+        CachedPageSource.sort(values, (a, b) -> Integer.compare(a / 100, b / 100));
+        assertArrayEquals(expected, Arrays.stream(values).boxed().toArray());
+    }
+
+    private ListingCache newCache() {
+        List<RealEstate> realEstates = new ArrayList<>();
+        for (int id = 1; id <= ROWS; id++) {
+            realEstates.add(randomRealEstate(id));
+        }
+        ListingCache cache = new ListingCache();
+        cache.addAll(realEstates);
+        return cache;
+    }
+
+    /**
+     * Few distinct values per column, so most rows tie on their sort key,
+     * some owners and addresses are null, and owners differ in case.
+     */
+    private RealEstate randomRealEstate(int id) {
+        RealEstate realEstate = new RealEstate();
+        realEstate.setId(id);
+        realEstate.setOwner(random.nextInt(5) == 0 ? null : (random.nextBoolean() ? "o" : "O") + random.nextInt(20));
+        realEstate.setAddress(random.nextInt(10) == 0 ? null : "a" + random.nextInt(50));
+        realEstate.setRealEstateName("n" + random.nextInt(30));
+        realEstate.setZipCode(10_000 + random.nextInt(10));
+        realEstate.setPrice(random.nextInt(10) * 1_000);
+        realEstate.setNumberOfRooms(random.nextInt(6));
+        return realEstate;
+    }
+
+    private static List<Integer> bruteForce(ListingCache cache, RealEstateFilter filter, RealEstateSort sort) {
+        List<RealEstate> matches = new ArrayList<>();
+        for (int row = 0; row < cache.rowCount(); row++) {
+            RealEstate realEstate = cache.get(row);
+            if (realEstate != null && filter.matches(realEstate)) {
+                matches.add(realEstate);
+            }
+        }
+        matches.sort(sort.comparator());
+        return matches.stream().map(RealEstate::getId).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingSnapshotTest {
+
+    private static final Instant WATERMARK = Instant.parse("2024-05-01T12:30:15.123456789Z");
+    private static final int DATABASE_ID = 0x5eed;
+    private static final String[] OWNERS = {"Smith", "Jones", "Ωmega Ünïcødé 𐐀", null};
+
+    private final Path directory = createDirectory();
+    private final Path file = directory.resolve("listings.snapshot");
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void roundTripsListings() throws IOException {
+        ListingCache cache = new ListingCache();
+        List<RealEstate> listings = new ArrayList<>();
+        for (int i = 0; i < 12_345; i++) {
+            listings.add(listing(i * 3 + 1, i));
+        }
+        cache.addAll(listings);
+        // Leaves a hole, which the snapshot skips
+        cache.remove(4);
+
+        ListingSnapshot written = ListingSnapshot.write(file, cache, WATERMARK, DATABASE_ID);
+        ListingCache restored = new ListingCache();
+        ListingSnapshot read = ListingSnapshot.read(file, restored).orElseThrow();
+
+        assertEquals(new ListingSnapshot(cache.size(), WATERMARK, DATABASE_ID), written);
+        assertEquals(written, read);
+        assertEquals(cache.size(), restored.size());
+        assertEquals(describe(cache), describe(restored));
+        assertNull(restored.find(4));
+    }
+
+    @Test
+    void roundTripsEmptyCache() throws IOException {
+        ListingSnapshot.write(file, new ListingCache(), Instant.EPOCH, 0);
+        ListingCache restored = new ListingCache();
+        assertEquals(new ListingSnapshot(0, Instant.EPOCH, 0), ListingSnapshot.read(file, restored).orElseThrow());
+        assertEquals(0, restored.size());
+    }
+
+    @Test
+    void missingFileIsNoSnapshot() throws IOException {
+        assertTrue(ListingSnapshot.read(file, new ListingCache()).isEmpty());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Files.writeString(file, "id,name,price\n1,Villa,100000\n2,Flat,50000\n");
+        assertThrows(IOException.class, () -> ListingSnapshot.read(file, new ListingCache()));
+    }
+
+    @Test
+    void rejectsTruncatedSnapshot() throws IOException {
+        ListingCache cache = new ListingCache();
+        cache.addAll(List.of(listing(1, 0), listing(2, 1), listing(3, 2)));
+        ListingSnapshot.write(file, cache, WATERMARK, DATABASE_ID);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, 40));
+        assertThrows(IOException.class, () -> ListingSnapshot.read(file, new ListingCache()));
+    }
+
+    private static RealEstate listing(int id, int i) {
+        RealEstate listing = new RealEstate();
+        listing.setId(id);
+        listing.setVersion(i % 5);
+        listing.setRealEstateName("Listing " + i + (i % 7 == 0 ? " für Ärzte" : ""));
+        listing.setOwner(OWNERS[i % OWNERS.length]);
+        listing.setAddress(i % 11 == 0 ? null : (i % 100) + " Main Street");
+        listing.setZipCode(10_000L + i % 250);
+        listing.setPrice(i % 13 == 0 ? 0 : 50_000 + i * 12.5);
+        listing.setNumberOfRooms(1 + i % 6);
+        return listing;
+    }
+
+    private static List<String> describe(ListingCache cache) {
+        List<RealEstate> listings = new ArrayList<>();
+        for (int row = 0; row < cache.rowCount(); row++) {
+            if (cache.isLive(row)) {
+                listings.add(cache.get(row));
+            }
+        }
+        listings.sort(Comparator.comparingInt(RealEstate::getId));
+        return listings.stream()
+                .map(listing -> String.join("|", String.valueOf(listing.getId()), String.valueOf(listing.getVersion()),
+                        listing.getRealEstateName(), listing.getOwner(), listing.getAddress(),
+                        String.valueOf(listing.getZipCode()), String.valueOf(listing.getPrice()),
+                        String.valueOf(listing.getNumberOfRooms())))
+                .toList();
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("listing-snapshot");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowIndexTest {
+
+    @Test
+    void behavesLikeMap() {
+        Random random = new Random(5);
+        RowIndex index = new RowIndex();
+        Map<Integer, Integer> expected = new HashMap<>();
+        // Enough IDs to grow the table several times, from a range that makes probe chains collide
+        for (int operation = 0; operation < 50_000; operation++) {
+            int id = random.nextInt(20_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                Integer row = expected.remove(id);
+                assertEquals(row == null ? -1 : row, index.remove(id), "remove " + id);
+            } else {
+                int row = random.nextInt(100_000);
+                expected.put(id, row);
+                index.put(id, row);
+            }
+        }
+        for (int id = -1_000; id < 19_000; id++) {
+            int row = expected.getOrDefault(id, -1);
+            assertEquals(row, index.get(id), "get " + id);
+        }
+    }
+
+    @Test
+    void clearRemovesEveryId() {
+        RowIndex index = new RowIndex();
+        for (int id = 0; id < 5_000; id++) {
+            index.put(id, id);
+        }
+        index.clear();
+        assertEquals(-1, index.get(42));
+        index.put(42, 7);
+        assertEquals(7, index.get(42));
+    }
+}
@@ -0,0 +1,116 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedColumnIndexTest {
+
+    private static final int ROWS = 3_000;
+    // Few distinct values, so most values repeat
+    private static final int DISTINCT_VALUES = 50;
+
+    private final Random random = new Random(7);
+    private final double[] column = new double[ROWS];
+    private final BitSet live = new BitSet();
+
+    @Test
+    void builtIndexMatchesBruteForce() {
+        SortedColumnIndex index = build();
+        assertMatchesBruteForce(index);
+    }
+
+    @Test
+    void singleRowChangesMatchBruteForce() {
+        SortedColumnIndex index = build();
+        for (int change = 0; change < 2_000; change++) {
+            int row = random.nextInt(ROWS);
+            if (live.get(row)) {
+                index.remove(row, column[row]);
+                live.clear(row);
+            } else {
+                column[row] = randomValue();
+                index.add(row, column[row]);
+                live.set(row);
+            }
+        }
+        assertMatchesBruteForce(index);
+    }
+
+    @Test
+    void changesToStaleIndexWaitForRebuild() {
+        SortedColumnIndex index = build();
+        index.invalidate();
+        int row = live.nextSetBit(0);
+        index.remove(row, column[row]);
+        live.clear(row);
+        index.buildIfStale(r -> column[r], live);
+        assertMatchesBruteForce(index);
+    }
+
+    @Test
+    void quantileOfEmptyIndexIsNaN() {
+        assertTrue(Double.isNaN(new SortedColumnIndex().quantile(0.5)));
+    }
+
+    @Test
+    void quantilesAndHistogramFollowValues() {
+        SortedColumnIndex index = new SortedColumnIndex();
+        for (int row = 0; row < 100; row++) {
+            index.add(row, row + 1);
+        }
+        assertEquals(1, index.quantile(0), 0);
+        assertEquals(50, index.quantile(0.5), 0);
+        assertEquals(99, index.quantile(0.99), 0);
+        assertEquals(100, index.quantile(1), 0);
+        // 1-10 plus everything below, then 11-20 and so on, with 91-100 and beyond in the last bucket
+        assertArrayEquals(new long[]{10, 10, 10, 10, 10, 10, 10, 10, 10, 10}, index.histogram(0.5, 100.5, 10));
+        assertArrayEquals(new long[]{30, 70}, index.histogram(10.5, 50.5, 2));
+    }
+
+    private SortedColumnIndex build() {
+        for (int row = 0; row < ROWS; row++) {
+            column[row] = randomValue();
+            if (random.nextInt(5) > 0) {
+                live.set(row);
+            }
+        }
+        SortedColumnIndex index = new SortedColumnIndex();
+        index.invalidate();
+        index.buildIfStale(row -> column[row], live);
+        return index;
+    }
+
+    private double randomValue() {
+        return random.nextInt(DISTINCT_VALUES) * 1_000.0;
+    }
+
+    private void assertMatchesBruteForce(SortedColumnIndex index) {
+        for (int query = 0; query < 200; query++) {
+            double min = random.nextInt(DISTINCT_VALUES + 2) * 1_000.0 - 1_500;
+            double max = min + random.nextInt(DISTINCT_VALUES / 2) * 1_000.0;
+            int[] expected = live.stream().filter(row -> column[row] >= min && column[row] <= max).toArray();
+            assertArrayEquals(expected, index.rowsBetween(min, max), min + " to " + max);
+            assertEquals(expected.length, index.count(min, max));
+
+            long[] keys = IntStream.range(0, 1 + random.nextInt(4))
+                    .mapToLong(i -> random.nextInt(DISTINCT_VALUES + 1) * 1_000L)
+                    .distinct()
+                    .toArray();
+            int[] expectedEqual = live.stream()
+                    .filter(row -> Arrays.stream(keys).anyMatch(key -> key == column[row]))
+                    .toArray();
+            assertArrayEquals(expectedEqual, index.rowsEqual(keys), Arrays.toString(keys));
+            assertEquals(expectedEqual.length, index.countEqual(keys));
+        }
+        long[] histogram = index.histogram(10_000, 40_000, 7);
+        assertEquals(live.cardinality(), Arrays.stream(histogram).sum());
+    }
+}
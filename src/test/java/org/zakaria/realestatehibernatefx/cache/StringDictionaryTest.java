@@ -0,0 +1,56 @@
+package org.zakaria.realestatehibernatefx.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StringDictionaryTest {
+
+    @Test
+    void encodesEachDistinctValueOnce() {
+        StringDictionary dictionary = new StringDictionary();
+        int[] codes = new int[1_000];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = dictionary.encode("Owner " + i);
+        }
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(codes[i], dictionary.encode("Owner " + i));
+            assertEquals("Owner " + i, dictionary.decode(codes[i]));
+        }
+        assertEquals(codes.length + 1, dictionary.size());
+    }
+
+    @Test
+    void nullHasItsOwnCode() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(StringDictionary.NULL_CODE, dictionary.encode(null));
+        assertNull(dictionary.decode(StringDictionary.NULL_CODE));
+        assertNotEquals(StringDictionary.NULL_CODE, dictionary.encode(""));
+    }
+
+    @Test
+    void matchingTestsValuesButNotNull() {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode(null);
+        int smith = dictionary.encode("Smith");
+        dictionary.encode("Jones");
+        int smithers = dictionary.encode("Smithers");
+        BitSet expected = new BitSet();
+        expected.set(smith);
+        expected.set(smithers);
+        assertEquals(expected, dictionary.matching(value -> value.startsWith("Smith")));
+    }
+
+    @Test
+    void clearStartsOver() {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("Smith");
+        dictionary.clear();
+        assertEquals(1, dictionary.size());
+        assertEquals(1, dictionary.encode("Jones"));
+    }
+}
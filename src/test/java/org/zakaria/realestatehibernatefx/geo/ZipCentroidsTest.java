@@ -0,0 +1,101 @@
+package org.zakaria.realestatehibernatefx.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipCentroidsTest {
+
+    private static final int ZIP_CODES = 4_000;
+
+    @Test
+    void readsTabAndCommaSeparatedFiles() throws IOException {
+        ZipCentroids tabs = ZipCentroids.read(new StringReader(
+                "GEOID\tALAND\tINTPTLAT\tINTPTLONG\n"
+                        + "# comment\n"
+                        + "00601\t1\t18.180555\t-66.749961\n"
+                        + "00602\t1\tnot a latitude\t-67.180019\n"
+                        + "\n"
+                        + "00603\t1\t18.455183\t-67.122361\n"));
+        assertEquals(2, tabs.size());
+        assertTrue(tabs.contains(601));
+        assertFalse(tabs.contains(602));
+
+        ZipCentroids commas = ZipCentroids.read(new StringReader("zip,latitude,longitude\n10001,40.75,-73.99\n"));
+        assertEquals(1, commas.size());
+        assertThrows(IOException.class, () -> ZipCentroids.read(new StringReader("zip,x,y\n10001,40.75,-73.99\n")));
+    }
+
+    @Test
+    void withinMatchesBruteForce() throws IOException {
+        Random random = new Random(31);
+        long[] zipCodes = new long[ZIP_CODES];
+        double[] latitudes = new double[ZIP_CODES];
+        double[] longitudes = new double[ZIP_CODES];
+        StringBuilder file = new StringBuilder("zip\tlatitude\tlongitude\n");
+        for (int i = 0; i < ZIP_CODES; i++) {
+            zipCodes[i] = 10_000 + i;
+            // Clustered around the antimeridian and the poles, where cells are narrow and wrap
+            double latitude = random.nextBoolean() ? randomAround(random, 0, 90, 6) : randomAround(random, 0, 40, 40);
+            double longitude = random.nextBoolean() ? randomAround(random, 180, 180, 8) : randomAround(random, 0, 180, 180);
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+            file.append(zipCodes[i]).append('\t').append(latitude).append('\t').append(longitude).append('\n');
+        }
+        ZipCentroids centroids = ZipCentroids.read(new StringReader(file.toString()));
+
+        for (int query = 0; query < 300; query++) {
+            int center = random.nextInt(ZIP_CODES);
+            double radiusKm = Math.pow(10, random.nextDouble() * 4);
+            long[] expected = LongStream.range(0, ZIP_CODES)
+                    .filter(i -> ZipCentroids.distanceKm(latitudes[center], longitudes[center],
+                            latitudes[(int) i], longitudes[(int) i]) <= radiusKm)
+                    .map(i -> zipCodes[(int) i])
+                    .toArray();
+            ZipArea area = centroids.within(zipCodes[center], radiusKm);
+            assertArrayEquals(expected, area.zipCodes(), () -> "around " + latitudes[center] + ","
+                    + longitudes[center] + " within " + radiusKm + " km");
+            assertTrue(area.contains(zipCodes[center]));
+        }
+    }
+
+    @Test
+    void unknownCenterOrZeroRadiusIsZipCodeAlone() throws IOException {
+        ZipCentroids centroids = ZipCentroids.read(new StringReader(
+                "zip,latitude,longitude\n10001,40.75,-73.99\n10002,40.71,-73.98\n"));
+        ZipArea unknown = centroids.within(99_999, 50);
+        assertArrayEquals(new long[]{99_999}, unknown.zipCodes());
+        assertTrue(unknown.radiusIgnored());
+
+        ZipArea zero = centroids.within(10_001, 0);
+        assertArrayEquals(new long[]{10_001}, zero.zipCodes());
+        assertFalse(zero.radiusIgnored());
+        assertArrayEquals(new long[]{10_001, 10_002}, centroids.within(10_001, 10).zipCodes());
+    }
+
+    @Test
+    void distanceIsGreatCircle() {
+        assertEquals(0, ZipCentroids.distanceKm(40, -74, 40, -74), 1e-9);
+        // A degree of latitude, and the same across the antimeridian
+        assertEquals(111.19, ZipCentroids.distanceKm(0, 0, 1, 0), 0.01);
+        assertEquals(111.19, ZipCentroids.distanceKm(0, 179.5, 0, -179.5), 0.01);
+        assertEquals(Math.PI * 6371.0088, ZipCentroids.distanceKm(90, 0, -90, 0), 0.01);
+    }
+
+    private static double randomAround(Random random, double center, double limit, double spread) {
+        double value = center + (random.nextDouble() * 2 - 1) * spread;
+        if (limit == 180) {
+            return value > 180 ? value - 360 : value;
+        }
+        return Math.max(-limit, Math.min(limit, value)) * (random.nextBoolean() ? 1 : -1);
+    }
+}
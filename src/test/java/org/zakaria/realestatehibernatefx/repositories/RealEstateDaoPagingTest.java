@@ -0,0 +1,153 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Field;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Key;
+import org.zakaria.realestatehibernatefx.utility.HibernateUtil;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks keyset pages over an in-memory H2 database in MySQL mode, whose rows
+ * tie on every sort field but the ID and have null owners and addresses,
+ * which the application itself never writes.
+ */
+class RealEstateDaoPagingTest {
+
+    private static final String URL = "jdbc:h2:mem:paging;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final int ROWS = 400;
+    private static final int PAGE_SIZE = 23;
+    private static final String[] OWNERS = {null, "Adams", "Jones", "Smith"};
+    private static final List<RealEstateSort> SORTS = List.of(
+            RealEstateSort.BY_ID,
+            new RealEstateSort(Field.ID, false),
+            new RealEstateSort(Field.OWNER, true),
+            new RealEstateSort(Field.OWNER, false),
+            new RealEstateSort(Field.ADDRESS, true),
+            new RealEstateSort(Field.PRICE, false),
+            new RealEstateSort(Field.NAME, false),
+            new RealEstateSort(List.of(new Key(Field.OWNER, true), new Key(Field.ADDRESS, false))),
+            new RealEstateSort(List.of(
+                    new Key(Field.ROOMS, false), new Key(Field.PRICE, true), new Key(Field.OWNER, false))));
+    private static final List<RealEstateFilter> FILTERS = List.of(
+            RealEstateFilter.NONE,
+            RealEstateFilter.of("", "", "", "2000", "3000"));
+
+    private final RealEstateDao realEstateDao = new RealEstateDao();
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        System.setProperty("realestate.db.url", URL);
+        System.setProperty("realestate.db.driver", "org.h2.Driver");
+        System.setProperty("realestate.db.username", "sa");
+        System.setProperty("realestate.db.password", "");
+        System.setProperty("realestate.db.schema.action", "create");
+        HibernateUtil.startAsync().join();
+
+        // Inserted in random order, so that the physical order is not the ID order
+        List<Integer> ids = new ArrayList<>(IntStream.rangeClosed(1, ROWS).boxed().toList());
+        Collections.shuffle(ids, new Random(41));
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             PreparedStatement insert = connection.prepareStatement("insert into real_estate "
+                     + "(id, RealEstateName, zipCode, address, price, number_of_rooms, owner, version) "
+                     + "values (?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int id : ids) {
+                insert.setInt(1, id);
+                insert.setString(2, "Listing " + (id * 7 % ROWS));
+                insert.setLong(3, 10_000 + id % 3);
+                if (id % 6 == 0) {
+                    insert.setNull(4, Types.VARCHAR);
+                } else {
+                    insert.setString(4, id % 5 + " Main Street");
+                }
+                insert.setDouble(5, 1_000 + id * 37 % 5 * 1_000);
+                insert.setInt(6, 1 + id % 4);
+                if (OWNERS[id % OWNERS.length] == null) {
+                    insert.setNull(7, Types.VARCHAR);
+                } else {
+                    insert.setString(7, OWNERS[id % OWNERS.length]);
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        HibernateUtil.shutdown();
+    }
+
+    @Test
+    void pagesFollowSortOrder() {
+        List<RealEstate> all = realEstateDao.getAllRealEstates();
+        assertEquals(ROWS, all.size());
+        for (RealEstateSort sort : SORTS) {
+            for (RealEstateFilter filter : FILTERS) {
+                List<Integer> expected = expected(all, filter, sort);
+                List<Integer> paged = new ArrayList<>();
+                RealEstate after = null;
+                List<RealEstate> page;
+                do {
+                    page = realEstateDao.getRealEstatePage(filter, sort, after, PAGE_SIZE);
+                    page.forEach(realEstate -> paged.add(realEstate.getId()));
+                    after = page.isEmpty() ? null : page.get(page.size() - 1);
+                } while (page.size() == PAGE_SIZE);
+                assertEquals(expected, paged, sort + " " + filter);
+                assertEquals(expected.size(), realEstateDao.countRealEstates(filter));
+            }
+        }
+    }
+
+    @Test
+    void rowAtOffsetFollowsSortOrder() {
+        List<RealEstate> all = realEstateDao.getAllRealEstates();
+        for (RealEstateSort sort : SORTS) {
+            List<Integer> expected = expected(all, RealEstateFilter.NONE, sort);
+            for (int offset : new int[]{0, 1, 99, ROWS - 1}) {
+                int id = expected.get(offset);
+                assertEquals(id, realEstateDao.getRealEstateAt(RealEstateFilter.NONE, sort, offset).orElseThrow().getId());
+            }
+            assertTrue(realEstateDao.getRealEstateAt(RealEstateFilter.NONE, sort, ROWS).isEmpty());
+        }
+    }
+
+    @Test
+    void pagerJumpsToAnyPage() {
+        List<RealEstate> all = realEstateDao.getAllRealEstates();
+        Random random = new Random(43);
+        for (RealEstateSort sort : SORTS) {
+            List<Integer> expected = expected(all, RealEstateFilter.NONE, sort);
+            RealEstatePager pager = new RealEstatePager(realEstateDao, RealEstateFilter.NONE, sort, PAGE_SIZE);
+            assertEquals((ROWS + PAGE_SIZE - 1) / PAGE_SIZE, pager.getPageCount());
+            for (int i = 0; i < 10; i++) {
+                int pageIndex = random.nextInt(pager.getPageCount());
+                int from = pageIndex * PAGE_SIZE;
+                assertEquals(expected.subList(from, Math.min(from + PAGE_SIZE, ROWS)),
+                        pager.getPage(pageIndex).stream().map(RealEstate::getId).toList(), sort + " page " + pageIndex);
+            }
+        }
+    }
+
+    private static List<Integer> expected(List<RealEstate> all, RealEstateFilter filter, RealEstateSort sort) {
+        return all.stream()
+                .filter(filter::matches)
+                .sorted(sort.comparator())
+                .map(RealEstate::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,146 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.geo.ZipArea;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealEstateFilterTest {
+
+    private static final String[] TEXTS = {null, "o", "o1", "O12", "st", "street", "n2", "3"};
+    private static final String[] OWNERS = {null, "o", "O1", "o12"};
+    private static final String[] ADDRESSES = {null, "1", "12", "main", "12 main"};
+    private static final Double[] MIN_PRICES = {null, 0.0, 2_000.0, 5_000.0};
+    private static final Double[] MAX_PRICES = {null, 9_000.0, 6_000.0, 3_000.0};
+    private static final Integer[] RADII = {null, 0, 2, 5};
+
+    @Test
+    void normalizesText() {
+        RealEstateFilter filter = RealEstateFilter.of("  Main ", " ", null, "", "  ");
+        assertEquals("main", filter.text());
+        assertNull(filter.owner());
+        assertNull(filter.address());
+        assertNull(filter.minPrice());
+        assertTrue(RealEstateFilter.of("", "", "", "", "").isEmpty());
+        assertFalse(filter.isEmpty());
+    }
+
+    @Test
+    void unparseableInputMatchesNothing() {
+        RealEstateFilter filter = RealEstateFilter.of("", "", "", "cheap", "");
+        assertTrue(filter.unsatisfiable());
+        assertFalse(filter.isEmpty());
+        assertFalse(filter.matches(realEstate("Smith", "1 Main Street", 1_000)));
+        assertTrue(RealEstateFilter.of("", "", "", "", "", "10001", "-5").unsatisfiable());
+        assertTrue(RealEstateFilter.of("", "", "", "", "", "zip", "").unsatisfiable());
+    }
+
+    @Test
+    void matchesIgnoringCase() {
+        RealEstate realEstate = realEstate("Smith", "12 Main Street", 250_000);
+        assertTrue(RealEstateFilter.of("MAIN", "", "", "", "").matches(realEstate));
+        assertTrue(RealEstateFilter.of("", "sMi", "", "", "").matches(realEstate));
+        assertFalse(RealEstateFilter.of("", "mith", "", "", "").matches(realEstate));
+        assertTrue(RealEstateFilter.of("", "", "street", "250000", "250000").matches(realEstate));
+        assertFalse(RealEstateFilter.of("", "", "", "250000.01", "").matches(realEstate));
+    }
+
+    @Test
+    void doesNotMatchPriceAsText() {
+        RealEstate realEstate = realEstate("Smith", "Main Street", 250_000);
+        assertFalse(RealEstateFilter.of("250", "", "", "", "").matches(realEstate));
+    }
+
+    @Test
+    void nullFieldsMatchOnlyEmptyCriteria() {
+        RealEstate realEstate = realEstate(null, null, 100);
+        assertTrue(RealEstateFilter.NONE.matches(realEstate));
+        assertFalse(RealEstateFilter.of("", "a", "", "", "").matches(realEstate));
+        assertFalse(RealEstateFilter.of("", "", "a", "", "").matches(realEstate));
+    }
+
+    @Test
+    void recognizesRefinements() {
+        RealEstateFilter broad = RealEstateFilter.of("ma", "sm", "", "1000", "");
+        assertTrue(RealEstateFilter.of("main", "smith", "", "1000", "").isRefinementOf(broad));
+        assertTrue(RealEstateFilter.of("ma", "sm", "", "2000", "5000").isRefinementOf(broad));
+        assertTrue(broad.isRefinementOf(broad));
+        assertTrue(broad.isRefinementOf(RealEstateFilter.NONE));
+        // The owner is a prefix, so a longer owner text narrows only if it starts with the shorter one
+        assertFalse(RealEstateFilter.of("ma", "xsm", "", "1000", "").isRefinementOf(broad));
+        assertFalse(RealEstateFilter.of("ma", "sm", "", "", "").isRefinementOf(broad));
+        assertFalse(RealEstateFilter.of("ma", "sm", "", "500", "").isRefinementOf(broad));
+        assertFalse(broad.isRefinementOf(null));
+        RealEstateFilter unsatisfiable = RealEstateFilter.of("ma", "sm", "", "x", "");
+        assertFalse(unsatisfiable.isRefinementOf(broad));
+        assertFalse(broad.isRefinementOf(unsatisfiable));
+    }
+
+    @Test
+    void refinementMatchesOnlyRowsOfPreviousFilter() {
+        Random random = new Random(21);
+        List<RealEstate> realEstates = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            realEstates.add(randomRealEstate(random));
+        }
+        List<RealEstateFilter> filters = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            filters.add(randomFilter(random));
+        }
+        int refinements = 0;
+        for (RealEstateFilter previous : filters) {
+            for (RealEstateFilter current : filters) {
+                if (!current.isRefinementOf(previous)) {
+                    continue;
+                }
+                refinements++;
+                for (RealEstate realEstate : realEstates) {
+                    assertTrue(!current.matches(realEstate) || previous.matches(realEstate),
+                            () -> current + " refines " + previous + " but matches more of " + realEstate.getOwner());
+                }
+            }
+        }
+        assertTrue(refinements > filters.size(), "too few refinements to be meaningful: " + refinements);
+    }
+
+    private static RealEstateFilter randomFilter(Random random) {
+        Integer radius = pick(random, RADII);
+        ZipArea area = radius == null ? null
+                : new ZipArea(10_000, radius, LongStream.rangeClosed(10_000, 10_000 + radius).toArray(), true);
+        return new RealEstateFilter(pick(random, TEXTS), pick(random, OWNERS), pick(random, ADDRESSES),
+                pick(random, MIN_PRICES), pick(random, MAX_PRICES), area, false);
+    }
+
+    private static RealEstate randomRealEstate(Random random) {
+        RealEstate realEstate = realEstate(
+                random.nextInt(5) == 0 ? null : "O" + random.nextInt(30) + " Smith",
+                random.nextInt(5) == 0 ? null : random.nextInt(30) + " Main Street",
+                random.nextInt(10) * 1_000);
+        realEstate.setRealEstateName("N" + random.nextInt(30));
+        realEstate.setZipCode(10_000 + random.nextInt(8));
+        realEstate.setNumberOfRooms(random.nextInt(6));
+        return realEstate;
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static RealEstate realEstate(String owner, String address, double price) {
+        RealEstate realEstate = new RealEstate();
+        realEstate.setOwner(owner);
+        realEstate.setAddress(address);
+        realEstate.setRealEstateName("Listing");
+        realEstate.setPrice(price);
+        return realEstate;
+    }
+}
@@ -0,0 +1,70 @@
+package org.zakaria.realestatehibernatefx.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Field;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateSort.Key;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealEstateSortTest {
+
+    @Test
+    void appendsIdKey() {
+        assertEquals(List.of(new Key(Field.ID, true)), RealEstateSort.BY_ID.keys());
+        assertEquals(List.of(new Key(Field.PRICE, false), new Key(Field.ID, true)),
+                new RealEstateSort(Field.PRICE, false).keys());
+    }
+
+    @Test
+    void dropsRepeatedFieldsAndKeysAfterId() {
+        RealEstateSort sort = new RealEstateSort(List.of(
+                new Key(Field.OWNER, true),
+                new Key(Field.OWNER, false),
+                new Key(Field.ID, false),
+                new Key(Field.PRICE, true)));
+        assertEquals(List.of(new Key(Field.OWNER, true), new Key(Field.ID, false)), sort.keys());
+    }
+
+    @Test
+    void nullsSortFirstAscendingAndLastDescending() {
+        List<RealEstate> realEstates = List.of(
+                realEstate(1, "Jones"), realEstate(2, null), realEstate(3, "Adams"), realEstate(4, null));
+        assertEquals(List.of(2, 4, 3, 1), ids(realEstates, new RealEstateSort(Field.OWNER, true)));
+        assertEquals(List.of(1, 3, 2, 4), ids(realEstates, new RealEstateSort(Field.OWNER, false)));
+    }
+
+    @Test
+    void tiesAreOrderedById() {
+        List<RealEstate> realEstates = List.of(
+                realEstate(5, "Smith"), realEstate(2, "Smith"), realEstate(9, "Adams"), realEstate(7, "Smith"));
+        assertEquals(List.of(9, 2, 5, 7), ids(realEstates, new RealEstateSort(Field.OWNER, true)));
+        assertEquals(List.of(2, 5, 7, 9), ids(realEstates, new RealEstateSort(Field.OWNER, false)));
+        assertEquals(List.of(9, 7, 5, 2), ids(realEstates, new RealEstateSort(List.of(
+                new Key(Field.OWNER, true), new Key(Field.ID, false)))));
+    }
+
+    @Test
+    void textIgnoresCase() {
+        List<RealEstate> realEstates = List.of(
+                realEstate(1, "smith"), realEstate(2, "Jones"), realEstate(3, "SMITH"), realEstate(4, "adams"));
+        assertEquals(List.of(4, 2, 1, 3), ids(realEstates, new RealEstateSort(Field.OWNER, true)));
+        assertEquals(List.of(1, 3, 2, 4), ids(realEstates, new RealEstateSort(Field.OWNER, false)));
+    }
+
+    private static List<Integer> ids(List<RealEstate> realEstates, RealEstateSort sort) {
+        List<RealEstate> sorted = new ArrayList<>(realEstates);
+        sorted.sort(sort.comparator());
+        return sorted.stream().map(RealEstate::getId).toList();
+    }
+
+    private static RealEstate realEstate(int id, String owner) {
+        RealEstate realEstate = new RealEstate();
+        realEstate.setId(id);
+        realEstate.setOwner(owner);
+        return realEstate;
+    }
+}
@@ -0,0 +1,62 @@
+package org.zakaria.realestatehibernatefx.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaseFoldingTest {
+
+    // Includes the characters whose lower case depends on context, has another length, or is a surrogate pair
+    private static final String ALPHABET = "aAbBiIİıΣσς𐐀𐐨 ";
+
+    @Test
+    void matchesRootLowerCaseOfWholeValue() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            String value = randomText(random, random.nextInt(8));
+            String needle = CaseFolding.fold(randomText(random, random.nextInt(3)));
+            String folded = value.toLowerCase(Locale.ROOT);
+            assertEquals(folded.contains(needle), CaseFolding.contains(value, needle), value + " / " + needle);
+            assertEquals(folded.startsWith(needle), CaseFolding.startsWith(value, needle), value + " / " + needle);
+        }
+    }
+
+    @Test
+    void ignoresDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals("istanbul", CaseFolding.fold("ISTANBUL"));
+            assertTrue(CaseFolding.contains("ISTANBUL", "ist"));
+            assertTrue(CaseFolding.startsWith("Illinois Avenue", "ill"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void nullValueMatchesNothing() {
+        assertFalse(CaseFolding.contains(null, ""));
+        assertFalse(CaseFolding.startsWith(null, ""));
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int at = random.nextInt(ALPHABET.length());
+            if (Character.isLowSurrogate(ALPHABET.charAt(at))) {
+                at--;
+            }
+            text.append(ALPHABET.charAt(at));
+            if (Character.isHighSurrogate(ALPHABET.charAt(at))) {
+                text.append(ALPHABET.charAt(at + 1));
+            }
+        }
+        return text.toString();
+    }
+}
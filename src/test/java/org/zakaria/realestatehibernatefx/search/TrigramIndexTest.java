@@ -0,0 +1,130 @@
+package org.zakaria.realestatehibernatefx.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static final String ALPHABET = "abcAB Cİı";
+    private static final int ROWS = 2_000;
+
+    @Test
+    void candidatesContainEveryMatchingRow() {
+        Random random = new Random(11);
+        String[][] rows = randomRows(random);
+        TrigramIndex index = new TrigramIndex();
+        for (int row = 0; row < ROWS; row++) {
+            index.add(row, rows[row]);
+        }
+        for (int query = 0; query < 500; query++) {
+            String needle = CaseFolding.fold(randomText(random, 3 + random.nextInt(3)));
+            assertCandidatesCover(index, rows, needle, Set.of());
+        }
+    }
+
+    @Test
+    void removedRowsAreNoCandidates() {
+        Random random = new Random(12);
+        String[][] rows = randomRows(random);
+        TrigramIndex index = new TrigramIndex();
+        // Out of order, which inserts into the middle of posting lists
+        for (int row = ROWS - 1; row >= 0; row--) {
+            index.add(row, rows[row]);
+        }
+        Set<Integer> removed = new HashSet<>();
+        for (int row = 0; row < ROWS; row += 2) {
+            index.remove(row, rows[row]);
+            removed.add(row);
+        }
+        for (int query = 0; query < 500; query++) {
+            String needle = CaseFolding.fold(randomText(random, 3 + random.nextInt(3)));
+            assertCandidatesCover(index, rows, needle, removed);
+        }
+    }
+
+    @Test
+    void shortNeedleCannotUseIndex() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "abcdef");
+        assertNull(index.candidates("ab"));
+    }
+
+    @Test
+    void unknownGramHasNoCandidates() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "abcdef");
+        assertEquals(0, index.candidates("xyz").length);
+    }
+
+    @Test
+    void gramsDoNotSpanFields() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "abc", "def");
+        assertEquals(0, index.candidates("cde").length);
+        assertArrayEquals(new int[]{0}, index.candidates("def"));
+    }
+
+    @Test
+    void clearRemovesEveryRow() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "Main Street");
+        index.clear();
+        assertEquals(0, index.gramCount());
+        assertEquals(0, index.candidates("mai").length);
+    }
+
+    private static void assertCandidatesCover(TrigramIndex index, String[][] rows, String needle, Set<Integer> removed) {
+        int[] candidates = index.candidates(needle);
+        int[] sorted = candidates.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, candidates, "candidates must be in ascending order");
+        Set<Integer> candidateSet = new HashSet<>();
+        for (int row : candidates) {
+            candidateSet.add(row);
+        }
+        for (int row = 0; row < rows.length; row++) {
+            if (removed.contains(row)) {
+                assertFalse(candidateSet.contains(row),"removed row " + row + " returned for " + needle);
+            } else if (matches(rows[row], needle)) {
+                assertTrue(candidateSet.contains(row), "row " + row + " missing for " + needle);
+            }
+        }
+    }
+
+    private static boolean matches(String[] fields, String needle) {
+        for (String field : fields) {
+            if (field != null && CaseFolding.fold(field).contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[][] randomRows(Random random) {
+        String[][] rows = new String[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            rows[row] = new String[]{
+                    randomText(random, 4 + random.nextInt(12)),
+                    random.nextInt(10) == 0 ? null : randomText(random, random.nextInt(10))};
+        }
+        return rows;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private static final double RELATIVE_ERROR = 0.125;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileMillis(0.99), 0);
+        assertEquals(0, histogram.maxMillis(), 0);
+    }
+
+    @Test
+    void smallDurationsAreExact() {
+        for (long micros = 0; micros < 8; micros++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(micros * 1_000 + 999);
+            assertEquals(micros / 1_000.0, histogram.percentileMillis(0.5), 0);
+        }
+    }
+
+    @Test
+    void singleDurationIsWithinBucketError() {
+        Random random = new Random(9);
+        for (int i = 0; i < 10_000; i++) {
+            // Below 2^53 µs, so that the duration fits in a long of nanoseconds
+            long micros = 8 + (random.nextLong() >>> (11 + random.nextInt(53)));
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(micros * 1_000);
+            assertWithinBucketError(micros, histogram.percentileMillis(0.5));
+            assertEquals(micros / 1_000.0, histogram.maxMillis(), 0);
+        }
+    }
+
+    @Test
+    void percentilesAreWithinBucketError() {
+        Random random = new Random(10);
+        long[] micros = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = (long) Math.exp(random.nextDouble() * 16);
+            histogram.record(micros[i] * 1_000);
+        }
+        Arrays.sort(micros);
+        assertEquals(micros.length, histogram.count());
+        for (double quantile : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1}) {
+            long expected = micros[(int) Math.ceil(quantile * micros.length) - 1];
+            assertWithinBucketError(expected, histogram.percentileMillis(quantile));
+        }
+        assertEquals(micros[micros.length - 1] / 1_000.0, histogram.maxMillis(), 0);
+    }
+
+    @Test
+    void recordsLongestDuration() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-1);
+        assertEquals(2, histogram.count());
+        assertEquals(Long.MAX_VALUE / 1_000 / 1_000.0, histogram.percentileMillis(1), 0);
+        assertEquals(0, histogram.percentileMillis(0.5), 0);
+    }
+
+    private static void assertWithinBucketError(long expectedMicros, double actualMillis) {
+        double error = Math.abs(actualMillis * 1_000 - expectedMicros);
+        assertTrue(error <= expectedMicros * RELATIVE_ERROR,
+                () -> expectedMicros + " µs reported as " + actualMillis + " ms");
+    }
+}
@@ -0,0 +1,125 @@
+package org.zakaria.realestatehibernatefx.utility;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.zakaria.realestatehibernatefx.model.RealEstate;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateAnalyticsDao;
+import org.zakaria.realestatehibernatefx.repositories.RealEstateDao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes reads between two in-memory H2 databases: a primary, and a replica
+ * that never receives a row. A read that finds rows was answered by the
+ * primary.
+ */
+class ReplicaRoutingTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final long READ_YOUR_WRITES_MILLIS = 1_000;
+    private static final long REPLICA_TIMEOUT_MILLIS = 10_000;
+    private static final AtomicInteger names = new AtomicInteger();
+
+    private final RealEstateDao realEstateDao = new RealEstateDao();
+
+    @BeforeAll
+    static void startDatabases() throws Exception {
+        // The replica gets the schema of a database created by the first release, upgraded by the shipped script
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table real_estate (id integer auto_increment primary key, "
+                    + "RealEstateName varchar(255) not null unique, zipCode bigint, address varchar(255), "
+                    + "price float(53), number_of_rooms integer, owner varchar(255))");
+            statement.execute("runscript from 'classpath:db/upgrade-schema.sql'");
+        }
+        System.setProperty("realestate.db.url", PRIMARY_URL);
+        System.setProperty("realestate.db.driver", "org.h2.Driver");
+        System.setProperty("realestate.db.username", "sa");
+        System.setProperty("realestate.db.password", "");
+        System.setProperty("realestate.db.schema.action", "create");
+        System.setProperty("realestate.db.replica.urls", REPLICA_URL);
+        System.setProperty("realestate.db.replica.readYourWritesMillis", String.valueOf(READ_YOUR_WRITES_MILLIS));
+        HibernateUtil.startAsync().join();
+        assertTrue(new RealEstateDao().saveRealEstate(newRealEstate()).isPresent());
+    }
+
+    @AfterAll
+    static void stopDatabases() {
+        HibernateUtil.shutdown();
+    }
+
+    @Test
+    void readsStayOnPrimaryAfterWrite() {
+        assertTrue(awaitReplicaReads(), "reads never reached the replica");
+        assertTrue(realEstateDao.saveRealEstate(newRealEstate()).isPresent());
+        assertTrue(readsFromPrimary());
+    }
+
+    @Test
+    void readsReturnToReplicaAfterWindow() {
+        assertTrue(realEstateDao.saveRealEstate(newRealEstate()).isPresent());
+        assertTrue(awaitReplicaReads(), "reads stayed on the primary");
+    }
+
+    @Test
+    void priceSummaryRefreshKeepsReadsOnReplica() {
+        assertTrue(awaitReplicaReads(), "reads never reached the replica");
+        assertFalse(new RealEstateAnalyticsDao().getPriceSummary(RealEstateAnalyticsDao.Dimension.ZIP_CODE).isEmpty());
+        assertFalse(readsFromPrimary());
+    }
+
+    @Test
+    void polledChangesKeepReadsOnPrimary() {
+        assertTrue(awaitReplicaReads(), "reads never reached the replica");
+        assertFalse(realEstateDao.getChangesSince(Instant.EPOCH, 100).orElseThrow().upserted().isEmpty());
+        assertTrue(readsFromPrimary());
+    }
+
+    private static boolean readsFromPrimary() {
+        try (Session session = HibernateUtil.getReadSession()) {
+            return session.createSelectionQuery("select count(r) from RealEstate r", Long.class)
+                    .getSingleResult() > 0;
+        }
+    }
+
+    /**
+     * Waits for the read-your-writes window to pass and the replica to be
+     * started, which happens after the primary is ready.
+     */
+    private static boolean awaitReplicaReads() {
+        long deadline = System.currentTimeMillis() + REPLICA_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!readsFromPrimary()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static RealEstate newRealEstate() {
+        RealEstate realEstate = new RealEstate();
+        realEstate.setRealEstateName("Routing " + names.incrementAndGet());
+        realEstate.setAddress("1 Replica Road");
+        realEstate.setZipCode(10001);
+        realEstate.setOwner("Routing Owner");
+        realEstate.setPrice(250_000);
+        realEstate.setNumberOfRooms(3);
+        return realEstate;
+    }
+}